@@ -0,0 +1,107 @@
+package dev.test.projedata.autoflex.api.configs;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the requests of one endpoint group that may run at once, moving the cap with measured latency.
+ * The fastest recent response time stands for the unloaded latency. While responses stay within
+ * {@value #TOLERANCE} times that, the limit grows by its square root; beyond it the limit is scaled by
+ * the gradient {@code TOLERANCE * noLoad / latency} (never below {@value #MIN_GRADIENT}), smoothed so a
+ * single slow response only moves it part of the way. The rule is proportional, so it also shrinks
+ * groups whose limit is only a handful of requests. Server errors cut the limit multiplicatively.
+ * <p>
+ * The unloaded latency is re-measured every {@value #PROBE_EVERY} samples, so a slower database does not
+ * keep the limit pinned low forever. Samples taken while less than half the limit was in use say
+ * nothing about the limit and only refresh the latency floor.
+ */
+final class AdaptiveConcurrencyLimiter {
+
+    static final int PROBE_EVERY = 1000;
+
+    static final double TOLERANCE = 1.5;
+    static final double MIN_GRADIENT = 0.5;
+
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF = 0.9;
+
+    enum Outcome { SUCCESS, DROPPED, IGNORED }
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // Guarded by this.
+    private double estimatedLimit;
+    private long noLoadNanos;
+    private int samples;
+
+    AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || minLimit > maxLimit) throw new IllegalArgumentException("Invalid limits for group " + name);
+
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.limit = (int) estimatedLimit;
+    }
+
+    String name() {
+        return name;
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    // Never waits: a request over the limit is turned away at once instead of queueing for a connection.
+    boolean tryAcquire() {
+        for (int current = inFlight.get(); current < limit; current = inFlight.get()) {
+            if (inFlight.compareAndSet(current, current + 1)) return true;
+        }
+        return false;
+    }
+
+    void release(long latencyNanos, Outcome outcome) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        switch (outcome) {
+            case SUCCESS -> onSample(latencyNanos, inFlightBefore);
+            case DROPPED -> onDropped();
+            case IGNORED -> {
+            }
+        }
+    }
+
+    private synchronized void onSample(long latencyNanos, int inFlightBefore) {
+        if (latencyNanos <= 0) return;
+
+        if (++samples >= PROBE_EVERY) {
+            samples = 0;
+            noLoadNanos = latencyNanos;
+            return;
+        }
+        if (noLoadNanos == 0 || latencyNanos < noLoadNanos) {
+            noLoadNanos = latencyNanos;
+            return;
+        }
+        if (inFlightBefore * 2 < estimatedLimit) return;
+
+        double gradient = Math.clamp(TOLERANCE * noLoadNanos / latencyNanos, MIN_GRADIENT, 1.0);
+        if (gradient < 1.0) update(estimatedLimit * (1 - SMOOTHING + SMOOTHING * gradient));
+        else update(estimatedLimit + Math.sqrt(estimatedLimit));
+    }
+
+    private synchronized void onDropped() {
+        update(estimatedLimit * BACKOFF);
+    }
+
+    private void update(double next) {
+        estimatedLimit = Math.clamp(next, minLimit, maxLimit);
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,75 @@
+package dev.test.projedata.autoflex.api.configs;
+
+import dev.test.projedata.autoflex.api.exceptions.ServiceOverloadedException;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.pattern.PathPattern;
+
+import java.util.List;
+
+/**
+ * Admits each request through the limiter of the first endpoint group whose patterns match its path;
+ * paths outside every group are not limited. The permit is held until the response is complete, across
+ * the async dispatch of streamed responses, and the elapsed time is fed back to the limiter.
+ */
+class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String PERMIT = ConcurrencyLimitInterceptor.class.getName() + ".permit";
+
+    record Group(List<PathPattern> patterns, AdaptiveConcurrencyLimiter limiter) {
+    }
+
+    private record Permit(AdaptiveConcurrencyLimiter limiter, long startNanos) {
+    }
+
+    private final List<Group> groups;
+    private final long retryAfterSeconds;
+
+    ConcurrencyLimitInterceptor(List<Group> groups, long retryAfterSeconds) {
+        this.groups = groups;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC || request.getAttribute(PERMIT) != null) return true;
+
+        AdaptiveConcurrencyLimiter limiter = limiterFor(request);
+        if (limiter == null) return true;
+
+        if (!limiter.tryAcquire()) {
+            throw new ServiceOverloadedException("Concurrency limit of group '" + limiter.name() + "' reached: " + limiter.limit(), retryAfterSeconds);
+        }
+        request.setAttribute(PERMIT, new Permit(limiter, System.nanoTime()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(PERMIT) instanceof Permit permit)) return;
+        request.removeAttribute(PERMIT);
+
+        permit.limiter().release(System.nanoTime() - permit.startNanos(), outcome(response.getStatus(), ex));
+    }
+
+    private AdaptiveConcurrencyLimiter limiterFor(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        for (Group group : groups) {
+            for (PathPattern pattern : group.patterns()) {
+                if (pattern.matches(path)) return group.limiter();
+            }
+        }
+        return null;
+    }
+
+    // Only successful responses measure the database; fast 304s and client errors would drag the
+    // latency floor down.
+    private static AdaptiveConcurrencyLimiter.Outcome outcome(int status, Exception ex) {
+        if (ex != null || status >= 500) return AdaptiveConcurrencyLimiter.Outcome.DROPPED;
+        if (status >= 200 && status < 300) return AdaptiveConcurrencyLimiter.Outcome.SUCCESS;
+        return AdaptiveConcurrencyLimiter.Outcome.IGNORED;
+    }
+}
@@ -0,0 +1,60 @@
+package dev.test.projedata.autoflex.api.configs;
+
+import jakarta.annotation.PostConstruct;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Moves the id sequences past the ids already stored. Databases created before the entities switched
+ * from identity columns to pooled sequences already hold rows, while the sequences Hibernate creates
+ * for them start at 1, so the first inserts would collide with existing primary keys. Runs once the
+ * schema has been updated and before the application serves requests; a sequence that is already ahead
+ * is left alone. Only PostgreSQL needs it: other databases are created empty by the application.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SequenceAlignment {
+
+    private static final Logger log = LoggerFactory.getLogger(SequenceAlignment.class);
+
+    // Matches the allocationSize of the entities: the pooled optimizer hands out the block below the
+    // value it reads, so the sequence must sit one block above the highest id.
+    static final int ALLOCATION_SIZE = 50;
+
+    static final Map<String, String> SEQUENCES = Map.of(
+            "product_seq", "product",
+            "raw_material_seq", "raw_material",
+            "product_material_seq", "product_material",
+            "product_component_seq", "product_component");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SequenceAlignment(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    public void align() {
+        Boolean postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> connection.isWrapperFor(PGConnection.class));
+        if (!Boolean.TRUE.equals(postgres)) return;
+
+        SEQUENCES.forEach((sequence, table) -> {
+            Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, sequence);
+            if (!Boolean.TRUE.equals(exists)) return;
+
+            Long value = jdbcTemplate.queryForObject(
+                    "SELECT setval('" + sequence + "', GREATEST((SELECT last_value FROM " + sequence + "), "
+                            + "(SELECT COALESCE(MAX(id), 0) FROM " + table + ") + " + ALLOCATION_SIZE + "))",
+                    Long.class);
+            log.debug("Sequence {} aligned with {} at {}", sequence, table, value);
+        });
+    }
+}
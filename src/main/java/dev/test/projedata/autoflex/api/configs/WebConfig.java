@@ -1,12 +1,26 @@
 package dev.test.projedata.autoflex.api.configs;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.Arrays;
+import java.util.List;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private static final String CONCURRENCY = "autoflex.concurrency.";
+
+    private final Environment environment;
+
+    public WebConfig(Environment environment) {
+        this.environment = environment;
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
@@ -14,4 +28,30 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedMethods("POST", "PUT", "PATCH", "GET", "DELETE")
                 .allowedHeaders("*");
     }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!environment.getProperty(CONCURRENCY + "enabled", Boolean.class, true)) return;
+
+        List<ConcurrencyLimitInterceptor.Group> groups = Arrays.stream(environment.getProperty(CONCURRENCY + "groups", String[].class, new String[0]))
+                .map(String::strip)
+                .filter(name -> !name.isEmpty())
+                .map(this::concurrencyGroup)
+                .toList();
+        registry.addInterceptor(new ConcurrencyLimitInterceptor(groups, environment.getProperty(CONCURRENCY + "retry-after-seconds", Long.class, 1L)));
+    }
+
+    // autoflex.concurrency.<group>.patterns / initial-limit / min-limit / max-limit
+    private ConcurrencyLimitInterceptor.Group concurrencyGroup(String name) {
+        String prefix = CONCURRENCY + name + ".";
+        int maxLimit = environment.getRequiredProperty(prefix + "max-limit", Integer.class);
+        int minLimit = environment.getProperty(prefix + "min-limit", Integer.class, 1);
+        int initialLimit = environment.getProperty(prefix + "initial-limit", Integer.class, maxLimit);
+
+        return new ConcurrencyLimitInterceptor.Group(
+                Arrays.stream(environment.getRequiredProperty(prefix + "patterns", String[].class))
+                        .map(pattern -> PathPatternParser.defaultInstance.parse(pattern.strip()))
+                        .toList(),
+                new AdaptiveConcurrencyLimiter(name, initialLimit, minLimit, maxLimit));
+    }
 }
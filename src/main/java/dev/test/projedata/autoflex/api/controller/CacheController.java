@@ -0,0 +1,30 @@
+package dev.test.projedata.autoflex.api.controller;
+
+import dev.test.projedata.autoflex.api.dtos.response.CacheStatsResponse;
+import dev.test.projedata.autoflex.api.service.CatalogResponseCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/cache")
+@Tag(name = "Cache", description = "Endpoint for the findById response cache")
+public class CacheController {
+
+    private final CatalogResponseCache catalogResponseCache;
+
+    public CacheController(CatalogResponseCache catalogResponseCache) {
+        this.catalogResponseCache = catalogResponseCache;
+    }
+
+    @Operation(summary = "Cache statistics", description = "Size, hits, misses, hit rate and evictions of the product and raw material caches since startup")
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheStatsResponse>> stats() {
+        return ResponseEntity.ok().body(catalogResponseCache.stats());
+    }
+}
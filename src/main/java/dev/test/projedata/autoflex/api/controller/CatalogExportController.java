@@ -0,0 +1,50 @@
+package dev.test.projedata.autoflex.api.controller;
+
+import dev.test.projedata.autoflex.api.service.CatalogExportService;
+import dev.test.projedata.autoflex.api.service.ExportDataset;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/export")
+@Tag(name = "Export", description = "Endpoint for bulk catalog dumps")
+public class CatalogExportController {
+
+    private static final MediaType TEXT_CSV = MediaType.valueOf("text/csv");
+
+    private final CatalogExportService catalogExportService;
+
+    public CatalogExportController(CatalogExportService catalogExportService) {
+        this.catalogExportService = catalogExportService;
+    }
+
+    @Operation(summary = "Export as CSV", description = "Streams every row of products, rawMaterials, productMaterials or productComponents as CSV, in id order, with the same headers the import endpoints accept. Memory stays flat regardless of table size")
+    @GetMapping("/{dataset}")
+    public ResponseEntity<StreamingResponseBody> exportCsv(@PathVariable String dataset) {
+        ExportDataset target = ExportDataset.fromPath(dataset);
+
+        return ResponseEntity.ok()
+                .contentType(TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(target.path() + ".csv").build().toString())
+                .body(out -> catalogExportService.exportCsv(target, out));
+    }
+
+    @Operation(summary = "Export as NDJSON", description = "Same rows as the CSV export, one JSON object per line")
+    @GetMapping(value = "/{dataset}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportNdjson(@PathVariable String dataset) {
+        ExportDataset target = ExportDataset.fromPath(dataset);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> catalogExportService.exportNdjson(target, out));
+    }
+}
@@ -0,0 +1,53 @@
+package dev.test.projedata.autoflex.api.controller;
+
+import dev.test.projedata.autoflex.api.dtos.response.ImportSummaryResponse;
+import dev.test.projedata.autoflex.api.service.CatalogImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/imports")
+@Tag(name = "Import", description = "Endpoint for bulk catalog loads")
+public class CatalogImportController {
+
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final CatalogImportService catalogImportService;
+
+    public CatalogImportController(CatalogImportService catalogImportService) {
+        this.catalogImportService = catalogImportService;
+    }
+
+    @Operation(summary = "Import RawMaterials", description = "Bulk load raw materials from a JSON array or from CSV with the header name,stockQuantity. Invalid rows are listed in the summary and do not stop the load")
+    @PostMapping(value = "/rawMaterials", consumes = {MediaType.APPLICATION_JSON_VALUE, TEXT_CSV_VALUE})
+    public ResponseEntity<ImportSummaryResponse> importRawMaterials(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+        return ResponseEntity.ok().body(catalogImportService.importRawMaterials(body, MediaType.parseMediaType(contentType)));
+    }
+
+    @Operation(summary = "Import Products", description = "Bulk load products from a JSON array or from CSV with the header name,price. Invalid rows are listed in the summary and do not stop the load")
+    @PostMapping(value = "/products", consumes = {MediaType.APPLICATION_JSON_VALUE, TEXT_CSV_VALUE})
+    public ResponseEntity<ImportSummaryResponse> importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+        return ResponseEntity.ok().body(catalogImportService.importProducts(body, MediaType.parseMediaType(contentType)));
+    }
+
+    @Operation(summary = "Import ProductMaterials", description = "Bulk load bill of materials lines from a JSON array or from CSV with the header productId,rawMaterialId,quantityRequired. Lines with unknown ids or already linked materials are listed in the summary and do not stop the load")
+    @PostMapping(value = "/productMaterials", consumes = {MediaType.APPLICATION_JSON_VALUE, TEXT_CSV_VALUE})
+    public ResponseEntity<ImportSummaryResponse> importProductMaterials(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+        return ResponseEntity.ok().body(catalogImportService.importProductMaterials(body, MediaType.parseMediaType(contentType)));
+    }
+
+    @Operation(summary = "Import ProductComponents", description = "Bulk load sub-assembly lines from a JSON array or from CSV with the header productId,componentId,quantityRequired. Lines with unknown ids, already linked components or links that would create a cycle are listed in the summary and do not stop the load")
+    @PostMapping(value = "/productComponents", consumes = {MediaType.APPLICATION_JSON_VALUE, TEXT_CSV_VALUE})
+    public ResponseEntity<ImportSummaryResponse> importProductComponents(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+        return ResponseEntity.ok().body(catalogImportService.importProductComponents(body, MediaType.parseMediaType(contentType)));
+    }
+}
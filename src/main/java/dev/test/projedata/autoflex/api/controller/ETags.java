@@ -0,0 +1,76 @@
+package dev.test.projedata.autoflex.api.controller;
+
+import dev.test.projedata.autoflex.api.exceptions.PreconditionFailedException;
+import dev.test.projedata.autoflex.api.service.CatalogVersion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Entity versions as strong ETags ({@code "3"}) and back from {@code If-Match}, and catalog-wide
+ * validators for collection reads ({@code "c-lx3k9a-42"}).
+ */
+final class ETags {
+
+    private static final String SMILE_VALUE = "application/x-jackson-smile";
+
+    private ETags() {
+    }
+
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    static String of(CatalogVersion.Stamp stamp, String variant) {
+        return "\"c-" + stamp.epoch() + "-" + stamp.version() + (variant.isEmpty() ? "" : "-" + variant) + "\"";
+    }
+
+    /**
+     * Answers {@code If-None-Match} from the catalog stamp alone. When the
+     * client's copy is current the response is already a 304 and the caller must return without a body;
+     * otherwise the validators are already set on the response. {@code variant} tells apart the
+     * representations served from the same URL; the binary formats picked by {@code Accept} are added to it.
+     * <p>
+     * No {@code Last-Modified} is sent: HTTP dates have one-second resolution, so two writes within the same
+     * second would let {@code If-Modified-Since} answer 304 for a stale copy.
+     */
+    static boolean notModified(WebRequest request, CatalogVersion.Stamp stamp, String variant) {
+        if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+            servletRequest.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return request.checkNotModified(of(stamp, withFormat(request, variant)));
+    }
+
+    // Matched on the header text: a client that lists a binary format gets its own tag even if it also
+    // accepts JSON, which costs at most a needless 200, never a wrong 304.
+    private static String withFormat(WebRequest request, String variant) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) return variant;
+
+        String format = accept.contains(MediaType.APPLICATION_CBOR_VALUE) ? "cbor"
+                : accept.contains(SMILE_VALUE) ? "smile" : "";
+        if (format.isEmpty()) return variant;
+        return variant.isEmpty() ? format : variant + "-" + format;
+    }
+
+    /**
+     * {@code If-Match} uses the strong comparison (RFC 9110, 13.1.1): a weak tag never matches, so it is
+     * rejected like any other version the entity does not have.
+     *
+     * @return the version the client expects, or {@code null} when the header is absent or {@code *}
+     */
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) return null;
+
+        String tag = ifMatch.strip();
+        if (tag.startsWith("W/")) throw new PreconditionFailedException("If-Match does not match any version: " + ifMatch);
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) tag = tag.substring(1, tag.length() - 1);
+
+        try {
+            return Long.valueOf(tag);
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not match any version: " + ifMatch);
+        }
+    }
+}
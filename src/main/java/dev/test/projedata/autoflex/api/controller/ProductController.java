@@ -1,11 +1,29 @@
 package dev.test.projedata.autoflex.api.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.test.projedata.autoflex.api.dtos.request.AvailableProductionRequest;
+import dev.test.projedata.autoflex.api.dtos.request.CursorPageRequest;
+import dev.test.projedata.autoflex.api.dtos.request.MaterialRequirementsRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductComponentRequest;
 import dev.test.projedata.autoflex.api.dtos.request.ProductMaterialRequest;
 import dev.test.projedata.autoflex.api.dtos.request.ProductMaterialUpdateRequest;
 import dev.test.projedata.autoflex.api.dtos.request.ProductRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductionOrderRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductionPlanRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductionSimulationRequest;
+import dev.test.projedata.autoflex.api.dtos.response.CursorPageResponse;
+import dev.test.projedata.autoflex.api.dtos.response.MaterialRequirementResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductComponentResponse;
 import dev.test.projedata.autoflex.api.dtos.response.ProductMaterialResponse;
 import dev.test.projedata.autoflex.api.dtos.response.ProductProductionResponse;
 import dev.test.projedata.autoflex.api.dtos.response.ProductResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductSimulationResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductionOrderResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductionPlanResponse;
+import dev.test.projedata.autoflex.api.service.CatalogVersion;
 import dev.test.projedata.autoflex.api.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -14,11 +32,17 @@ import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.List;
 
@@ -27,10 +51,16 @@ import java.util.List;
 @Tag(name = "Product", description = "Endpoint for product management")
 public class ProductController {
 
+    private static final int STREAM_FLUSH_INTERVAL = 500;
+
     private final ProductService productService;
+    private final CatalogVersion catalogVersion;
+    private final ObjectWriter ndjsonWriter;
 
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, CatalogVersion catalogVersion, ObjectMapper objectMapper) {
         this.productService = productService;
+        this.catalogVersion = catalogVersion;
+        this.ndjsonWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @Operation(summary = "Insert Product", description = "Register a new product in the application")
@@ -48,23 +78,35 @@ public class ProductController {
         return ResponseEntity.created(uri).body(resp);
     }
 
-    @Operation(summary = "FindAll Product", description = "List all products available for use")
+    @Operation(summary = "FindAll Product", description = "List all products available for use. Returns 304 when If-None-Match carries the current catalog ETag")
     @GetMapping
     public ResponseEntity<Page<ProductResponse>> findAll(
-            @ParameterObject @PageableDefault(page = 0, size = 10, sort = "name") Pageable pageable) {
+            @ParameterObject @PageableDefault(page = 0, size = 10, sort = "name") Pageable pageable, WebRequest webRequest) {
+        if (ETags.notModified(webRequest, catalogVersion.current(), "")) return null;
+
         return ResponseEntity.ok().body(productService.findAll(pageable));
     }
 
+    @Operation(summary = "FindAll Product by cursor", description = "List products ordered by name using an opaque cursor instead of page numbers. Pass the returned nextCursor as 'after' to fetch the next slice")
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageResponse<ProductResponse>> findAllByCursor(@Valid @ParameterObject CursorPageRequest request, WebRequest webRequest) {
+        if (ETags.notModified(webRequest, catalogVersion.current(), "")) return null;
+
+        return ResponseEntity.ok().body(productService.findAllByCursor(request));
+    }
+
     @Operation(summary = "FindById Product", description = "Search for a product by ID and display its information. Throw an exception if the given ID does not exist")
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponse> findById(@PathVariable Long id) {
-        return ResponseEntity.ok().body(productService.findById(id));
+        ProductResponse resp = productService.findById(id);
+        return ResponseEntity.ok().eTag(ETags.of(resp.version())).body(resp);
     }
 
-    @Operation(summary = "Update Product", description = "Updates the data for a product. Throws an exception if the provided ID does not exist")
+    @Operation(summary = "Update Product", description = "Updates the data for a product. Throws an exception if the provided ID does not exist. With If-Match, returns 412 unless it matches the current ETag")
     @PutMapping("/{id}")
-    public ResponseEntity<ProductResponse> update(@PathVariable Long id, @Valid @RequestBody ProductRequest request) {
-        return ResponseEntity.ok().body(productService.update(id, request));
+    public ResponseEntity<ProductResponse> update(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch, @Valid @RequestBody ProductRequest request) {
+        ProductResponse resp = productService.update(id, request, ETags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(resp.version())).body(resp);
     }
 
     @Operation(summary = "Delete Product", description = "Deletes a product from the database. Throws an exception if the given ID does not exist")
@@ -77,13 +119,15 @@ public class ProductController {
     @Operation(summary = "Add Material to Product", description = "Links a raw material to a specific product, defining the required quantity for production")
     @PostMapping("/{productId}/materials")
     public ResponseEntity<ProductMaterialResponse> addMaterial(@PathVariable Long productId, @Valid @RequestBody ProductMaterialRequest request) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(productService.addMaterial(productId, request));
+        ProductMaterialResponse resp = productService.addMaterial(productId, request);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(ETags.of(resp.version())).body(resp);
     }
 
-    @Operation(summary = "Update Material Quantity", description = "Updates the required quantity of a specific raw material linked to a product")
+    @Operation(summary = "Update Material Quantity", description = "Updates the required quantity of a specific raw material linked to a product. With If-Match, returns 412 unless it matches the current ETag")
     @PatchMapping("/{productId}/materials/{materialId}")
-    public ResponseEntity<ProductMaterialResponse> updateQuantityMaterial(@PathVariable Long productId, @PathVariable Long materialId, @Valid @RequestBody ProductMaterialUpdateRequest request) {
-        return ResponseEntity.ok().body(productService.updateQuantityMaterial(productId, materialId, request));
+    public ResponseEntity<ProductMaterialResponse> updateQuantityMaterial(@PathVariable Long productId, @PathVariable Long materialId, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch, @Valid @RequestBody ProductMaterialUpdateRequest request) {
+        ProductMaterialResponse resp = productService.updateQuantityMaterial(productId, materialId, request, ETags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(resp.version())).body(resp);
     }
 
     @Operation(summary = "Remove Material from Product", description = "Removes the link between a raw material and a product")
@@ -93,9 +137,84 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
 
-    @Operation(summary = "Calculate Available Production", description = "Analyzes current stock levels of all materials to calculate how many units of each product can be manufactured")
+    @Operation(summary = "Add Component to Product", description = "Uses another product as a sub-assembly of this product, defining the required quantity. Rejects links that would create a cycle")
+    @PostMapping("/{productId}/components")
+    public ResponseEntity<ProductComponentResponse> addComponent(@PathVariable Long productId, @Valid @RequestBody ProductComponentRequest request) {
+        ProductComponentResponse resp = productService.addComponent(productId, request);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(ETags.of(resp.version())).body(resp);
+    }
+
+    @Operation(summary = "Update Component Quantity", description = "Updates the required quantity of a sub-assembly linked to a product. With If-Match, returns 412 unless it matches the current ETag")
+    @PatchMapping("/{productId}/components/{componentId}")
+    public ResponseEntity<ProductComponentResponse> updateQuantityComponent(@PathVariable Long productId, @PathVariable Long componentId, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch, @Valid @RequestBody ProductMaterialUpdateRequest request) {
+        ProductComponentResponse resp = productService.updateQuantityComponent(productId, componentId, request, ETags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(resp.version())).body(resp);
+    }
+
+    @Operation(summary = "Remove Component from Product", description = "Removes the link between a sub-assembly and a product")
+    @DeleteMapping("/{productId}/components/{componentId}")
+    public ResponseEntity<Void> deleteComponent(@PathVariable Long productId, @PathVariable Long componentId) {
+        productService.deleteComponent(productId, componentId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Produce Product", description = "Records the production of N units: every raw material in the product's bill of materials, sub-assemblies included, is decremented by N times its requirement in a single transaction. All or nothing; returns 409 if any stock would become negative")
+    @PostMapping("/{id}/produce")
+    public ResponseEntity<ProductionOrderResponse> produce(@PathVariable Long id, @Valid @RequestBody ProductionOrderRequest request) {
+        return ResponseEntity.ok().body(productService.produce(id, request));
+    }
+
+    @Operation(summary = "Calculate Available Production", description = "Analyzes current stock levels of all materials to calculate how many units of each product can be manufactured. Accepts productIds and minCapacity filters, sort=asc|desc by capacity and a limit for top-K queries. With detailed=true, also returns the limiting raw material, the leftover stock of every input and the extra stock needed for one more unit. Returns 304 when If-None-Match carries the current catalog ETag")
     @GetMapping("/availableProduction")
-    public ResponseEntity<List<ProductProductionResponse>> getAvailableProduction() {
-        return ResponseEntity.ok().body(productService.getAvailableProduction());
+    public ResponseEntity<List<ProductProductionResponse>> getAvailableProduction(@Valid @ParameterObject AvailableProductionRequest request, WebRequest webRequest) {
+        if (ETags.notModified(webRequest, catalogVersion.current(), "")) return null;
+
+        return ResponseEntity.ok().body(productService.getAvailableProduction(request));
+    }
+
+    @Operation(summary = "Stream Available Production", description = "Same capacities as the JSON variant, written as newline-delimited JSON while they are computed, so memory stays flat regardless of catalog size")
+    @GetMapping(value = "/availableProduction", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAvailableProduction(WebRequest webRequest) {
+        if (ETags.notModified(webRequest, catalogVersion.current(), "ndjson")) return null;
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = ndjsonWriter.createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                // Lines are separated by the newline below; Jackson would otherwise also put a space
+                // before every root value after the first.
+                generator.setRootValueSeparator(null);
+                int[] written = {0};
+
+                productService.streamAvailableProduction(response -> {
+                    try {
+                        ndjsonWriter.writeValue(generator, response);
+                        generator.writeRaw('\n');
+                        if (++written[0] % STREAM_FLUSH_INTERVAL == 0) generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @Operation(summary = "Simulate Available Production", description = "Calculates how many units of each product could be manufactured if the given hypothetical stock changes were applied, without modifying any raw material")
+    @PostMapping("/availableProduction/simulate")
+    public ResponseEntity<List<ProductSimulationResponse>> simulateAvailableProduction(@Valid @RequestBody ProductionSimulationRequest request) {
+        return ResponseEntity.ok().body(productService.simulateAvailableProduction(request));
+    }
+
+    @Operation(summary = "Plan Production", description = "Chooses how many units of each product to manufacture so that total revenue is maximized without exceeding the shared raw material stock")
+    @PostMapping("/productionPlan")
+    public ResponseEntity<ProductionPlanResponse> getProductionPlan(@Valid @RequestBody(required = false) ProductionPlanRequest request) {
+        return ResponseEntity.ok().body(productService.getProductionPlan(request));
+    }
+
+    @Operation(summary = "Calculate Material Requirements", description = "Calculates the total amount of each raw material needed to manufacture a batch of product demand, and the shortfall against current stock. Throws an exception if any given product ID does not exist")
+    @PostMapping("/materialRequirements")
+    public ResponseEntity<List<MaterialRequirementResponse>> getMaterialRequirements(@Valid @RequestBody MaterialRequirementsRequest request) {
+        return ResponseEntity.ok().body(productService.getMaterialRequirements(request));
     }
 }
@@ -1,19 +1,28 @@
 package dev.test.projedata.autoflex.api.controller;
 
+import dev.test.projedata.autoflex.api.dtos.request.CursorPageRequest;
 import dev.test.projedata.autoflex.api.dtos.request.RawMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.request.StockAdjustmentBatchRequest;
+import dev.test.projedata.autoflex.api.dtos.request.StockAdjustmentRequest;
+import dev.test.projedata.autoflex.api.dtos.response.CursorPageResponse;
 import dev.test.projedata.autoflex.api.dtos.response.RawMaterialResponse;
+import dev.test.projedata.autoflex.api.service.CatalogVersion;
 import dev.test.projedata.autoflex.api.service.RawMaterialService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.util.List;
 
 @RestController
 @RequestMapping("/rawMaterials")
@@ -21,9 +30,11 @@ import java.net.URI;
 public class RawMaterialController {
 
     private final RawMaterialService rawMaterialService;
+    private final CatalogVersion catalogVersion;
 
-    public RawMaterialController(RawMaterialService rawMaterialService) {
+    public RawMaterialController(RawMaterialService rawMaterialService, CatalogVersion catalogVersion) {
         this.rawMaterialService = rawMaterialService;
+        this.catalogVersion = catalogVersion;
     }
 
     @Operation(summary = "Insert RawMaterial", description = "Register a new raw material in the application")
@@ -40,23 +51,48 @@ public class RawMaterialController {
         return ResponseEntity.created(uri).body(resp);
     }
 
-    @Operation(summary = "FindAll RawMaterial", description = "List all raw materials available for use")
+    @Operation(summary = "FindAll RawMaterial", description = "List all raw materials available for use. Returns 304 when If-None-Match carries the current catalog ETag")
     @GetMapping
     public ResponseEntity<Page<RawMaterialResponse>> findAll(
-           @PageableDefault(page = 0, size = 10, sort = "name") Pageable pageable) {
+           @PageableDefault(page = 0, size = 10, sort = "name") Pageable pageable, WebRequest webRequest) {
+        if (ETags.notModified(webRequest, catalogVersion.current(), "")) return null;
+
         return ResponseEntity.ok().body(rawMaterialService.findAll(pageable));
     }
 
+    @Operation(summary = "FindAll RawMaterial by cursor", description = "List raw materials ordered by name using an opaque cursor instead of page numbers. Pass the returned nextCursor as 'after' to fetch the next slice")
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageResponse<RawMaterialResponse>> findAllByCursor(@Valid @ParameterObject CursorPageRequest request, WebRequest webRequest) {
+        if (ETags.notModified(webRequest, catalogVersion.current(), "")) return null;
+
+        return ResponseEntity.ok().body(rawMaterialService.findAllByCursor(request));
+    }
+
     @Operation(summary = "FindById RawMaterial", description = "Search for a raw material by ID and display its information. Throw an exception if the given ID does not exist")
     @GetMapping("/{id}")
     public ResponseEntity<RawMaterialResponse> findById(@PathVariable Long id) {
-        return ResponseEntity.ok().body(rawMaterialService.findById(id));
+        RawMaterialResponse resp = rawMaterialService.findById(id);
+        return ResponseEntity.ok().eTag(ETags.of(resp.version())).body(resp);
     }
 
-    @Operation(summary = "Update RawMaterial", description = "Updates the data for a raw material. Throws an exception if the provided ID does not exist")
+    @Operation(summary = "Update RawMaterial", description = "Updates the data for a raw material. Throws an exception if the provided ID does not exist. With If-Match, returns 412 unless it matches the current ETag")
     @PutMapping("/{id}")
-    public ResponseEntity<RawMaterialResponse> update(@PathVariable Long id, @Valid @RequestBody RawMaterialRequest request) {
-        return ResponseEntity.ok().body(rawMaterialService.update(id, request));
+    public ResponseEntity<RawMaterialResponse> update(@PathVariable Long id, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch, @Valid @RequestBody RawMaterialRequest request) {
+        RawMaterialResponse resp = rawMaterialService.update(id, request, ETags.parseIfMatch(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(resp.version())).body(resp);
+    }
+
+    @Operation(summary = "Adjust RawMaterial stock", description = "Adds a signed delta to the stock of a raw material in a single atomic update, so concurrent adjustments are never lost. Returns 409 if the stock would become negative")
+    @PostMapping("/{id}/stock/adjust")
+    public ResponseEntity<RawMaterialResponse> adjustStock(@PathVariable Long id, @Valid @RequestBody StockAdjustmentRequest request) {
+        RawMaterialResponse resp = rawMaterialService.adjustStock(id, request);
+        return ResponseEntity.ok().eTag(ETags.of(resp.version())).body(resp);
+    }
+
+    @Operation(summary = "Adjust RawMaterial stock in batch", description = "Applies a list of signed stock deltas in one transaction, sent to the database as a single JDBC batch. Deltas for the same raw material are summed. If any stock would become negative nothing is applied and 409 is returned")
+    @PostMapping("/stock/adjust")
+    public ResponseEntity<List<RawMaterialResponse>> adjustStocks(@Valid @RequestBody StockAdjustmentBatchRequest request) {
+        return ResponseEntity.ok().body(rawMaterialService.adjustStocks(request));
     }
 
     @Operation(summary = "Delete RawMaterial", description = "Deletes a raw material from the database. Throws an exception if the given ID does not exist")
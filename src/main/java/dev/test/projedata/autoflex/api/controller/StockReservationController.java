@@ -0,0 +1,60 @@
+package dev.test.projedata.autoflex.api.controller;
+
+import dev.test.projedata.autoflex.api.dtos.request.StockReservationExtensionRequest;
+import dev.test.projedata.autoflex.api.dtos.request.StockReservationRequest;
+import dev.test.projedata.autoflex.api.dtos.response.StockReservationResponse;
+import dev.test.projedata.autoflex.api.service.StockReservationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/reservations")
+@Tag(name = "StockReservation", description = "Endpoint for time-bounded raw material stock reservations")
+public class StockReservationController {
+
+    private final StockReservationService stockReservationService;
+
+    public StockReservationController(StockReservationService stockReservationService) {
+        this.stockReservationService = stockReservationService;
+    }
+
+    @Operation(summary = "Reserve RawMaterial stock", description = "Holds a quantity of a raw material for ttlSeconds without changing its stock. While held, the quantity is not available for production. Returns 409 if the unreserved stock is not enough")
+    @PostMapping
+    public ResponseEntity<StockReservationResponse> reserve(@Valid @RequestBody StockReservationRequest request) {
+        StockReservationResponse resp = stockReservationService.reserve(request);
+
+        URI uri = ServletUriComponentsBuilder
+                .fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(resp.id())
+                .toUri();
+
+        return ResponseEntity.created(uri).body(resp);
+    }
+
+    @Operation(summary = "FindById Reservation", description = "Displays an active reservation. Throws an exception if it does not exist, was released or has expired")
+    @GetMapping("/{id}")
+    public ResponseEntity<StockReservationResponse> findById(@PathVariable UUID id) {
+        return ResponseEntity.ok().body(stockReservationService.findById(id));
+    }
+
+    @Operation(summary = "Extend Reservation", description = "Resets the time to live of an active reservation to ttlSeconds from now")
+    @PatchMapping("/{id}")
+    public ResponseEntity<StockReservationResponse> extend(@PathVariable UUID id, @Valid @RequestBody StockReservationExtensionRequest request) {
+        return ResponseEntity.ok().body(stockReservationService.extend(id, request));
+    }
+
+    @Operation(summary = "Release Reservation", description = "Releases an active reservation before it expires, making its quantity available again")
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> release(@PathVariable UUID id) {
+        stockReservationService.release(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,81 @@
+package dev.test.projedata.autoflex.api.domain;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.math.BigDecimal;
+
+@Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+public class ProductComponent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_component_seq")
+    @SequenceGenerator(name = "product_component_seq", sequenceName = "product_component_seq", allocationSize = 50)
+    private Long id;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    @ManyToOne
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @ManyToOne
+    @JoinColumn(name = "component_id", nullable = false)
+    private Product component;
+
+    @Column(nullable = false)
+    private BigDecimal quantityRequired;
+
+    public ProductComponent() {
+    }
+
+    public ProductComponent(Long id, Product product, Product component, BigDecimal quantityRequired) {
+        this.id = id;
+        this.product = product;
+        this.component = component;
+        this.quantityRequired = quantityRequired;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    public void setProduct(Product product) {
+        this.product = product;
+    }
+
+    public Product getComponent() {
+        return component;
+    }
+
+    public void setComponent(Product component) {
+        this.component = component;
+    }
+
+    public BigDecimal getQuantityRequired() {
+        return quantityRequired;
+    }
+
+    public void setQuantityRequired(BigDecimal quantityRequired) {
+        this.quantityRequired = quantityRequired;
+    }
+}
@@ -1,16 +1,27 @@
 package dev.test.projedata.autoflex.api.domain;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class ProductMaterial {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_material_seq")
+    @SequenceGenerator(name = "product_material_seq", sequenceName = "product_material_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @ManyToOne
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
@@ -40,6 +51,10 @@ public class ProductMaterial {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public RawMaterial getRawMaterial() {
         return rawMaterial;
     }
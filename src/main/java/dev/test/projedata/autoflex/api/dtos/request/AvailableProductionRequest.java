@@ -0,0 +1,24 @@
+package dev.test.projedata.autoflex.api.dtos.request;
+
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.util.List;
+
+public record AvailableProductionRequest(
+
+        @Positive(message = "must be greater than zero")
+        Integer limit,
+
+        @Pattern(regexp = "asc|desc", message = "must be asc or desc")
+        String sort,
+
+        @PositiveOrZero(message = "must be zero or greater")
+        Integer minCapacity,
+
+        List<Long> productIds,
+
+        Boolean detailed
+) {
+}
@@ -0,0 +1,14 @@
+package dev.test.projedata.autoflex.api.dtos.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+
+public record CursorPageRequest(
+
+        String after,
+
+        @Positive(message = "must be greater than zero")
+        @Max(value = 100, message = "must be at most 100")
+        Integer size
+) {
+}
@@ -0,0 +1,20 @@
+package dev.test.projedata.autoflex.api.dtos.request;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.math.BigDecimal;
+
+public record ProductComponentImportRequest(
+
+        @NotNull(message = "cannot be empty")
+        Long productId,
+
+        @NotNull(message = "cannot be empty")
+        Long componentId,
+
+        @NotNull(message = "cannot be empty")
+        @Positive(message = "must be greater than zero")
+        BigDecimal quantityRequired
+) {
+}
@@ -0,0 +1,15 @@
+package dev.test.projedata.autoflex.api.dtos.request;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record ProductDemandRequest(
+
+        @NotNull(message = "cannot be empty")
+        Long productId,
+
+        @NotNull(message = "cannot be empty")
+        @Positive(message = "must be greater than zero")
+        Integer quantity
+) {
+}
@@ -0,0 +1,20 @@
+package dev.test.projedata.autoflex.api.dtos.request;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.math.BigDecimal;
+
+public record ProductMaterialImportRequest(
+
+        @NotNull(message = "cannot be empty")
+        Long productId,
+
+        @NotNull(message = "cannot be empty")
+        Long rawMaterialId,
+
+        @NotNull(message = "cannot be empty")
+        @Positive(message = "must be greater than zero")
+        BigDecimal quantityRequired
+) {
+}
@@ -0,0 +1,12 @@
+package dev.test.projedata.autoflex.api.dtos.request;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record ProductionOrderRequest(
+
+        @NotNull(message = "cannot be empty")
+        @Positive(message = "must be greater than zero")
+        Integer quantity
+) {
+}
@@ -0,0 +1,11 @@
+package dev.test.projedata.autoflex.api.dtos.request;
+
+import jakarta.validation.constraints.Positive;
+
+public record ProductionPlanRequest(
+
+        @Positive(message = "must be greater than zero")
+        Long deadlineMillis
+
+) {
+}
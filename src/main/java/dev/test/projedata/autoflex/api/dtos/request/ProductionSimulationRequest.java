@@ -0,0 +1,13 @@
+package dev.test.projedata.autoflex.api.dtos.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public record ProductionSimulationRequest(
+
+        @NotEmpty(message = "cannot be empty")
+        List<@Valid StockDeltaRequest> stockDeltas
+) {
+}
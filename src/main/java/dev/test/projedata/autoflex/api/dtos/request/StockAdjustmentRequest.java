@@ -0,0 +1,12 @@
+package dev.test.projedata.autoflex.api.dtos.request;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+public record StockAdjustmentRequest(
+
+        @NotNull(message = "cannot be empty")
+        BigDecimal quantityDelta
+) {
+}
@@ -0,0 +1,15 @@
+package dev.test.projedata.autoflex.api.dtos.request;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+public record StockDeltaRequest(
+
+        @NotNull(message = "cannot be empty")
+        Long rawMaterialId,
+
+        @NotNull(message = "cannot be empty")
+        BigDecimal quantityDelta
+) {
+}
@@ -0,0 +1,17 @@
+package dev.test.projedata.autoflex.api.dtos.response;
+
+public record CacheStatsResponse(
+
+        String name,
+
+        long size,
+
+        long hitCount,
+
+        long missCount,
+
+        double hitRate,
+
+        long evictionCount
+) {
+}
@@ -0,0 +1,13 @@
+package dev.test.projedata.autoflex.api.dtos.response;
+
+import java.util.List;
+
+public record CursorPageResponse<T>(
+
+        List<T> content,
+
+        Boolean hasNext,
+
+        String nextCursor
+) {
+}
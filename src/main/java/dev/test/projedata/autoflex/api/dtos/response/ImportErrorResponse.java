@@ -0,0 +1,9 @@
+package dev.test.projedata.autoflex.api.dtos.response;
+
+public record ImportErrorResponse(
+
+        Integer row,
+
+        String message
+) {
+}
@@ -0,0 +1,15 @@
+package dev.test.projedata.autoflex.api.dtos.response;
+
+import java.util.List;
+
+public record ImportSummaryResponse(
+
+        Integer received,
+
+        Integer imported,
+
+        Integer rejected,
+
+        List<ImportErrorResponse> errors
+) {
+}
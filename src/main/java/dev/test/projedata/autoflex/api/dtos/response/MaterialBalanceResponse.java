@@ -0,0 +1,16 @@
+package dev.test.projedata.autoflex.api.dtos.response;
+
+import java.math.BigDecimal;
+
+public record MaterialBalanceResponse(
+        Long rawMaterialId,
+
+        BigDecimal quantityRequired,
+
+        BigDecimal stockQuantity,
+
+        BigDecimal leftoverStock,
+
+        BigDecimal neededForOneMoreUnit
+) {
+}
@@ -0,0 +1,15 @@
+package dev.test.projedata.autoflex.api.dtos.response;
+
+import java.math.BigDecimal;
+
+public record MaterialConsumptionResponse(
+
+        Long rawMaterialId,
+
+        String rawMaterialName,
+
+        BigDecimal quantityConsumed,
+
+        BigDecimal stockQuantity
+) {
+}
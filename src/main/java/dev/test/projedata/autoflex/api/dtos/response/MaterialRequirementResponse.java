@@ -0,0 +1,16 @@
+package dev.test.projedata.autoflex.api.dtos.response;
+
+import java.math.BigDecimal;
+
+public record MaterialRequirementResponse(
+        Long rawMaterialId,
+
+        String rawMaterialName,
+
+        BigDecimal quantityRequired,
+
+        BigDecimal stockQuantity,
+
+        BigDecimal shortfall
+) {
+}
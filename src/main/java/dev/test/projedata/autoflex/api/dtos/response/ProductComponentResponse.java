@@ -0,0 +1,21 @@
+package dev.test.projedata.autoflex.api.dtos.response;
+
+import java.math.BigDecimal;
+
+public record ProductComponentResponse(
+        Long id,
+
+        Long componentProductId,
+
+        String componentProductName,
+
+        BigDecimal quantityRequired,
+
+        Long version
+
+) {
+
+    public ProductComponentResponse(Long id, Long componentProductId, String componentProductName, BigDecimal quantityRequired) {
+        this(id, componentProductId, componentProductName, quantityRequired, null);
+    }
+}
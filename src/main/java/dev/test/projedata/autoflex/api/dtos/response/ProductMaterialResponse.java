@@ -9,7 +9,13 @@ public record ProductMaterialResponse(
 
         String rawMaterialName,
 
-        BigDecimal quantityRequired
+        BigDecimal quantityRequired,
+
+        Long version
 
 ) {
+
+    public ProductMaterialResponse(Long id, Long rawMaterialId, String rawMaterialName, BigDecimal quantityRequired) {
+        this(id, rawMaterialId, rawMaterialName, quantityRequired, null);
+    }
 }
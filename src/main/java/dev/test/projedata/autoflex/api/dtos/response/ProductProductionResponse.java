@@ -1,10 +1,23 @@
 package dev.test.projedata.autoflex.api.dtos.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record ProductProductionResponse(
         Long productId,
 
         String productName,
 
-        Integer maxProductProduction
+        Integer maxProductProduction,
+
+        Long limitingRawMaterialId,
+
+        List<MaterialBalanceResponse> materials
 ) {
+
+    public ProductProductionResponse(Long productId, String productName, Integer maxProductProduction) {
+        this(productId, productName, maxProductProduction, null, null);
+    }
 }
@@ -11,6 +11,14 @@ public record ProductResponse(
 
         BigDecimal price,
 
-        List<ProductMaterialResponse> materials
+        List<ProductMaterialResponse> materials,
+
+        List<ProductComponentResponse> components,
+
+        Long version
 ) {
+
+    public ProductResponse(Long id, String name, BigDecimal price, List<ProductMaterialResponse> materials, List<ProductComponentResponse> components) {
+        this(id, name, price, materials, components, null);
+    }
 }
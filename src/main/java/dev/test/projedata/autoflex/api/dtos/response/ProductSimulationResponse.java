@@ -0,0 +1,14 @@
+package dev.test.projedata.autoflex.api.dtos.response;
+
+public record ProductSimulationResponse(
+        Long productId,
+
+        String productName,
+
+        Integer currentProduction,
+
+        Integer simulatedProduction,
+
+        Integer difference
+) {
+}
@@ -0,0 +1,13 @@
+package dev.test.projedata.autoflex.api.dtos.response;
+
+import java.util.List;
+
+public record ProductionOrderResponse(
+
+        Long productId,
+
+        Integer quantity,
+
+        List<MaterialConsumptionResponse> consumed
+) {
+}
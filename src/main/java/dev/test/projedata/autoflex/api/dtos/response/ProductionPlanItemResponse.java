@@ -0,0 +1,15 @@
+package dev.test.projedata.autoflex.api.dtos.response;
+
+import java.math.BigDecimal;
+
+public record ProductionPlanItemResponse(
+
+        Long productId,
+
+        String productName,
+
+        Integer quantity,
+
+        BigDecimal revenue
+) {
+}
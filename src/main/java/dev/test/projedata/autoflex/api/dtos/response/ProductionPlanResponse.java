@@ -0,0 +1,14 @@
+package dev.test.projedata.autoflex.api.dtos.response;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record ProductionPlanResponse(
+
+        BigDecimal totalRevenue,
+
+        Boolean deadlineReached,
+
+        List<ProductionPlanItemResponse> items
+) {
+}
@@ -8,6 +8,12 @@ public record RawMaterialResponse(
 
         String name,
 
-        BigDecimal stockQuantity
+        BigDecimal stockQuantity,
+
+        Long version
 ) {
+
+    public RawMaterialResponse(Long id, String name, BigDecimal stockQuantity) {
+        this(id, name, stockQuantity, null);
+    }
 }
@@ -0,0 +1,17 @@
+package dev.test.projedata.autoflex.api.dtos.response;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+public record StockReservationResponse(
+
+        UUID id,
+
+        Long rawMaterialId,
+
+        BigDecimal quantity,
+
+        Instant expiresAt
+) {
+}
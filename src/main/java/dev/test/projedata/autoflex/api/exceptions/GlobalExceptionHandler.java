@@ -1,11 +1,14 @@
 package dev.test.projedata.autoflex.api.exceptions;
 
 import dev.test.projedata.autoflex.api.dtos.error.ApiError;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -15,6 +18,9 @@ public class GlobalExceptionHandler {
 
     private static final String NOT_FOUND = "NOT_FOUND";
     private static final String BAD_REQUEST = "BAD_REQUEST";
+    private static final String CONFLICT = "CONFLICT";
+    private static final String PRECONDITION_FAILED = "PRECONDITION_FAILED";
+    private static final String SERVICE_UNAVAILABLE = "SERVICE_UNAVAILABLE";
 
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ApiError> handleResourceNotFound(ResourceNotFoundException ex) {
@@ -28,6 +34,44 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ApiError> handleInvalidCursor(InvalidCursorException ex) {
+        var error = new ApiError(BAD_REQUEST, "Invalid cursor", LocalDateTime.now(), List.of(ex.getMessage()));
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<ApiError> handleInsufficientStock(InsufficientStockException ex) {
+        var error = new ApiError(CONFLICT, "Insufficient stock", LocalDateTime.now(), List.of(ex.getMessage()));
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ApiError> handlePreconditionFailed(PreconditionFailedException ex) {
+        var error = new ApiError(PRECONDITION_FAILED, "Version mismatch", LocalDateTime.now(), List.of(ex.getMessage()));
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+    }
+
+    // Another transaction committed a newer version between this request's read and its write. Only a
+    // client that sent If-Match stated a precondition; for anyone else the write simply lost a race.
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiError> handleOptimisticLockingFailure(OptimisticLockingFailureException ex, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_MATCH) == null) {
+            var error = new ApiError(CONFLICT, "Concurrent modification", LocalDateTime.now(), List.of("Resource was modified concurrently, reload it and retry"));
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+        }
+        var error = new ApiError(PRECONDITION_FAILED, "Version mismatch", LocalDateTime.now(), List.of("Resource was modified concurrently, reload it and retry"));
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ApiError> handleServiceOverloaded(ServiceOverloadedException ex) {
+        var error = new ApiError(SERVICE_UNAVAILABLE, "Too many concurrent requests", LocalDateTime.now(), List.of(ex.getMessage()));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiError> handleArgumentNotValid(MethodArgumentNotValidException ex) {
         List<String> errors = ex.getBindingResult()
@@ -0,0 +1,12 @@
+package dev.test.projedata.autoflex.api.exceptions;
+
+import java.io.Serial;
+
+public class InsufficientStockException extends RuntimeException{
+    @Serial
+    private static final long serialVersionUID = -6385914722049183517L;
+
+    public InsufficientStockException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,12 @@
+package dev.test.projedata.autoflex.api.exceptions;
+
+import java.io.Serial;
+
+public class InvalidCursorException extends RuntimeException{
+    @Serial
+    private static final long serialVersionUID = 4127340682163580071L;
+
+    public InvalidCursorException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,12 @@
+package dev.test.projedata.autoflex.api.exceptions;
+
+import java.io.Serial;
+
+public class PreconditionFailedException extends RuntimeException{
+    @Serial
+    private static final long serialVersionUID = 2871049363817406257L;
+
+    public PreconditionFailedException(String msg) {
+        super(msg);
+    }
+}
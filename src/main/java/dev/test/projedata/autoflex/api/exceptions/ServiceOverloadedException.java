@@ -0,0 +1,19 @@
+package dev.test.projedata.autoflex.api.exceptions;
+
+import java.io.Serial;
+
+public class ServiceOverloadedException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 4127763385069120473L;
+
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String msg, long retryAfterSeconds) {
+        super(msg);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,20 @@
+package dev.test.projedata.autoflex.api.mapper;
+
+import dev.test.projedata.autoflex.api.domain.ProductComponent;
+import dev.test.projedata.autoflex.api.dtos.response.ProductComponentResponse;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProductComponentMapper {
+
+    public ProductComponentResponse toResponse(ProductComponent productComponent) {
+        return new ProductComponentResponse(
+                productComponent.getId(),
+                productComponent.getComponent().getId(),
+                productComponent.getComponent().getName(),
+                productComponent.getQuantityRequired(),
+                productComponent.getVersion()
+        );
+    }
+
+}
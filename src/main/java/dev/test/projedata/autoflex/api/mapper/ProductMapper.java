@@ -9,9 +9,11 @@ import org.springframework.stereotype.Component;
 public class ProductMapper {
 
     private final ProductMaterialMapper productMaterialMapper;
+    private final ProductComponentMapper productComponentMapper;
 
-    public ProductMapper(ProductMaterialMapper productMaterialMapper) {
+    public ProductMapper(ProductMaterialMapper productMaterialMapper, ProductComponentMapper productComponentMapper) {
         this.productMaterialMapper = productMaterialMapper;
+        this.productComponentMapper = productComponentMapper;
     }
 
     public ProductResponse toResponse(Product product) {
@@ -21,7 +23,11 @@ public class ProductMapper {
                 product.getPrice(),
                 product.getProductMaterials()
                         .stream().map(productMaterialMapper::toResponse)
-                        .toList()
+                        .toList(),
+                product.getComponents()
+                        .stream().map(productComponentMapper::toResponse)
+                        .toList(),
+                product.getVersion()
         );
     }
 
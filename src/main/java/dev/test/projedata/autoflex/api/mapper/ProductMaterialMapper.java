@@ -12,7 +12,8 @@ public class ProductMaterialMapper {
                 productMaterial.getId(),
                 productMaterial.getRawMaterial().getId(),
                 productMaterial.getRawMaterial().getName(),
-                productMaterial.getQuantityRequired()
+                productMaterial.getQuantityRequired(),
+                productMaterial.getVersion()
         );
     }
     
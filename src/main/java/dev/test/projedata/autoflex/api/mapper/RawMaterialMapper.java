@@ -12,7 +12,8 @@ public class RawMaterialMapper {
         return new RawMaterialResponse(
                 rawMaterial.getId(),
                 rawMaterial.getName(),
-                rawMaterial.getStockQuantity()
+                rawMaterial.getStockQuantity(),
+                rawMaterial.getVersion()
         );
     }
 
@@ -0,0 +1,11 @@
+package dev.test.projedata.autoflex.api.repository;
+
+public interface BillOfMaterialsLockRepository {
+
+    /**
+     * Serializes changes to the product component graph until the current transaction ends, across every
+     * application instance sharing the database. On PostgreSQL this is a transaction-scoped advisory lock;
+     * other databases lock every product row instead, which has the same effect.
+     */
+    void lockBillOfMaterials();
+}
@@ -0,0 +1,38 @@
+package dev.test.projedata.autoflex.api.repository;
+
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+public class BillOfMaterialsLockRepositoryImpl implements BillOfMaterialsLockRepository {
+
+    // Any fixed key works, as long as nothing else takes an advisory lock with it.
+    static final long ADVISORY_LOCK_KEY = 0x626f6d_6c696e6bL;
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    public BillOfMaterialsLockRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void lockBillOfMaterials() {
+        if (isPostgres()) {
+            jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", (ResultSetExtractor<Void>) rs -> null, ADVISORY_LOCK_KEY);
+            return;
+        }
+
+        jdbcTemplate.queryForList("SELECT id FROM product ORDER BY id FOR UPDATE", Long.class);
+    }
+
+    private boolean isPostgres() {
+        Boolean current = postgres;
+        if (current == null) {
+            current = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> connection.isWrapperFor(PGConnection.class)));
+            postgres = current;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,17 @@
+package dev.test.projedata.autoflex.api.repository;
+
+import java.math.BigDecimal;
+
+public record MaterialRequirementRow(
+
+        Long productId,
+
+        Long rawMaterialId,
+
+        String rawMaterialName,
+
+        BigDecimal stockQuantity,
+
+        BigDecimal quantityRequired
+) {
+}
@@ -0,0 +1,10 @@
+package dev.test.projedata.autoflex.api.repository;
+
+public interface ProductCapacityView {
+
+    Long getProductId();
+
+    String getProductName();
+
+    Integer getMaxProductProduction();
+}
@@ -0,0 +1,34 @@
+package dev.test.projedata.autoflex.api.repository;
+
+import dev.test.projedata.autoflex.api.domain.ProductComponent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProductComponentRepository extends JpaRepository<ProductComponent, Long>, BillOfMaterialsLockRepository {
+
+    Optional<ProductComponent> findByProductIdAndComponentId(Long productId, Long componentId);
+
+    boolean existsByComponentId(Long componentId);
+
+    @Query("""
+        SELECT new dev.test.projedata.autoflex.api.repository.ProductComponentRow(
+            pc.product.id, pc.component.id, pc.quantityRequired)
+        FROM ProductComponent pc
+    """)
+    List<ProductComponentRow> findAllRows();
+
+    @Query("""
+        SELECT new dev.test.projedata.autoflex.api.repository.ProductComponentRow(
+            pc.product.id, pc.component.id, pc.quantityRequired)
+        FROM ProductComponent pc
+        WHERE pc.product.id IN :productIds
+    """)
+    List<ProductComponentRow> findRowsByProductIdIn(Collection<Long> productIds);
+
+}
@@ -0,0 +1,13 @@
+package dev.test.projedata.autoflex.api.repository;
+
+import java.math.BigDecimal;
+
+public record ProductComponentRow(
+
+        Long productId,
+
+        Long componentId,
+
+        BigDecimal quantityRequired
+) {
+}
@@ -0,0 +1,19 @@
+package dev.test.projedata.autoflex.api.repository;
+
+import java.math.BigDecimal;
+
+public record ProductMaterialRow(
+
+        Long productId,
+
+        String productName,
+
+        Long rawMaterialId,
+
+        BigDecimal stockQuantity,
+
+        Long stockVersion,
+
+        BigDecimal quantityRequired
+) {
+}
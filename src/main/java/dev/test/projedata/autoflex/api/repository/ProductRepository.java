@@ -1,20 +1,128 @@
 package dev.test.projedata.autoflex.api.repository;
 
 import dev.test.projedata.autoflex.api.domain.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+    // Cacheable queries only use the query cache when the l2cache profile is active.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("""
         SELECT DISTINCT p
         FROM Product p
-        JOIN FETCH p.productMaterials pm
-        JOIN FETCH pm.rawMaterial
+        LEFT JOIN FETCH p.productMaterials pm
+        LEFT JOIN FETCH pm.rawMaterial
     """)
     List<Product> findAllWithMaterials();
 
+    @Query("""
+        SELECT DISTINCT p
+        FROM Product p
+        LEFT JOIN FETCH p.components
+    """)
+    List<Product> findAllWithComponents();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query(value = "SELECT p.id FROM Product p", countQuery = "SELECT COUNT(p) FROM Product p")
+    Page<Long> findPageIds(Pageable pageable);
+
+    @Query("SELECT p.id FROM Product p ORDER BY p.name, p.id")
+    List<Long> findKeysetIds(Limit limit);
+
+    // Row-value comparison matches the (name, id) index, so any page is a single index range scan.
+    @Query("SELECT p.id FROM Product p WHERE (p.name, p.id) > (:name, :id) ORDER BY p.name, p.id")
+    List<Long> findKeysetIdsAfter(String name, Long id, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("""
+        SELECT DISTINCT p
+        FROM Product p
+        LEFT JOIN FETCH p.productMaterials pm
+        LEFT JOIN FETCH pm.rawMaterial
+        WHERE p.id IN :ids
+    """)
+    List<Product> findAllWithMaterialsByIdIn(Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("""
+        SELECT DISTINCT p
+        FROM Product p
+        LEFT JOIN FETCH p.components pc
+        LEFT JOIN FETCH pc.component
+        WHERE p.id IN :ids
+    """)
+    List<Product> findAllWithComponentsByIdIn(Collection<Long> ids);
+
+    // Sub-assemblies are exploded recursively: each product's raw requirement is the sum, over every
+    // path in its bill of materials, of the product of the quantities along that path. The factor is an
+    // unconstrained NUMERIC, so its scale grows with the depth instead of being rounded: a fixed scale
+    // would drift from the engine's exact arithmetic and could round a deep requirement down to zero.
+    // The path lists the products already visited on the way down; a path never repeats a product in a
+    // valid bill of materials, so the check only stops a cycle left by a bad row from recursing forever.
+    String AVAILABLE_PRODUCTION_QUERY = """
+        WITH RECURSIVE explosion(root_id, product_id, factor, path) AS (
+            SELECT p.id, p.id, CAST(1 AS NUMERIC), CAST(',' || p.id || ',' AS VARCHAR)
+            FROM product p
+            UNION ALL
+            SELECT e.root_id, pc.component_id, e.factor * pc.quantity_required, CAST(e.path || pc.component_id || ',' AS VARCHAR)
+            FROM explosion e
+            JOIN product_component pc ON pc.product_id = e.product_id
+            WHERE e.path NOT LIKE ('%,' || pc.component_id || ',%')
+        ),
+        requirement(root_id, raw_material_id, quantity_required) AS (
+            SELECT e.root_id, pm.raw_material_id, SUM(e.factor * pm.quantity_required) AS quantity_required
+            FROM explosion e
+            JOIN product_material pm ON pm.product_id = e.product_id
+            GROUP BY e.root_id, pm.raw_material_id
+        )
+        SELECT p.id AS productId,
+               p.name AS productName,
+               CAST(COALESCE(MIN(FLOOR(rm.stock_quantity / r.quantity_required)), 0) AS INTEGER) AS maxProductProduction
+        FROM product p
+        LEFT JOIN requirement r ON r.root_id = p.id
+        LEFT JOIN raw_material rm ON rm.id = r.raw_material_id
+        GROUP BY p.id, p.name
+        ORDER BY p.id
+    """;
+
+    @Query(nativeQuery = true, value = AVAILABLE_PRODUCTION_QUERY)
+    List<ProductCapacityView> findAvailableProduction();
+
+    // Rows are fetched from the cursor in chunks, so the caller can write them out as they arrive.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(nativeQuery = true, value = AVAILABLE_PRODUCTION_QUERY)
+    Stream<ProductCapacityView> streamAvailableProduction();
+
+    @Query("""
+        SELECT new dev.test.projedata.autoflex.api.repository.ProductMaterialRow(
+            p.id, p.name, rm.id, rm.stockQuantity, rm.version, pm.quantityRequired)
+        FROM Product p
+        LEFT JOIN p.productMaterials pm
+        LEFT JOIN pm.rawMaterial rm
+        ORDER BY p.id
+    """)
+    List<ProductMaterialRow> findAllMaterialRows();
+
+    @Query("""
+        SELECT new dev.test.projedata.autoflex.api.repository.MaterialRequirementRow(
+            p.id, rm.id, rm.name, rm.stockQuantity, pm.quantityRequired)
+        FROM Product p
+        LEFT JOIN p.productMaterials pm
+        LEFT JOIN pm.rawMaterial rm
+        WHERE p.id IN :productIds
+    """)
+    List<MaterialRequirementRow> findMaterialRequirementRows(Collection<Long> productIds);
+
 }
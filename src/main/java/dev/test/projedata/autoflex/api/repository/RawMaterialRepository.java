@@ -1,9 +1,32 @@
 package dev.test.projedata.autoflex.api.repository;
 
 import dev.test.projedata.autoflex.api.domain.RawMaterial;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface RawMaterialRepository extends JpaRepository<RawMaterial, Long> {
+public interface RawMaterialRepository extends JpaRepository<RawMaterial, Long>, RawMaterialStockRepository {
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    // floor is what the stock may not drop below: zero, or the quantity on hold for a withdrawal.
+    @Query("UPDATE RawMaterial r SET r.stockQuantity = r.stockQuantity + :delta, r.version = r.version + 1 WHERE r.id = :id AND r.stockQuantity + :delta >= :floor")
+    int adjustStock(Long id, BigDecimal delta, BigDecimal floor);
+
+    @Query("SELECT r FROM RawMaterial r ORDER BY r.name, r.id")
+    List<RawMaterial> findKeysetPage(Limit limit);
+
+    @Query("SELECT r FROM RawMaterial r WHERE (r.name, r.id) > (:name, :id) ORDER BY r.name, r.id")
+    List<RawMaterial> findKeysetPageAfter(String name, Long id, Limit limit);
+
+    // Scalar columns, not entities: always the database values, never a stale managed instance.
+    @Query("SELECT new dev.test.projedata.autoflex.api.repository.RawMaterialStockRow(r.id, r.stockQuantity, r.version) FROM RawMaterial r WHERE r.id IN :ids")
+    List<RawMaterialStockRow> findStockRows(Collection<Long> ids);
+
 }
@@ -0,0 +1,19 @@
+package dev.test.projedata.autoflex.api.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+public interface RawMaterialStockRepository {
+
+    /**
+     * Applies every delta with one {@code UPDATE ... SET stock_quantity = stock_quantity + ?} per raw
+     * material, sent as a single JDBC batch in ascending id order. A negative delta may not take the stock
+     * below the quantity held in {@code reserved}; a receipt is never refused for that.
+     *
+     * @return the ids whose update matched no row, because the raw material does not exist or the
+     * delta would have taken its stock below zero or below its reserved quantity
+     */
+    List<Long> adjustStocks(SortedMap<Long, BigDecimal> deltas, Map<Long, BigDecimal> reserved);
+}
@@ -0,0 +1,69 @@
+package dev.test.projedata.autoflex.api.repository;
+
+import dev.test.projedata.autoflex.api.domain.RawMaterial;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+public class RawMaterialStockRepositoryImpl implements RawMaterialStockRepository {
+
+    // The guard sits in the WHERE clause, so the check and the write are one atomic statement and
+    // concurrent adjustments only ever wait on the row lock of the material they touch. The version is
+    // bumped as well, so a client holding an older ETag cannot overwrite the adjusted stock.
+    static final String ADJUST_STOCK_SQL = """
+        UPDATE raw_material
+        SET stock_quantity = stock_quantity + ?, version = version + 1
+        WHERE id = ? AND stock_quantity + ? >= ?
+    """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public RawMaterialStockRepositoryImpl(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public List<Long> adjustStocks(SortedMap<Long, BigDecimal> deltas, Map<Long, BigDecimal> reserved) {
+        List<Map.Entry<Long, BigDecimal>> entries = new ArrayList<>(deltas.entrySet());
+        int[] updated = jdbcTemplate.batchUpdate(ADJUST_STOCK_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setBigDecimal(1, entry.getValue());
+            ps.setLong(2, entry.getKey());
+            ps.setBigDecimal(3, entry.getValue());
+            ps.setBigDecimal(4, entry.getValue().signum() < 0 ? reserved.getOrDefault(entry.getKey(), BigDecimal.ZERO) : BigDecimal.ZERO);
+        })[0];
+        evictFromSecondLevelCache(List.copyOf(deltas.keySet()));
+
+        List<Long> refused = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) refused.add(entries.get(i).getKey());
+        }
+        return refused;
+    }
+
+    // Hibernate does not see JDBC writes, so the cached rows are evicted here: right away, and again
+    // once the transaction completes, in case a concurrent read cached the old row in between.
+    private void evictFromSecondLevelCache(Iterable<Long> ids) {
+        Cache cache = entityManagerFactory.getCache();
+        Runnable eviction = () -> ids.forEach(id -> cache.evict(RawMaterial.class, id));
+
+        eviction.run();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                eviction.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,13 @@
+package dev.test.projedata.autoflex.api.repository;
+
+import java.math.BigDecimal;
+
+public record RawMaterialStockRow(
+
+        Long id,
+
+        BigDecimal stockQuantity,
+
+        Long version
+) {
+}
@@ -0,0 +1,33 @@
+package dev.test.projedata.autoflex.api.service;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Flattens a multi-level bill of materials into the raw material quantities needed for one unit of
+ * a product. Results are memoized per product, so a sub-assembly shared by many products (or used
+ * several times in the same tree) is expanded only once per memo.
+ */
+public final class BomExplosion {
+
+    private BomExplosion() {
+    }
+
+    public static Map<Long, BigDecimal> explode(Long productId,
+                                                Function<Long, Map<Long, BigDecimal>> materials,
+                                                Function<Long, Map<Long, BigDecimal>> components,
+                                                Map<Long, Map<Long, BigDecimal>> memo) {
+        Map<Long, BigDecimal> cached = memo.get(productId);
+        if (cached != null) return cached;
+
+        Map<Long, BigDecimal> exploded = new HashMap<>(materials.apply(productId));
+        components.apply(productId).forEach((componentId, quantity) ->
+                explode(componentId, materials, components, memo).forEach((rawMaterialId, required) ->
+                        exploded.merge(rawMaterialId, required.multiply(quantity), BigDecimal::add)));
+
+        memo.put(productId, exploded);
+        return exploded;
+    }
+}
@@ -0,0 +1,79 @@
+package dev.test.projedata.autoflex.api.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs the {@link CapacityKernel} over a whole {@link CapacityMatrix}. Catalogs at or above
+ * {@code autoflex.capacity.parallel-threshold} rows are split into fixed-size row chunks evaluated
+ * on a dedicated {@link ForkJoinPool}, so large recomputations never compete with the common pool.
+ * Each chunk writes to its own slice of the result array, which keeps the output in row order.
+ */
+@Component
+public class CapacityEvaluator {
+
+    static final int CHUNK_ROWS = 2048;
+
+    private final int parallelThreshold;
+    private final ForkJoinPool pool;
+
+    public CapacityEvaluator(@Value("${autoflex.capacity.parallel-threshold:50000}") int parallelThreshold,
+                             @Value("${autoflex.capacity.parallelism:0}") int parallelism) {
+        this.parallelThreshold = parallelThreshold;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                p -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                    thread.setName("capacity-" + thread.getPoolIndex());
+                    return thread;
+                }, null, false);
+    }
+
+    public int[] evaluate(CapacityMatrix matrix) {
+        int[] capacities = new int[matrix.rows()];
+
+        if (matrix.rows() < parallelThreshold) {
+            CapacityKernel.evaluate(matrix, capacities);
+        } else {
+            pool.invoke(new EvaluateTask(matrix, capacities, 0, matrix.rows()));
+        }
+
+        return capacities;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private static final class EvaluateTask extends RecursiveAction {
+
+        private final CapacityMatrix matrix;
+        private final int[] capacities;
+        private final int from;
+        private final int to;
+
+        private EvaluateTask(CapacityMatrix matrix, int[] capacities, int from, int to) {
+            this.matrix = matrix;
+            this.capacities = capacities;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK_ROWS) {
+                CapacityKernel.evaluate(matrix, from, to, capacities);
+                return;
+            }
+
+            int chunks = (to - from + CHUNK_ROWS - 1) / CHUNK_ROWS;
+            int middle = from + (chunks / 2) * CHUNK_ROWS;
+            invokeAll(new EvaluateTask(matrix, capacities, from, middle), new EvaluateTask(matrix, capacities, middle, to));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package dev.test.projedata.autoflex.api.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Capacity min-reduction over a {@link CapacityMatrix}: for each row, the minimum of
+ * {@code floor(stock / required)} across its entries, or 0 for an empty row. The fixed-point loop
+ * allocates nothing and gives the same result as {@code BigDecimal.divide(..., RoundingMode.FLOOR).intValue()}.
+ */
+public final class CapacityKernel {
+
+    private CapacityKernel() {
+    }
+
+    public static void evaluate(CapacityMatrix matrix, int[] capacities) {
+        evaluate(matrix, 0, matrix.rows(), capacities);
+    }
+
+    public static void evaluate(CapacityMatrix matrix, int fromRow, int toRow, int[] capacities) {
+        if (matrix.fixedPoint) {
+            evaluateFixedPoint(matrix, fromRow, toRow, capacities);
+        } else {
+            evaluateDecimal(matrix, fromRow, toRow, capacities);
+        }
+    }
+
+    private static void evaluateFixedPoint(CapacityMatrix matrix, int fromRow, int toRow, int[] capacities) {
+        int[] rowStart = matrix.rowStart;
+        int[] columns = matrix.columns;
+        long[] required = matrix.required;
+        long[] stock = matrix.stock;
+
+        for (int row = fromRow; row < toRow; row++) {
+            int start = rowStart[row];
+            int end = rowStart[row + 1];
+            if (start == end) {
+                capacities[row] = 0;
+                continue;
+            }
+
+            int min = Integer.MAX_VALUE;
+            for (int k = start; k < end; k++) {
+                min = Math.min(min, (int) Math.floorDiv(stock[columns[k]], required[k]));
+            }
+            capacities[row] = min;
+        }
+    }
+
+    private static void evaluateDecimal(CapacityMatrix matrix, int fromRow, int toRow, int[] capacities) {
+        for (int row = fromRow; row < toRow; row++) {
+            int start = matrix.rowStart[row];
+            int end = matrix.rowStart[row + 1];
+            if (start == end) {
+                capacities[row] = 0;
+                continue;
+            }
+
+            int min = Integer.MAX_VALUE;
+            for (int k = start; k < end; k++) {
+                BigDecimal stock = matrix.stockDecimal[matrix.columns[k]];
+                min = Math.min(min, stock.divide(matrix.requiredDecimal[k], 0, RoundingMode.FLOOR).intValue());
+            }
+            capacities[row] = min;
+        }
+    }
+}
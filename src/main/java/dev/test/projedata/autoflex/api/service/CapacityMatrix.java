@@ -0,0 +1,112 @@
+package dev.test.projedata.autoflex.api.service;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Immutable compressed-sparse-row snapshot of the bill of materials: one row per product, one
+ * column per raw material. Stock and required quantities are stored as {@code long} fixed-point
+ * values sharing a single scale, so the floor division {@code stock / required} becomes an integer
+ * {@code floorDiv} on the unscaled values. When some value cannot be represented at that scale the
+ * snapshot keeps working on the original {@link BigDecimal}s instead.
+ */
+public final class CapacityMatrix {
+
+    private static final int MAX_SCALE = 18;
+
+    final int[] rowStart;
+    final int[] columns;
+    final long[] required;
+    final long[] stock;
+    final BigDecimal[] requiredDecimal;
+    final BigDecimal[] stockDecimal;
+    final boolean fixedPoint;
+
+    private CapacityMatrix(int[] rowStart, int[] columns, BigDecimal[] requiredDecimal, BigDecimal[] stockDecimal) {
+        this.rowStart = rowStart;
+        this.columns = columns;
+        this.requiredDecimal = requiredDecimal;
+        this.stockDecimal = stockDecimal;
+        this.required = new long[requiredDecimal.length];
+        this.stock = new long[stockDecimal.length];
+        this.fixedPoint = scale(requiredDecimal, stockDecimal, required, stock);
+    }
+
+    public static Builder builder(int columnCount) {
+        return new Builder(columnCount);
+    }
+
+    public int rows() {
+        return rowStart.length - 1;
+    }
+
+    public int columnsCount() {
+        return stockDecimal.length;
+    }
+
+    public boolean isFixedPoint() {
+        return fixedPoint;
+    }
+
+    private static boolean scale(BigDecimal[] requiredDecimal, BigDecimal[] stockDecimal, long[] required, long[] stock) {
+        int scale = 0;
+        for (BigDecimal value : requiredDecimal) scale = Math.max(scale, value.scale());
+        for (BigDecimal value : stockDecimal) scale = Math.max(scale, value.scale());
+        if (scale > MAX_SCALE) return false;
+
+        try {
+            for (int k = 0; k < requiredDecimal.length; k++) required[k] = unscaled(requiredDecimal[k], scale);
+            for (int j = 0; j < stockDecimal.length; j++) stock[j] = unscaled(stockDecimal[j], scale);
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    private static long unscaled(BigDecimal value, int scale) {
+        return value.setScale(scale).unscaledValue().longValueExact();
+    }
+
+    public static final class Builder {
+
+        private final BigDecimal[] stock;
+        private int[] rowStart = new int[16];
+        private int[] columns = new int[16];
+        private BigDecimal[] required = new BigDecimal[16];
+        private int rows;
+        private int entries;
+
+        private Builder(int columnCount) {
+            this.stock = new BigDecimal[columnCount];
+            Arrays.fill(stock, BigDecimal.ZERO);
+        }
+
+        public Builder stock(int column, BigDecimal quantity) {
+            stock[column] = quantity;
+            return this;
+        }
+
+        public Builder row() {
+            if (rows + 1 >= rowStart.length) rowStart = Arrays.copyOf(rowStart, rowStart.length * 2);
+            rowStart[rows++] = entries;
+            return this;
+        }
+
+        public Builder entry(int column, BigDecimal quantityRequired) {
+            if (entries == columns.length) {
+                columns = Arrays.copyOf(columns, entries * 2);
+                required = Arrays.copyOf(required, entries * 2);
+            }
+            columns[entries] = column;
+            required[entries++] = quantityRequired;
+            return this;
+        }
+
+        public CapacityMatrix build() {
+            int[] starts = Arrays.copyOf(rowStart, rows + 1);
+            starts[rows] = entries;
+
+            return new CapacityMatrix(starts, Arrays.copyOf(columns, entries), Arrays.copyOf(required, entries), stock.clone());
+        }
+    }
+}
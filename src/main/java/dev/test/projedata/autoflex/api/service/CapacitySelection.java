@@ -0,0 +1,58 @@
+package dev.test.projedata.autoflex.api.service;
+
+import dev.test.projedata.autoflex.api.dtos.request.AvailableProductionRequest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Applies the filters, ordering and limit of an {@link AvailableProductionRequest} while products
+ * are streamed. A sorted top-K keeps at most K candidates in a bounded heap, so the work is
+ * {@code O(n log K)} and nothing but the selected products is ever collected.
+ */
+public final class CapacitySelection {
+
+    private CapacitySelection() {
+    }
+
+    public static <T> List<T> select(Iterable<T> items, ToLongFunction<T> id, ToIntFunction<T> capacity, AvailableProductionRequest request) {
+        Set<Long> productIds = request.productIds() != null ? new HashSet<>(request.productIds()) : null;
+        int minCapacity = request.minCapacity() != null ? request.minCapacity() : Integer.MIN_VALUE;
+        int limit = request.limit() != null ? request.limit() : Integer.MAX_VALUE;
+
+        Comparator<T> order = null;
+        if (request.sort() != null) {
+            Comparator<T> byCapacity = Comparator.comparingInt(capacity);
+            order = ("desc".equals(request.sort()) ? byCapacity.reversed() : byCapacity).thenComparingLong(id);
+        }
+
+        List<T> selected = new ArrayList<>();
+        PriorityQueue<T> heap = order != null && request.limit() != null ? new PriorityQueue<>(order.reversed()) : null;
+
+        for (T item : items) {
+            if (productIds != null && !productIds.contains(id.applyAsLong(item))) continue;
+            if (capacity.applyAsInt(item) < minCapacity) continue;
+
+            if (heap == null) {
+                selected.add(item);
+                if (order == null && selected.size() == limit) break;
+            } else if (heap.size() < limit) {
+                heap.add(item);
+            } else if (order.compare(item, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(item);
+            }
+        }
+
+        if (heap != null) selected.addAll(heap);
+        if (order != null) selected.sort(order);
+
+        return selected;
+    }
+}
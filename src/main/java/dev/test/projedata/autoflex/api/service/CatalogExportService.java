@@ -0,0 +1,129 @@
+package dev.test.projedata.autoflex.api.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Writes whole tables to an output stream without materializing them. On PostgreSQL, CSV is produced
+ * by the server itself through {@code COPY ... TO STDOUT} and piped straight through; elsewhere, and for
+ * NDJSON, rows come from a forward-only JDBC cursor and are written as they are read. Either way the
+ * heap holds one fetch batch at most, whatever the table size.
+ */
+@Service
+public class CatalogExportService {
+
+    static final int FETCH_SIZE = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public CatalogExportService(DataSource dataSource, ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void exportCsv(ExportDataset dataset, OutputStream out) throws IOException {
+        Boolean copied = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!connection.isWrapperFor(PGConnection.class)) return false;
+
+            try {
+                connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyOut("COPY (" + dataset.query() + ") TO STDOUT WITH (FORMAT csv, HEADER)", out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        });
+        if (Boolean.TRUE.equals(copied)) return;
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        // PostgreSQL only streams a cursor inside a transaction; without one it reads the whole result first.
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(dataset.query(), (ResultSetExtractor<Void>) rs -> {
+            try {
+                writeCsvHeader(rs.getMetaData(), writer);
+                while (rs.next()) writeCsvRow(rs, writer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }));
+        writer.flush();
+    }
+
+    public void exportNdjson(ExportDataset dataset, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(new BufferedOutputStream(out))) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Rows end with their own newline, so no root value separator may precede the next one.
+            generator.setRootValueSeparator(null);
+
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(dataset.query(), (ResultSetExtractor<Void>) rs -> {
+                try {
+                    while (rs.next()) writeJsonRow(rs, generator);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            }));
+        }
+    }
+
+    private void writeCsvHeader(ResultSetMetaData metaData, Writer writer) throws SQLException, IOException {
+        for (int column = 1; column <= metaData.getColumnCount(); column++) {
+            if (column > 1) writer.write(',');
+            writer.write(escapeCsv(metaData.getColumnLabel(column)));
+        }
+        writer.write('\n');
+    }
+
+    private void writeCsvRow(ResultSet rs, Writer writer) throws SQLException, IOException {
+        int columns = rs.getMetaData().getColumnCount();
+        for (int column = 1; column <= columns; column++) {
+            if (column > 1) writer.write(',');
+            Object value = rs.getObject(column);
+            if (value != null) writer.write(escapeCsv(value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString()));
+        }
+        writer.write('\n');
+    }
+
+    private void writeJsonRow(ResultSet rs, JsonGenerator generator) throws SQLException, IOException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        generator.writeStartObject();
+        for (int column = 1; column <= metaData.getColumnCount(); column++) {
+            generator.writeFieldName(metaData.getColumnLabel(column));
+            generator.writeObject(rs.getObject(column));
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) return value;
+
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
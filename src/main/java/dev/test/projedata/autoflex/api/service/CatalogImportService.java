@@ -0,0 +1,288 @@
+package dev.test.projedata.autoflex.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.test.projedata.autoflex.api.domain.Product;
+import dev.test.projedata.autoflex.api.domain.ProductComponent;
+import dev.test.projedata.autoflex.api.domain.ProductMaterial;
+import dev.test.projedata.autoflex.api.domain.RawMaterial;
+import dev.test.projedata.autoflex.api.dtos.request.ProductComponentImportRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductMaterialImportRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductRequest;
+import dev.test.projedata.autoflex.api.dtos.request.RawMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.response.ImportErrorResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ImportSummaryResponse;
+import dev.test.projedata.autoflex.api.mapper.ProductMapper;
+import dev.test.projedata.autoflex.api.mapper.RawMaterialMapper;
+import dev.test.projedata.autoflex.api.repository.MaterialRequirementRow;
+import dev.test.projedata.autoflex.api.repository.ProductComponentRepository;
+import dev.test.projedata.autoflex.api.repository.ProductMaterialRepository;
+import dev.test.projedata.autoflex.api.repository.ProductRepository;
+import dev.test.projedata.autoflex.api.repository.RawMaterialRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Bulk loads of raw materials, products, bill of materials lines and sub-assembly links. Rows are parsed as they arrive,
+ * validated in parallel one chunk at a time and persisted in one transaction per chunk, flushing and
+ * clearing the persistence context in between so memory stays flat however long the input is. Ids
+ * come from pooled sequences, which lets Hibernate send each chunk as JDBC batches.
+ * <p>
+ * Bad rows are rejected individually and listed in the summary; everything else is imported.
+ */
+@Service
+public class CatalogImportService {
+
+    static final int MAX_REPORTED_ERRORS = 1_000;
+
+    private final RawMaterialRepository rawMaterialRepository;
+    private final RawMaterialMapper rawMaterialMapper;
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final ProductMaterialRepository productMaterialRepository;
+    private final ProductComponentRepository productComponentRepository;
+    private final ProductionCapacityEngine productionCapacityEngine;
+    private final CatalogResponseCache catalogResponseCache;
+    private final CatalogVersion catalogVersion;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transaction;
+    private final int chunkSize;
+
+    public CatalogImportService(RawMaterialRepository rawMaterialRepository, RawMaterialMapper rawMaterialMapper, ProductRepository productRepository, ProductMapper productMapper, ProductMaterialRepository productMaterialRepository, ProductComponentRepository productComponentRepository, ProductionCapacityEngine productionCapacityEngine, CatalogResponseCache catalogResponseCache, CatalogVersion catalogVersion, ObjectMapper objectMapper, Validator validator, EntityManager entityManager, PlatformTransactionManager transactionManager, @Value("${autoflex.import.chunk-size:1000}") int chunkSize) {
+        this.rawMaterialRepository = rawMaterialRepository;
+        this.rawMaterialMapper = rawMaterialMapper;
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.productMaterialRepository = productMaterialRepository;
+        this.productComponentRepository = productComponentRepository;
+        this.productionCapacityEngine = productionCapacityEngine;
+        this.catalogResponseCache = catalogResponseCache;
+        this.catalogVersion = catalogVersion;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public ImportSummaryResponse importRawMaterials(InputStream input, MediaType contentType) {
+        return load(input, contentType, RawMaterialRequest.class, rows -> {
+            rawMaterialRepository.saveAll(rows.stream().map(row -> rawMaterialMapper.toEntity(row.value())).toList());
+            return List.of();
+        });
+    }
+
+    public ImportSummaryResponse importProducts(InputStream input, MediaType contentType) {
+        return load(input, contentType, ProductRequest.class, rows -> {
+            productRepository.saveAll(rows.stream().map(row -> productMapper.toEntity(row.value())).toList());
+            return List.of();
+        });
+    }
+
+    public ImportSummaryResponse importProductMaterials(InputStream input, MediaType contentType) {
+        return load(input, contentType, ProductMaterialImportRequest.class, this::saveProductMaterials);
+    }
+
+    // References are resolved for the whole chunk with two queries. Links that already exist, or that
+    // appear twice in the input, are rejected like the single-row endpoint does.
+    private List<ImportRow<ProductMaterialImportRequest>> saveProductMaterials(List<ImportRow<ProductMaterialImportRequest>> rows) {
+        Set<Long> productIds = rows.stream().map(row -> row.value().productId()).collect(Collectors.toSet());
+        Set<Long> rawMaterialIds = rows.stream().map(row -> row.value().rawMaterialId()).collect(Collectors.toSet());
+
+        Set<Long> products = new HashSet<>();
+        Set<Link> links = new HashSet<>();
+        for (MaterialRequirementRow existing : productRepository.findMaterialRequirementRows(productIds)) {
+            products.add(existing.productId());
+            if (existing.rawMaterialId() != null) links.add(new Link(existing.productId(), existing.rawMaterialId()));
+        }
+        Map<Long, RawMaterial> rawMaterials = rawMaterialRepository.findAllById(rawMaterialIds).stream()
+                .collect(Collectors.toMap(RawMaterial::getId, Function.identity()));
+
+        List<ImportRow<ProductMaterialImportRequest>> rejected = new ArrayList<>();
+        List<ProductMaterial> accepted = new ArrayList<>();
+        for (ImportRow<ProductMaterialImportRequest> row : rows) {
+            ProductMaterialImportRequest request = row.value();
+            if (!products.contains(request.productId())) {
+                rejected.add(row.reject("Product not found. Id: " + request.productId()));
+            } else if (!rawMaterials.containsKey(request.rawMaterialId())) {
+                rejected.add(row.reject("RawMaterial not found. Id: " + request.rawMaterialId()));
+            } else if (!links.add(new Link(request.productId(), request.rawMaterialId()))) {
+                rejected.add(row.reject("Material already associated with this product"));
+            } else {
+                accepted.add(new ProductMaterial(null, productRepository.getReferenceById(request.productId()),
+                        rawMaterials.get(request.rawMaterialId()), request.quantityRequired()));
+            }
+        }
+
+        productMaterialRepository.saveAll(accepted);
+        accepted.forEach(productMaterial -> catalogResponseCache.productChanged(productMaterial.getProduct().getId()));
+        return rejected;
+    }
+
+    public ImportSummaryResponse importProductComponents(InputStream input, MediaType contentType) {
+        return load(input, contentType, ProductComponentImportRequest.class, this::saveProductComponents);
+    }
+
+    // Checked against the whole graph under the same database lock as the single-row endpoint, so neither
+    // a concurrent link nor another row of the input can close a cycle.
+    private List<ImportRow<ProductComponentImportRequest>> saveProductComponents(List<ImportRow<ProductComponentImportRequest>> rows) {
+        productComponentRepository.lockBillOfMaterials();
+
+        Set<Long> productIds = rows.stream()
+                .flatMap(row -> Stream.of(row.value().productId(), row.value().componentId()))
+                .collect(Collectors.toSet());
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        ComponentGraph graph = ComponentGraph.of(productComponentRepository.findAllRows());
+
+        List<ImportRow<ProductComponentImportRequest>> rejected = new ArrayList<>();
+        List<ProductComponent> accepted = new ArrayList<>();
+        for (ImportRow<ProductComponentImportRequest> row : rows) {
+            ProductComponentImportRequest request = row.value();
+            if (!products.containsKey(request.productId())) {
+                rejected.add(row.reject("Product not found. Id: " + request.productId()));
+            } else if (!products.containsKey(request.componentId())) {
+                rejected.add(row.reject("Product not found. Id: " + request.componentId()));
+            } else if (graph.isLinked(request.productId(), request.componentId())) {
+                rejected.add(row.reject("Component already associated with this product"));
+            } else if (graph.createsCycle(request.productId(), request.componentId())) {
+                rejected.add(row.reject("Cannot add component: it would create a cycle in the bill of materials"));
+            } else {
+                graph.link(request.productId(), request.componentId());
+                accepted.add(new ProductComponent(null, products.get(request.productId()),
+                        products.get(request.componentId()), request.quantityRequired()));
+            }
+        }
+
+        productComponentRepository.saveAll(accepted);
+        accepted.forEach(productComponent -> catalogResponseCache.productChanged(productComponent.getProduct().getId()));
+        return rejected;
+    }
+
+    private <T> ImportSummaryResponse load(InputStream input, MediaType contentType, Class<T> rowType, ChunkWriter<T> writer) {
+        Summary summary = new Summary();
+        List<ImportRow<T>> chunk = new ArrayList<>(chunkSize);
+
+        try (ImportRowReader<T> reader = ImportRowReader.open(input, contentType, objectMapper, rowType)) {
+            for (ImportRow<T> row = reader.next(); row != null; row = reader.next()) {
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    write(chunk, writer, summary);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            summary.error(summary.received + chunk.size() + 1, "Malformed input, import stopped: " + e.getMessage());
+        }
+        write(chunk, writer, summary);
+
+        return summary.toResponse();
+    }
+
+    private <T> void write(List<ImportRow<T>> chunk, ChunkWriter<T> writer, Summary summary) {
+        summary.received += chunk.size();
+
+        List<ImportRow<T>> valid = new ArrayList<>(chunk.size());
+        for (ImportRow<T> row : chunk.parallelStream().map(this::validate).toList()) {
+            if (row.isValid()) valid.add(row);
+            else summary.reject(row);
+        }
+        if (valid.isEmpty()) return;
+
+        try {
+            summary.imported(valid, persist(valid, writer));
+        } catch (DataAccessException e) {
+            // A single row the database refuses fails the whole batch, so retry row by row to keep the rest.
+            for (ImportRow<T> row : valid) {
+                try {
+                    summary.imported(List.of(row), persist(List.of(row), writer));
+                } catch (DataAccessException rowError) {
+                    summary.reject(row.reject(rowError.getMostSpecificCause().getMessage()));
+                }
+            }
+        }
+    }
+
+    private <T> List<ImportRow<T>> persist(List<ImportRow<T>> rows, ChunkWriter<T> writer) {
+        return transaction.execute(status -> {
+            List<ImportRow<T>> rejected = writer.write(rows);
+            productRepository.flush();
+            entityManager.clear();
+            productionCapacityEngine.catalogImported();
+            catalogVersion.changed();
+            return rejected;
+        });
+    }
+
+    private <T> ImportRow<T> validate(ImportRow<T> row) {
+        if (!row.isValid()) return row;
+
+        Set<ConstraintViolation<T>> violations = validator.validate(row.value());
+        if (violations.isEmpty()) return row;
+
+        return row.reject(violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; ")));
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter<T> {
+
+        /**
+         * Persists the rows that passed validation.
+         *
+         * @return the rows it refused to persist, each carrying the reason
+         */
+        List<ImportRow<T>> write(List<ImportRow<T>> rows);
+    }
+
+    private record Link(Long productId, Long rawMaterialId) {
+    }
+
+    private static final class Summary {
+
+        private int received;
+        private int imported;
+        private int rejected;
+        private final List<ImportErrorResponse> errors = new ArrayList<>();
+
+        private void imported(List<? extends ImportRow<?>> rows, List<? extends ImportRow<?>> refused) {
+            imported += rows.size() - refused.size();
+            refused.forEach(this::reject);
+        }
+
+        private void reject(ImportRow<?> row) {
+            rejected++;
+            error(row.number(), row.error());
+        }
+
+        // Only the first errors are kept, so a file that is wrong on every line still gets a small answer.
+        private void error(int row, String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) errors.add(new ImportErrorResponse(row, message));
+        }
+
+        private ImportSummaryResponse toResponse() {
+            return new ImportSummaryResponse(received, imported, rejected, List.copyOf(errors));
+        }
+    }
+}
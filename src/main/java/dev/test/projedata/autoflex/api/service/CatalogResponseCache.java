@@ -0,0 +1,105 @@
+package dev.test.projedata.autoflex.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import dev.test.projedata.autoflex.api.dtos.response.CacheStatsResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductResponse;
+import dev.test.projedata.autoflex.api.dtos.response.RawMaterialResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Bounded caches of the built {@link ProductResponse} and {@link RawMaterialResponse} served by
+ * {@code findById}. Entries are evicted by size (W-TinyLFU) and by age, and the write paths evict what
+ * they change.
+ * <p>
+ * Evictions happen right away and again once the surrounding transaction completes: a miss that read
+ * the row before the commit, or the writer's own uncommitted row, cannot be left behind, since the
+ * load and the eviction of a key are serialized by the cache.
+ * <p>
+ * Products embed the names of their raw materials and components, so renaming either also evicts the
+ * cached products that show it. That scans the cache, which is fine for a rare write, but a scan does not
+ * see loads still in flight. Each rename therefore also bumps a generation, and a product loaded under an
+ * older generation is dropped from the cache once its load completes.
+ */
+@Component
+public class CatalogResponseCache {
+
+    private final Cache<Long, ProductResponse> products;
+    private final Cache<Long, RawMaterialResponse> rawMaterials;
+    private final AtomicLong renames = new AtomicLong();
+
+    public CatalogResponseCache(@Value("${autoflex.cache.maximum-size:10000}") long maximumSize,
+                                @Value("${autoflex.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.products = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(expireAfterWrite).recordStats().build();
+        this.rawMaterials = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(expireAfterWrite).recordStats().build();
+    }
+
+    public ProductResponse product(Long id, Function<Long, ProductResponse> loader) {
+        long generation = renames.get();
+        ProductResponse response = products.get(id, loader);
+        if (renames.get() != generation) products.asMap().remove(id, response);
+        return response;
+    }
+
+    public RawMaterialResponse rawMaterial(Long id, Function<Long, RawMaterialResponse> loader) {
+        return rawMaterials.get(id, loader);
+    }
+
+    public void productChanged(Long productId) {
+        evict(() -> products.invalidate(productId));
+    }
+
+    public void productRenamed(Long productId) {
+        evict(() -> {
+            products.invalidate(productId);
+            invalidateProducts(p -> p.components().stream().anyMatch(c -> productId.equals(c.componentProductId())));
+        });
+    }
+
+    public void rawMaterialChanged(Long rawMaterialId) {
+        evict(() -> rawMaterials.invalidate(rawMaterialId));
+    }
+
+    public void rawMaterialRenamed(Long rawMaterialId) {
+        evict(() -> {
+            rawMaterials.invalidate(rawMaterialId);
+            invalidateProducts(p -> p.materials().stream().anyMatch(m -> rawMaterialId.equals(m.rawMaterialId())));
+        });
+    }
+
+    public List<CacheStatsResponse> stats() {
+        return List.of(stats("products", products), stats("rawMaterials", rawMaterials));
+    }
+
+    private void invalidateProducts(Predicate<ProductResponse> affected) {
+        renames.incrementAndGet();
+        products.asMap().values().removeIf(affected);
+    }
+
+    private void evict(Runnable eviction) {
+        eviction.run();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                eviction.run();
+            }
+        });
+    }
+
+    private static CacheStatsResponse stats(String name, Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return new CacheStatsResponse(name, cache.estimatedSize(), stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount());
+    }
+}
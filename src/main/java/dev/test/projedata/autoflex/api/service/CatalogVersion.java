@@ -0,0 +1,44 @@
+package dev.test.projedata.autoflex.api.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A counter bumped by every write to the catalog, used to validate collection reads without running
+ * them. The bump happens after the writing transaction commits, and a read takes its stamp before
+ * querying, so a stamp is never handed out with data older than the state it stands for.
+ * <p>
+ * The epoch (startup time) keeps stamps from colliding across restarts. The counter is per instance.
+ */
+@Component
+public class CatalogVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicReference<Stamp> current = new AtomicReference<>(new Stamp(epoch, 0));
+
+    public Stamp current() {
+        return current.get();
+    }
+
+    public void changed() {
+        Runnable bump = () -> current.updateAndGet(stamp -> new Stamp(epoch, stamp.version() + 1));
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump.run();
+            }
+        });
+    }
+
+    public record Stamp(String epoch, long version) {
+    }
+}
@@ -0,0 +1,48 @@
+package dev.test.projedata.autoflex.api.service;
+
+import dev.test.projedata.autoflex.api.repository.ProductComponentRow;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The product -> component links of the bill of materials, used to refuse a link that would close a
+ * cycle. Links accepted while checking a batch are added as they go, so rows of the same batch are
+ * checked against each other too.
+ */
+final class ComponentGraph {
+
+    private final Map<Long, Set<Long>> components = new HashMap<>();
+
+    static ComponentGraph of(List<ProductComponentRow> rows) {
+        ComponentGraph graph = new ComponentGraph();
+        rows.forEach(row -> graph.link(row.productId(), row.componentId()));
+        return graph;
+    }
+
+    void link(Long productId, Long componentId) {
+        components.computeIfAbsent(productId, id -> new HashSet<>()).add(componentId);
+    }
+
+    boolean isLinked(Long productId, Long componentId) {
+        return components.getOrDefault(productId, Set.of()).contains(componentId);
+    }
+
+    // Linking the component closes a cycle when the product is already reachable from it.
+    boolean createsCycle(Long productId, Long componentId) {
+        Set<Long> visited = new HashSet<>();
+        Deque<Long> pending = new ArrayDeque<>(List.of(componentId));
+        while (!pending.isEmpty()) {
+            Long current = pending.pop();
+            if (current.equals(productId)) return true;
+            if (visited.add(current)) pending.addAll(components.getOrDefault(current, Set.of()));
+        }
+
+        return false;
+    }
+}
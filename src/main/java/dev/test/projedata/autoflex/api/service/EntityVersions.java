@@ -0,0 +1,20 @@
+package dev.test.projedata.autoflex.api.service;
+
+import dev.test.projedata.autoflex.api.exceptions.PreconditionFailedException;
+
+/**
+ * Compares the version a client last saw (from {@code If-Match}) with the current one. A request
+ * without an expected version is not checked here; the {@code @Version} column still rejects it at
+ * flush if another transaction committed in between.
+ */
+final class EntityVersions {
+
+    private EntityVersions() {
+    }
+
+    static void check(Long expected, Long current, String resource) {
+        if (expected != null && !expected.equals(current)) {
+            throw new PreconditionFailedException(resource + " version is " + current + ", expected " + expected);
+        }
+    }
+}
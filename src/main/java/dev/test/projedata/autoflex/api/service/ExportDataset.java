@@ -0,0 +1,49 @@
+package dev.test.projedata.autoflex.api.service;
+
+import dev.test.projedata.autoflex.api.exceptions.ResourceNotFoundException;
+
+import java.util.Arrays;
+
+/**
+ * The tables that can be exported, each with the query that reads it in id order. Columns are named
+ * after the import headers. The import assigns new ids and ignores the {@code id} column, so the link
+ * datasets (product materials and product components) only load back once their ids have been mapped
+ * to the ones the products and raw materials received. The aliases are quoted because H2 would
+ * otherwise report them in upper case.
+ */
+public enum ExportDataset {
+
+    PRODUCTS("products", "SELECT id AS \"id\", name AS \"name\", price AS \"price\" FROM product ORDER BY id"),
+    RAW_MATERIALS("rawMaterials", "SELECT id AS \"id\", name AS \"name\", stock_quantity AS \"stockQuantity\" FROM raw_material ORDER BY id"),
+    PRODUCT_MATERIALS("productMaterials", """
+            SELECT product_id AS "productId", raw_material_id AS "rawMaterialId", quantity_required AS "quantityRequired"
+            FROM product_material
+            ORDER BY product_id, raw_material_id"""),
+    PRODUCT_COMPONENTS("productComponents", """
+            SELECT product_id AS "productId", component_id AS "componentId", quantity_required AS "quantityRequired"
+            FROM product_component
+            ORDER BY product_id, component_id""");
+
+    private final String path;
+    private final String query;
+
+    ExportDataset(String path, String query) {
+        this.path = path;
+        this.query = query;
+    }
+
+    public static ExportDataset fromPath(String path) {
+        return Arrays.stream(values())
+                .filter(dataset -> dataset.path.equals(path))
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Export not found: " + path));
+    }
+
+    public String path() {
+        return path;
+    }
+
+    String query() {
+        return query;
+    }
+}
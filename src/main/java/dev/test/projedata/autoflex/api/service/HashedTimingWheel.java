@@ -0,0 +1,136 @@
+package dev.test.projedata.autoflex.api.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Fires timeouts from a ring of buckets, one per tick. Scheduling and cancelling are O(1) and each tick
+ * only visits the bucket whose turn it is, so the cost of a tick does not depend on how many timeouts
+ * are pending. A timeout more than one revolution away waits in its bucket until the wheel comes round
+ * to its deadline. Deadlines count from the time the timeout is scheduled, measured from the wheel's
+ * start, and are rounded up to the tick, so a timeout never fires early.
+ * <p>
+ * A single worker thread owns the buckets; other threads hand new timeouts over through a queue, and
+ * cancelled ones are dropped the next time their bucket is visited.
+ */
+final class HashedTimingWheel implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(HashedTimingWheel.class);
+
+    private final long tickNanos;
+    private final LongSupplier nanoTime;
+    private final long startNanos;
+    private final int mask;
+    private final List<LinkedList<Timeout>> buckets;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+    private volatile long tick;
+    private volatile boolean stopped;
+
+    HashedTimingWheel(String name, long tickMillis, int wheelSize) {
+        this(name, tickMillis, wheelSize, System::nanoTime);
+    }
+
+    HashedTimingWheel(String name, long tickMillis, int wheelSize, LongSupplier nanoTime) {
+        if (tickMillis <= 0) throw new IllegalArgumentException("tickMillis must be positive");
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) throw new IllegalArgumentException("wheelSize must be a power of two");
+
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.nanoTime = nanoTime;
+        this.startNanos = nanoTime.getAsLong();
+        this.mask = wheelSize - 1;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) buckets.add(new LinkedList<>());
+        this.worker = Thread.ofPlatform().name(name).daemon().unstarted(this::run);
+    }
+
+    HashedTimingWheel start() {
+        worker.start();
+        return this;
+    }
+
+    // Tick n runs no earlier than n ticks after the start, so the deadline is the first tick at or after
+    // the due time. Counting from the last processed tick instead would fire up to a tick early.
+    Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        long due = nanoTime.getAsLong() - startNanos + unit.toNanos(delay);
+        long deadline = Math.max(tick + 1, (due + tickNanos - 1) / tickNanos);
+        Timeout timeout = new Timeout(deadline, task);
+        pending.add(timeout);
+        return timeout;
+    }
+
+    // Advances the wheel by one tick and runs what became due. Only the worker calls it outside tests.
+    int advance() {
+        long current = tick + 1;
+        tick = current;
+
+        for (Timeout timeout; (timeout = pending.poll()) != null; ) {
+            if (timeout.cancelled) continue;
+            // Scheduled against a tick that already passed: due now.
+            buckets.get((int) (Math.max(timeout.deadline, current) & mask)).add(timeout);
+        }
+
+        int expired = 0;
+        Iterator<Timeout> it = buckets.get((int) (current & mask)).iterator();
+        while (it.hasNext()) {
+            Timeout timeout = it.next();
+            if (timeout.cancelled) {
+                it.remove();
+                continue;
+            }
+            if (timeout.deadline > current) continue;
+
+            it.remove();
+            expired++;
+            try {
+                timeout.task.run();
+            } catch (RuntimeException e) {
+                log.error("Timeout task failed", e);
+            }
+        }
+        return expired;
+    }
+
+    @Override
+    public void close() {
+        stopped = true;
+        LockSupport.unpark(worker);
+    }
+
+    private void run() {
+        while (!stopped) {
+            long wait = startNanos + (tick + 1) * tickNanos - nanoTime.getAsLong();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+                continue;
+            }
+            advance();
+        }
+    }
+
+    static final class Timeout {
+
+        private final long deadline;
+        private final Runnable task;
+        private volatile boolean cancelled;
+
+        private Timeout(long deadline, Runnable task) {
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+    }
+}
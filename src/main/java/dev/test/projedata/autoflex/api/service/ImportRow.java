@@ -0,0 +1,24 @@
+package dev.test.projedata.autoflex.api.service;
+
+/**
+ * One row of a bulk import: its 1-based position in the input and either the parsed value or the
+ * reason it was rejected.
+ */
+record ImportRow<T>(int number, T value, String error) {
+
+    static <T> ImportRow<T> of(int number, T value) {
+        return new ImportRow<>(number, value, null);
+    }
+
+    static <T> ImportRow<T> rejected(int number, String error) {
+        return new ImportRow<>(number, null, error);
+    }
+
+    ImportRow<T> reject(String error) {
+        return new ImportRow<>(number, value, error);
+    }
+
+    boolean isValid() {
+        return error == null;
+    }
+}
@@ -0,0 +1,161 @@
+package dev.test.projedata.autoflex.api.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads bulk import rows one at a time from a JSON array or from CSV with a header line, so the input
+ * is never held in memory as a whole. A row that cannot be mapped to {@code T} comes back rejected and
+ * reading goes on; only a broken document (an {@link IOException}) ends the read.
+ */
+abstract class ImportRowReader<T> implements Closeable {
+
+    protected final ObjectMapper objectMapper;
+    protected final Class<T> rowType;
+    protected int rows;
+
+    private ImportRowReader(ObjectMapper objectMapper, Class<T> rowType) {
+        this.objectMapper = objectMapper;
+        this.rowType = rowType;
+    }
+
+    static <T> ImportRowReader<T> open(InputStream input, MediaType contentType, ObjectMapper objectMapper, Class<T> rowType) throws IOException {
+        return MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                ? new Json<>(input, objectMapper, rowType)
+                : new Csv<>(input, objectMapper, rowType);
+    }
+
+    /**
+     * @return the next row, or {@code null} once the input is exhausted
+     */
+    abstract ImportRow<T> next() throws IOException;
+
+    private static final class Json<T> extends ImportRowReader<T> {
+
+        private final JsonParser parser;
+
+        private Json(InputStream input, ObjectMapper objectMapper, Class<T> rowType) throws IOException {
+            super(objectMapper, rowType);
+            this.parser = objectMapper.getFactory().createParser(input);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected a JSON array of rows");
+            }
+        }
+
+        @Override
+        ImportRow<T> next() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) return null;
+
+            // The row is read as a tree first, so a value that does not fit the row type leaves the
+            // parser positioned at the next row instead of in the middle of this one.
+            JsonNode node = objectMapper.readTree(parser);
+            int number = ++rows;
+            try {
+                return ImportRow.of(number, objectMapper.treeToValue(node, rowType));
+            } catch (JsonProcessingException e) {
+                return ImportRow.rejected(number, e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+
+    private static final class Csv<T> extends ImportRowReader<T> {
+
+        private final BufferedReader reader;
+        private final List<String> header;
+
+        private Csv(InputStream input, ObjectMapper objectMapper, Class<T> rowType) throws IOException {
+            super(objectMapper, rowType);
+            this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+            String line = reader.readLine();
+            if (line == null) throw new IOException("Expected a CSV header line");
+            if (line.startsWith("\uFEFF")) line = line.substring(1);
+            this.header = split(line.strip());
+        }
+
+        @Override
+        ImportRow<T> next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) return null;
+            } while (line.isBlank());
+
+            int number = ++rows;
+            List<String> fields = split(line);
+            if (fields.size() != header.size()) {
+                return ImportRow.rejected(number, "Expected " + header.size() + " columns but found " + fields.size());
+            }
+
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                String value = fields.get(i).strip();
+                values.put(header.get(i).strip(), value.isEmpty() ? null : value);
+            }
+
+            try {
+                return ImportRow.of(number, objectMapper.convertValue(values, rowType));
+            } catch (IllegalArgumentException e) {
+                return ImportRow.rejected(number, e.getCause() instanceof JsonProcessingException cause ? cause.getOriginalMessage() : e.getMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        // RFC 4180 quoting within a single line: "a, b" is one field and "" inside quotes is a literal quote.
+        static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package dev.test.projedata.autoflex.api.service;
+
+import dev.test.projedata.autoflex.api.exceptions.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a page in {@code (name, id)} order, exchanged with clients as an
+ * opaque URL-safe token. The next page is everything strictly after it, so no rows are skipped
+ * or counted.
+ */
+public record KeysetCursor(String name, Long id) {
+
+    public static final int DEFAULT_SIZE = 10;
+
+    public String encode() {
+        String raw = id + ":" + name;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+
+            return new KeysetCursor(raw.substring(separator + 1), Long.valueOf(raw.substring(0, separator)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidCursorException("Malformed cursor: " + token);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package dev.test.projedata.autoflex.api.service;
+
+import dev.test.projedata.autoflex.api.dtos.response.MaterialRequirementResponse;
+import dev.test.projedata.autoflex.api.exceptions.ResourceNotFoundException;
+import dev.test.projedata.autoflex.api.repository.MaterialRequirementRow;
+import dev.test.projedata.autoflex.api.repository.ProductComponentRepository;
+import dev.test.projedata.autoflex.api.repository.ProductComponentRow;
+import dev.test.projedata.autoflex.api.repository.ProductRepository;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Material requirements planning for a batch of product demand: the sparse product x raw material
+ * matrix is multiplied by the demand vector while its rows are streamed from the database, so memory
+ * grows with the number of distinct products and materials, never with the number of matrix entries
+ * held at once. Demand for sub-assemblies is first pushed down the bill of materials in topological
+ * order, so each component row is read once no matter how many products share it; only the rows
+ * reachable from the demanded products are fetched.
+ */
+@Component
+public class MaterialRequirementsCalculator {
+
+    static final int QUERY_BATCH_SIZE = 1_000;
+
+    private final ProductRepository productRepository;
+    private final ProductComponentRepository productComponentRepository;
+
+    public MaterialRequirementsCalculator(ProductRepository productRepository, ProductComponentRepository productComponentRepository) {
+        this.productRepository = productRepository;
+        this.productComponentRepository = productComponentRepository;
+    }
+
+    public List<MaterialRequirementResponse> calculate(Map<Long, BigDecimal> demand) {
+        Map<Long, BigDecimal> totalDemand = propagate(demand);
+
+        Set<Long> found = new HashSet<>();
+        Map<Long, Requirement> requirements = new TreeMap<>();
+        List<Long> productIds = new ArrayList<>(totalDemand.keySet());
+        for (int from = 0; from < productIds.size(); from += QUERY_BATCH_SIZE) {
+            List<Long> batch = productIds.subList(from, Math.min(from + QUERY_BATCH_SIZE, productIds.size()));
+
+            for (MaterialRequirementRow row : productRepository.findMaterialRequirementRows(batch)) {
+                found.add(row.productId());
+                if (row.rawMaterialId() == null) continue;
+
+                requirements.computeIfAbsent(row.rawMaterialId(), id -> new Requirement(row.rawMaterialName(), row.stockQuantity()))
+                        .add(totalDemand.get(row.productId()).multiply(row.quantityRequired()));
+            }
+        }
+
+        demand.keySet().stream()
+                .filter(id -> !found.contains(id))
+                .findFirst()
+                .ifPresent(id -> {
+                    throw new ResourceNotFoundException("Product not found. Id: " + id);
+                });
+
+        return requirements.entrySet().stream()
+                .map(e -> e.getValue().toResponse(e.getKey()))
+                .toList();
+    }
+
+    // Kahn's algorithm over the part of the bill of materials reachable from the demanded products. The
+    // component rows are read one level at a time, in batches, starting from the demanded ids.
+    private Map<Long, BigDecimal> propagate(Map<Long, BigDecimal> demand) {
+        Map<Long, List<ProductComponentRow>> components = new HashMap<>();
+        Map<Long, Integer> parents = new HashMap<>();
+        Set<Long> reachable = new HashSet<>(demand.keySet());
+        List<Long> level = new ArrayList<>(demand.keySet());
+        while (!level.isEmpty()) {
+            List<Long> next = new ArrayList<>();
+            for (int from = 0; from < level.size(); from += QUERY_BATCH_SIZE) {
+                List<Long> batch = level.subList(from, Math.min(from + QUERY_BATCH_SIZE, level.size()));
+
+                for (ProductComponentRow row : productComponentRepository.findRowsByProductIdIn(batch)) {
+                    components.computeIfAbsent(row.productId(), id -> new ArrayList<>()).add(row);
+                    parents.merge(row.componentId(), 1, Integer::sum);
+                    if (reachable.add(row.componentId())) next.add(row.componentId());
+                }
+            }
+            level = next;
+        }
+        if (components.isEmpty()) return demand;
+
+        Map<Long, BigDecimal> total = new HashMap<>(demand);
+        Deque<Long> pending = new ArrayDeque<>();
+        reachable.stream().filter(id -> !parents.containsKey(id)).forEach(pending::push);
+        while (!pending.isEmpty()) {
+            Long productId = pending.pop();
+            BigDecimal quantity = total.get(productId);
+
+            for (ProductComponentRow row : components.getOrDefault(productId, List.of())) {
+                total.merge(row.componentId(), quantity.multiply(row.quantityRequired()), BigDecimal::add);
+                if (parents.merge(row.componentId(), -1, Integer::sum) == 0) pending.push(row.componentId());
+            }
+        }
+
+        return total;
+    }
+
+    private static final class Requirement {
+
+        private final String name;
+        private final BigDecimal stock;
+        private BigDecimal required = BigDecimal.ZERO;
+
+        private Requirement(String name, BigDecimal stock) {
+            this.name = name;
+            this.stock = stock;
+        }
+
+        private void add(BigDecimal quantity) {
+            required = required.add(quantity);
+        }
+
+        private MaterialRequirementResponse toResponse(Long rawMaterialId) {
+            return new MaterialRequirementResponse(rawMaterialId, name, required, stock, required.subtract(stock).max(BigDecimal.ZERO));
+        }
+    }
+}
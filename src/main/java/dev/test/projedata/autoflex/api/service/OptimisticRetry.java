@@ -0,0 +1,64 @@
+package dev.test.projedata.autoflex.api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs an action in a transaction of its own and, when it loses an optimistic locking race, runs it
+ * again against fresh state, with a short randomized backoff between attempts. For internal callers
+ * that have no client to hand a 412 to, and for unconditional updates: a request without
+ * {@code If-Match} asked for its values to be applied, so losing a race to another writer is retried
+ * rather than reported. The action must re-read what it changes on every attempt.
+ */
+@Component
+public class OptimisticRetry {
+
+    private final TransactionTemplate transaction;
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    public OptimisticRetry(PlatformTransactionManager transactionManager,
+                           @Value("${autoflex.optimistic-retry.max-attempts:3}") int maxAttempts,
+                           @Value("${autoflex.optimistic-retry.backoff-ms:20}") long backoffMillis) {
+        this.transaction = new TransactionTemplate(transactionManager);
+        // A failed attempt leaves its transaction rollback-only, so each one needs a new transaction.
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+    }
+
+    public <T> T execute(Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transaction.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) throw e;
+                backOff(attempt);
+            }
+        }
+    }
+
+    // A client that sent If-Match gets exactly one attempt, so a conflict reaches it as 412.
+    public <T> T execute(Long expectedVersion, Supplier<T> action) {
+        if (expectedVersion != null) return transaction.execute(status -> action.get());
+        return execute(action);
+    }
+
+    private void backOff(int attempt) {
+        if (backoffMillis <= 0) return;
+
+        try {
+            Thread.sleep(backoffMillis * attempt + ThreadLocalRandom.current().nextLong(backoffMillis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+}
@@ -1,31 +1,62 @@
 package dev.test.projedata.autoflex.api.service;
 
 import dev.test.projedata.autoflex.api.domain.Product;
+import dev.test.projedata.autoflex.api.domain.ProductComponent;
 import dev.test.projedata.autoflex.api.domain.ProductMaterial;
 import dev.test.projedata.autoflex.api.domain.RawMaterial;
+import dev.test.projedata.autoflex.api.dtos.request.AvailableProductionRequest;
+import dev.test.projedata.autoflex.api.dtos.request.CursorPageRequest;
+import dev.test.projedata.autoflex.api.dtos.request.MaterialRequirementsRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductComponentRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductDemandRequest;
 import dev.test.projedata.autoflex.api.dtos.request.ProductMaterialRequest;
 import dev.test.projedata.autoflex.api.dtos.request.ProductMaterialUpdateRequest;
 import dev.test.projedata.autoflex.api.dtos.request.ProductRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductionOrderRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductionPlanRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductionSimulationRequest;
+import dev.test.projedata.autoflex.api.dtos.request.StockDeltaRequest;
+import dev.test.projedata.autoflex.api.dtos.response.CursorPageResponse;
+import dev.test.projedata.autoflex.api.dtos.response.MaterialConsumptionResponse;
+import dev.test.projedata.autoflex.api.dtos.response.MaterialRequirementResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductComponentResponse;
 import dev.test.projedata.autoflex.api.dtos.response.ProductMaterialResponse;
 import dev.test.projedata.autoflex.api.dtos.response.ProductProductionResponse;
 import dev.test.projedata.autoflex.api.dtos.response.ProductResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductSimulationResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductionOrderResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductionPlanResponse;
 import dev.test.projedata.autoflex.api.exceptions.DatabaseException;
+import dev.test.projedata.autoflex.api.exceptions.InsufficientStockException;
 import dev.test.projedata.autoflex.api.exceptions.ResourceNotFoundException;
+import dev.test.projedata.autoflex.api.mapper.ProductComponentMapper;
 import dev.test.projedata.autoflex.api.mapper.ProductMapper;
 import dev.test.projedata.autoflex.api.mapper.ProductMaterialMapper;
+import dev.test.projedata.autoflex.api.repository.ProductComponentRepository;
 import dev.test.projedata.autoflex.api.repository.ProductMaterialRepository;
 import dev.test.projedata.autoflex.api.repository.ProductRepository;
 import dev.test.projedata.autoflex.api.repository.RawMaterialRepository;
+import dev.test.projedata.autoflex.api.repository.RawMaterialStockRow;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
@@ -35,52 +66,133 @@ public class ProductService {
     private final RawMaterialRepository rawMaterialRepository;
     private final ProductMaterialRepository productMaterialRepository;
     private final ProductMaterialMapper productMaterialMapper;
+    private final ProductComponentRepository productComponentRepository;
+    private final ProductComponentMapper productComponentMapper;
+    private final ProductionCapacityEngine productionCapacityEngine;
+    private final ProductionPlanner productionPlanner;
+    private final MaterialRequirementsCalculator materialRequirementsCalculator;
+    private final CatalogResponseCache catalogResponseCache;
+    private final CatalogVersion catalogVersion;
+    private final StockReservationService stockReservationService;
+    private final OptimisticRetry optimisticRetry;
+    private final TransactionTemplate readOnlyTransaction;
 
-    public ProductService(ProductRepository productRepository, ProductMapper productMapper, RawMaterialRepository rawMaterialRepository, ProductMaterialRepository productMaterialRepository, ProductMaterialMapper productMaterialMapper) {
+    public ProductService(ProductRepository productRepository, ProductMapper productMapper, RawMaterialRepository rawMaterialRepository, ProductMaterialRepository productMaterialRepository, ProductMaterialMapper productMaterialMapper, ProductComponentRepository productComponentRepository, ProductComponentMapper productComponentMapper, ProductionCapacityEngine productionCapacityEngine, ProductionPlanner productionPlanner, MaterialRequirementsCalculator materialRequirementsCalculator, CatalogResponseCache catalogResponseCache, CatalogVersion catalogVersion, StockReservationService stockReservationService, OptimisticRetry optimisticRetry, PlatformTransactionManager transactionManager) {
         this.productRepository = productRepository;
         this.productMapper = productMapper;
         this.rawMaterialRepository = rawMaterialRepository;
         this.productMaterialRepository = productMaterialRepository;
         this.productMaterialMapper = productMaterialMapper;
+        this.productComponentRepository = productComponentRepository;
+        this.productComponentMapper = productComponentMapper;
+        this.productionCapacityEngine = productionCapacityEngine;
+        this.productionPlanner = productionPlanner;
+        this.materialRequirementsCalculator = materialRequirementsCalculator;
+        this.catalogResponseCache = catalogResponseCache;
+        this.catalogVersion = catalogVersion;
+        this.stockReservationService = stockReservationService;
+        this.optimisticRetry = optimisticRetry;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
     @Transactional
     public ProductResponse insert(ProductRequest request) {
-        Product product = productMapper.toEntity(request);
+        Product product = productRepository.save(productMapper.toEntity(request));
+        productionCapacityEngine.productAdded(product.getId(), product.getName());
+        catalogVersion.changed();
 
-        return productMapper.toResponse(productRepository.save(product));
+        return productMapper.toResponse(product);
     }
 
+    // Two-phase fetch: the page of ids first, then materials and components for exactly those ids,
+    // so the number of queries per page is constant instead of growing with its contents.
+    @Transactional(readOnly = true)
     public Page<ProductResponse> findAll(Pageable pageable) {
-        return productRepository.findAll(pageable)
-                .map(productMapper::toResponse);
+        Page<Long> ids = productRepository.findPageIds(pageable);
+
+        return new PageImpl<>(toResponses(ids.getContent()), pageable, ids.getTotalElements());
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ProductResponse> findAllByCursor(CursorPageRequest request) {
+        int size = request.size() != null ? request.size() : KeysetCursor.DEFAULT_SIZE;
+        Limit limit = Limit.of(size + 1);
+
+        List<Long> ids;
+        if (request.after() == null) {
+            ids = productRepository.findKeysetIds(limit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(request.after());
+            ids = productRepository.findKeysetIdsAfter(after.name(), after.id(), limit);
+        }
+
+        boolean hasNext = ids.size() > size;
+        List<ProductResponse> content = toResponses(hasNext ? ids.subList(0, size) : ids);
+        // If the whole page was deleted meanwhile, the client resumes from where this page started.
+        String nextCursor = !hasNext ? null
+                : content.isEmpty() ? request.after()
+                : new KeysetCursor(content.getLast().name(), content.getLast().id()).encode();
+
+        return new CursorPageResponse<>(content, hasNext, nextCursor);
+    }
+
+    // A product deleted between the id query and the fetch is left out of the page.
+    private List<ProductResponse> toResponses(List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+
+        Map<Long, Product> products = productRepository.findAllWithMaterialsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        productRepository.findAllWithComponentsByIdIn(ids);
+
+        return ids.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .map(productMapper::toResponse)
+                .toList();
     }
 
+    // A miss builds the response in a read-only transaction of its own, so a hit never takes a connection.
     public ProductResponse findById(Long id) {
-        return productRepository.findById(id)
+        return catalogResponseCache.product(id, key -> readOnlyTransaction.execute(status -> productRepository.findById(key)
                 .map(productMapper::toResponse)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found. Id: " + id));
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found. Id: " + key))));
     }
 
-    @Transactional
-    public ProductResponse update(Long id, ProductRequest request) {
-        try {
-            Product existingProd = productRepository.getReferenceById(id);
+    // Runs in a transaction of its own, retried on a lost version race unless the client sent If-Match.
+    public ProductResponse update(Long id, ProductRequest request, Long expectedVersion) {
+        return optimisticRetry.execute(expectedVersion, () -> {
+            try {
+                Product existingProd = productRepository.getReferenceById(id);
+                EntityVersions.check(expectedVersion, existingProd.getVersion(), "Product " + id);
 
-            if (request.name() != null) existingProd.setName(request.name());
-            if (request.price() != null) existingProd.setPrice(request.price());
+                if (request.name() != null) {
+                    existingProd.setName(request.name());
+                    productionCapacityEngine.productRenamed(id, request.name());
+                    catalogResponseCache.productRenamed(id);
+                }
+                if (request.price() != null) existingProd.setPrice(request.price());
+                catalogResponseCache.productChanged(id);
+                catalogVersion.changed();
+                // Flushing here makes the response carry the incremented version.
+                productRepository.flush();
 
-            return productMapper.toResponse(existingProd);
-        } catch (EntityNotFoundException e) {
-            throw new ResourceNotFoundException("Product not found. Id: " + id);
-        }
+                return productMapper.toResponse(existingProd);
+            } catch (EntityNotFoundException e) {
+                throw new ResourceNotFoundException("Product not found. Id: " + id);
+            }
+        });
     }
 
     @Transactional
     public void delete(Long id) {
         if (!productRepository.existsById(id)) throw new ResourceNotFoundException("Product not found. Id: " + id);
+        if (productComponentRepository.existsByComponentId(id)) throw new DatabaseException("Product is used as a component of another product");
 
         productRepository.deleteById(id);
+        productionCapacityEngine.productRemoved(id);
+        catalogResponseCache.productChanged(id);
+        catalogVersion.changed();
     }
 
     @Transactional
@@ -99,15 +211,27 @@ public class ProductService {
         productMaterial.setRawMaterial(rawMaterial);
         productMaterial.setQuantityRequired(request.quantityRequired());
 
-        return productMaterialMapper.toResponse(productMaterialRepository.save(productMaterial));
+        ProductMaterialResponse response = productMaterialMapper.toResponse(productMaterialRepository.save(productMaterial));
+        productionCapacityEngine.materialLinked(productId, product.getName(), rawMaterial.getId(), rawMaterial.getStockQuantity(), rawMaterial.getVersion(), request.quantityRequired());
+        catalogResponseCache.productChanged(productId);
+        catalogVersion.changed();
+
+        return response;
     }
 
-    @Transactional
-    public ProductMaterialResponse updateQuantityMaterial(Long productId, Long rawMaterialId, ProductMaterialUpdateRequest request) {
-        ProductMaterial productMaterial = productMaterialRepository.findByProductIdAndRawMaterialId(productId, rawMaterialId).orElseThrow(() -> new ResourceNotFoundException("ProductMaterial not found"));
-        productMaterial.setQuantityRequired(request.quantityRequired());
+    public ProductMaterialResponse updateQuantityMaterial(Long productId, Long rawMaterialId, ProductMaterialUpdateRequest request, Long expectedVersion) {
+        return optimisticRetry.execute(expectedVersion, () -> {
+            ProductMaterial productMaterial = productMaterialRepository.findByProductIdAndRawMaterialId(productId, rawMaterialId).orElseThrow(() -> new ResourceNotFoundException("ProductMaterial not found"));
+            EntityVersions.check(expectedVersion, productMaterial.getVersion(), "ProductMaterial " + productMaterial.getId());
+
+            productMaterial.setQuantityRequired(request.quantityRequired());
+            productMaterialRepository.flush();
+            productionCapacityEngine.requirementChanged(productId, rawMaterialId, request.quantityRequired());
+            catalogResponseCache.productChanged(productId);
+            catalogVersion.changed();
 
-        return productMaterialMapper.toResponse(productMaterial);
+            return productMaterialMapper.toResponse(productMaterial);
+        });
     }
 
     @Transactional
@@ -115,25 +239,150 @@ public class ProductService {
         ProductMaterial productMaterial = productMaterialRepository.findByProductIdAndRawMaterialId(productId, rawMaterialId).orElseThrow(() -> new ResourceNotFoundException("ProductMaterial not found"));
 
         productMaterialRepository.delete(productMaterial);
+        productionCapacityEngine.materialUnlinked(productId, rawMaterialId);
+        catalogResponseCache.productChanged(productId);
+        catalogVersion.changed();
+    }
+
+    // The cycle check reads the committed graph, so two links that only close a cycle together (A -> B and
+    // B -> A) must not both pass it: links are serialized by a database lock held until the transaction
+    // ends, so each check sees every link committed before it, whichever instance made it.
+    @Transactional
+    public ProductComponentResponse addComponent(Long productId, ProductComponentRequest request) {
+        productComponentRepository.lockBillOfMaterials();
+
+        Optional<ProductComponent> existing = productComponentRepository.findByProductIdAndComponentId(productId, request.componentProductId());
+
+        if (existing.isPresent()) {
+            throw new DatabaseException("Component already associated with this product");
+        }
+
+        Product product = productRepository.findById(productId).orElseThrow(() -> new ResourceNotFoundException("Product not found. Id: " + productId));
+        Product component = productRepository.findById(request.componentProductId()).orElseThrow(() -> new ResourceNotFoundException("Product not found. Id: " + request.componentProductId()));
+
+        if (ComponentGraph.of(productComponentRepository.findAllRows()).createsCycle(productId, component.getId())) {
+            throw new DatabaseException("Cannot add component: it would create a cycle in the bill of materials");
+        }
+
+        ProductComponent productComponent = new ProductComponent();
+        productComponent.setProduct(product);
+        productComponent.setComponent(component);
+        productComponent.setQuantityRequired(request.quantityRequired());
+
+        ProductComponentResponse response = productComponentMapper.toResponse(productComponentRepository.save(productComponent));
+        productionCapacityEngine.componentLinked(productId, product.getName(), component.getId(), request.quantityRequired());
+        catalogResponseCache.productChanged(productId);
+        catalogVersion.changed();
+
+        return response;
+    }
+
+    public ProductComponentResponse updateQuantityComponent(Long productId, Long componentId, ProductMaterialUpdateRequest request, Long expectedVersion) {
+        return optimisticRetry.execute(expectedVersion, () -> {
+            ProductComponent productComponent = productComponentRepository.findByProductIdAndComponentId(productId, componentId).orElseThrow(() -> new ResourceNotFoundException("ProductComponent not found"));
+            EntityVersions.check(expectedVersion, productComponent.getVersion(), "ProductComponent " + productComponent.getId());
+
+            productComponent.setQuantityRequired(request.quantityRequired());
+            productComponentRepository.flush();
+            productionCapacityEngine.componentRequirementChanged(productId, componentId, request.quantityRequired());
+            catalogResponseCache.productChanged(productId);
+            catalogVersion.changed();
+
+            return productComponentMapper.toResponse(productComponent);
+        });
+    }
+
+    @Transactional
+    public void deleteComponent(Long productId, Long componentId) {
+        ProductComponent productComponent = productComponentRepository.findByProductIdAndComponentId(productId, componentId).orElseThrow(() -> new ResourceNotFoundException("ProductComponent not found"));
+
+        productComponentRepository.delete(productComponent);
+        productionCapacityEngine.componentUnlinked(productId, componentId);
+        catalogResponseCache.productChanged(productId);
+        catalogVersion.changed();
+    }
+
+    // Like streamAvailableProduction, only the aggregate query path borrows a connection; engine reads
+    // are served from memory. Details always come from the engine, whatever the engine flag says.
+    public List<ProductProductionResponse> getAvailableProduction(AvailableProductionRequest request) {
+        if (Boolean.TRUE.equals(request.detailed())) return productionCapacityEngine.getAvailableProductionDetails(request);
+        if (productionCapacityEngine.isEnabled()) return productionCapacityEngine.getAvailableProduction(request);
+
+        return readOnlyTransaction.execute(status -> productionCapacityEngine.getAvailableProduction(request));
     }
 
-    public List<ProductProductionResponse> getAvailableProduction() {
-        List<Product> products = productRepository.findAllWithMaterials();
+    // Only the aggregate query path needs a transaction (to keep its cursor open); the engine path must
+    // not pin a connection for as long as the client takes to read the stream.
+    public void streamAvailableProduction(Consumer<ProductProductionResponse> action) {
+        if (productionCapacityEngine.isEnabled()) {
+            productionCapacityEngine.forEachAvailableProduction(action);
+            return;
+        }
 
-        return products.stream()
-                .map((product -> {
-                    int maxPossible = product.getProductMaterials().stream()
-                            .mapToInt(pm -> {
-                                BigDecimal stockAvailable = pm.getRawMaterial().getStockQuantity();
-                                BigDecimal requiredPerUnit = pm.getQuantityRequired();
+        readOnlyTransaction.executeWithoutResult(status -> productionCapacityEngine.forEachAvailableProduction(action));
+    }
 
-                                return stockAvailable.divide(requiredPerUnit, 0, RoundingMode.FLOOR).intValue();
-                            })
-                            .min()
-                            .orElse(0);
+    // Simulations only read the engine snapshot, even with the engine flag off, so no transaction is
+    // opened for them.
+    public List<ProductSimulationResponse> simulateAvailableProduction(ProductionSimulationRequest request) {
+        Map<Long, BigDecimal> stockDeltas = request.stockDeltas().stream()
+                .collect(Collectors.toMap(StockDeltaRequest::rawMaterialId, StockDeltaRequest::quantityDelta, BigDecimal::add));
 
-                    return new ProductProductionResponse(product.getId(), product.getName(), maxPossible);
-                }))
+        return productionCapacityEngine.simulate(stockDeltas);
+    }
+
+    // The deadline counts from the request, so loading the catalog spends part of the budget. The catalog
+    // is loaded in a short read-only transaction; the search itself runs for up to the deadline and must
+    // not hold a connection meanwhile.
+    public ProductionPlanResponse getProductionPlan(ProductionPlanRequest request) {
+        long deadline = productionPlanner.deadline(request != null ? request.deadlineMillis() : null);
+
+        List<Product> products = readOnlyTransaction.execute(status -> {
+            List<Product> catalog = productRepository.findAllWithMaterials();
+            // Initializes the components of the same managed instances, avoiding one lazy load per product.
+            productRepository.findAllWithComponents();
+            return catalog;
+        });
+
+        return productionPlanner.planUntil(products, deadline);
+    }
+
+    @Transactional(readOnly = true)
+    public List<MaterialRequirementResponse> getMaterialRequirements(MaterialRequirementsRequest request) {
+        Map<Long, BigDecimal> demand = request.demand().stream()
+                .collect(Collectors.toMap(ProductDemandRequest::productId, d -> BigDecimal.valueOf(d.quantity()), BigDecimal::add));
+
+        return materialRequirementsCalculator.calculate(demand);
+    }
+
+    // The whole bill of materials, sub-assemblies included, is consumed with one conditional UPDATE per
+    // raw material, batched in ascending id order: concurrent orders lock rows in the same order and cannot
+    // deadlock, and an order that would overdraw any material rolls back without touching the others.
+    // Stock on hold counts as taken: the order may only consume what is left after the reservations.
+    @Transactional
+    public ProductionOrderResponse produce(Long productId, ProductionOrderRequest request) {
+        List<MaterialRequirementResponse> requirements = materialRequirementsCalculator.calculate(Map.of(productId, BigDecimal.valueOf(request.quantity())));
+
+        SortedMap<Long, BigDecimal> deltas = requirements.stream()
+                .collect(Collectors.toMap(MaterialRequirementResponse::rawMaterialId, r -> r.quantityRequired().negate(), BigDecimal::add, TreeMap::new));
+        if (deltas.isEmpty()) return new ProductionOrderResponse(productId, request.quantity(), List.of());
+
+        List<Long> refused = stockReservationService.consume(deltas.keySet(), reserved -> rawMaterialRepository.adjustStocks(deltas, reserved));
+        if (!refused.isEmpty()) {
+            throw new InsufficientStockException("Not enough stock to produce " + request.quantity() + " units of Product " + productId + ". RawMaterial ids: " + refused);
+        }
+        // Read back while the row locks are held: the committed values, versioned for the engine.
+        List<RawMaterialStockRow> stockRows = rawMaterialRepository.findStockRows(deltas.keySet());
+        stockRows.forEach(row -> productionCapacityEngine.stockChanged(row.id(), row.stockQuantity(), row.version()));
+        deltas.keySet().forEach(catalogResponseCache::rawMaterialChanged);
+        catalogVersion.changed();
+
+        Map<Long, BigDecimal> stocks = stockRows.stream()
+                .collect(Collectors.toMap(RawMaterialStockRow::id, RawMaterialStockRow::stockQuantity));
+        List<MaterialConsumptionResponse> consumed = requirements.stream()
+                .map(r -> new MaterialConsumptionResponse(r.rawMaterialId(), r.rawMaterialName(), r.quantityRequired(), stocks.get(r.rawMaterialId())))
                 .toList();
+
+        return new ProductionOrderResponse(productId, request.quantity(), consumed);
     }
 }
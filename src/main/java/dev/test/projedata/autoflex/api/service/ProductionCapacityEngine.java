@@ -0,0 +1,562 @@
+package dev.test.projedata.autoflex.api.service;
+
+import dev.test.projedata.autoflex.api.dtos.request.AvailableProductionRequest;
+import dev.test.projedata.autoflex.api.dtos.response.MaterialBalanceResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductProductionResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductSimulationResponse;
+import dev.test.projedata.autoflex.api.repository.ProductCapacityView;
+import dev.test.projedata.autoflex.api.repository.ProductComponentRepository;
+import dev.test.projedata.autoflex.api.repository.ProductComponentRow;
+import dev.test.projedata.autoflex.api.repository.ProductMaterialRow;
+import dev.test.projedata.autoflex.api.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the maximum producible quantity of every product materialized in memory.
+ * <p>
+ * The catalog is loaded once on the first read. After that, write operations only notify the
+ * engine of what changed and the reverse index (raw material -> products) limits the recomputation
+ * to the products that actually consume the changed material. Notifications are applied after the
+ * surrounding transaction commits, so a rollback never leaks into the materialized values.
+ * <p>
+ * Products may use other products as components. Each product's bill of materials is exploded into
+ * raw material requirements once and memoized; a structural change only re-explodes the changed
+ * product and its ancestors, children before parents.
+ * <p>
+ * What-if simulations run against an immutable {@link Snapshot} of the materialized state. The
+ * snapshot is rebuilt lazily by the first simulation after a change and then shared by every
+ * concurrent simulation, each one overlaying its own stock deltas without touching the engine.
+ * <p>
+ * With {@code autoflex.capacity.engine.enabled=false} the plain capacity reads (list and stream) are
+ * answered by a single aggregate query, letting the database do the arithmetic. The flag covers only
+ * those reads: detailed reads and simulations need every product's exploded requirements, which the
+ * query does not return, so they still load the engine on first use and keep it in memory.
+ * <p>
+ * Active stock reservations are subtracted from each material's stock before any capacity is derived.
+ * They live only in memory, so while any is held the aggregate query is bypassed in favour of the engine.
+ */
+@Component
+public class ProductionCapacityEngine {
+
+    private final ProductRepository productRepository;
+    private final ProductComponentRepository productComponentRepository;
+    private final CapacityEvaluator capacityEvaluator;
+    private final boolean enabled;
+    private final TransactionTemplate loadTransaction;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, ProductNode> products = new LinkedHashMap<>();
+    private final Map<Long, BigDecimal> stocks = new HashMap<>();
+    private final Map<Long, Long> stockVersions = new HashMap<>();
+    private final Map<Long, Set<Long>> consumers = new HashMap<>();
+    private final Map<Long, Map<Long, BigDecimal>> exploded = new HashMap<>();
+    private final Map<Long, BigDecimal> reserved = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    private volatile long version;
+    private volatile Snapshot snapshot;
+
+    public ProductionCapacityEngine(ProductRepository productRepository, ProductComponentRepository productComponentRepository,
+                                    CapacityEvaluator capacityEvaluator, PlatformTransactionManager transactionManager,
+                                    @Value("${autoflex.capacity.engine.enabled:true}") boolean enabled) {
+        this.productRepository = productRepository;
+        this.productComponentRepository = productComponentRepository;
+        this.capacityEvaluator = capacityEvaluator;
+        this.enabled = enabled;
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        this.loadTransaction.setReadOnly(true);
+        this.loadTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<ProductProductionResponse> getAvailableProduction() {
+        return getAvailableProduction(new AvailableProductionRequest(null, null, null, null, null));
+    }
+
+    public List<ProductProductionResponse> getAvailableProduction(AvailableProductionRequest request) {
+        // The aggregate query is read through a cursor so only the selected rows are kept; the caller
+        // holds the transaction open while it is consumed.
+        if (!enabled && reserved.isEmpty()) {
+            try (Stream<ProductCapacityView> rows = productRepository.streamAvailableProduction()) {
+                return CapacitySelection.select(rows::iterator, ProductCapacityView::getProductId, ProductCapacityView::getMaxProductProduction, request).stream()
+                        .map(ProductionCapacityEngine::toResponse)
+                        .toList();
+            }
+        }
+
+        ensureLoaded();
+
+        lock.readLock().lock();
+        try {
+            return CapacitySelection.select(products.values(), node -> node.id, node -> node.capacity, request).stream()
+                    .map(ProductNode::toResponse)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Hands every product's capacity to {@code action} one at a time. Nothing is collected: the engine
+     * walks its immutable snapshot, and the aggregate query path reads a database cursor, which
+     * requires the caller to hold a transaction open while consuming it.
+     */
+    public void forEachAvailableProduction(Consumer<ProductProductionResponse> action) {
+        if (!enabled && reserved.isEmpty()) {
+            try (Stream<ProductCapacityView> rows = productRepository.streamAvailableProduction()) {
+                rows.map(ProductionCapacityEngine::toResponse).forEach(action);
+            }
+            return;
+        }
+
+        snapshot().products().forEach(product ->
+                action.accept(new ProductProductionResponse(product.id(), product.name(), product.capacity())));
+    }
+
+    /**
+     * Same capacities as {@link #getAvailableProduction(AvailableProductionRequest)}, plus the limiting
+     * raw material and the stock balance of every input, all derived in one pass over each selected
+     * product's requirements.
+     */
+    public List<ProductProductionResponse> getAvailableProductionDetails(AvailableProductionRequest request) {
+        Snapshot current = snapshot();
+
+        return CapacitySelection.select(current.products(), SnapshotProduct::id, SnapshotProduct::capacity, request).stream()
+                .map(product -> details(product, current.stocks()))
+                .toList();
+    }
+
+    public List<ProductSimulationResponse> simulate(Map<Long, BigDecimal> stockDeltas) {
+        Snapshot current = snapshot();
+
+        Map<Long, BigDecimal> overlay = new HashMap<>();
+        BitSet affected = new BitSet(current.products().size());
+        stockDeltas.forEach((rawMaterialId, delta) -> {
+            BigDecimal stock = current.stocks().get(rawMaterialId);
+            if (stock == null) return;
+
+            overlay.put(rawMaterialId, stock.add(delta).max(BigDecimal.ZERO));
+            for (int index : current.consumers().getOrDefault(rawMaterialId, new int[0])) affected.set(index);
+        });
+
+        List<ProductSimulationResponse> result = new ArrayList<>(current.products().size());
+        for (int i = 0; i < current.products().size(); i++) {
+            SnapshotProduct product = current.products().get(i);
+            int simulated = affected.get(i)
+                    ? capacity(product.requirements(), id -> overlay.getOrDefault(id, current.stocks().getOrDefault(id, BigDecimal.ZERO)))
+                    : product.capacity();
+
+            result.add(new ProductSimulationResponse(product.id(), product.name(), product.capacity(), simulated, simulated - product.capacity()));
+        }
+
+        return result;
+    }
+
+    /**
+     * Takes the committed stock of a material together with its row version. After-commit callbacks may
+     * run in a different order than the commits, so a value older than the one already held (including
+     * one a later load already read) is ignored instead of overwriting it.
+     */
+    public void stockChanged(Long rawMaterialId, BigDecimal stockQuantity, Long version) {
+        afterCommit(() -> write(() -> {
+            if (!putStock(rawMaterialId, stockQuantity, version)) return;
+
+            consumers.getOrDefault(rawMaterialId, Set.of())
+                    .forEach(productId -> recompute(products.get(productId)));
+        }));
+    }
+
+    public void productAdded(Long productId, String productName) {
+        afterCommit(() -> write(() -> {
+            if (products.putIfAbsent(productId, new ProductNode(productId, productName)) == null) {
+                exploded.put(productId, new HashMap<>());
+            }
+        }));
+    }
+
+    public void materialLinked(Long productId, String productName, Long rawMaterialId, BigDecimal stockQuantity, Long stockVersion, BigDecimal quantityRequired) {
+        afterCommit(() -> write(() -> {
+            ProductNode node = products.computeIfAbsent(productId, id -> new ProductNode(id, productName));
+            node.materials.put(rawMaterialId, quantityRequired);
+            putStock(rawMaterialId, stockQuantity, stockVersion);
+            restructure(node);
+        }));
+    }
+
+    public void requirementChanged(Long productId, Long rawMaterialId, BigDecimal quantityRequired) {
+        afterCommit(() -> write(() -> {
+            ProductNode node = products.get(productId);
+            if (node == null || !node.materials.containsKey(rawMaterialId)) return;
+
+            node.materials.put(rawMaterialId, quantityRequired);
+            restructure(node);
+        }));
+    }
+
+    public void materialUnlinked(Long productId, Long rawMaterialId) {
+        afterCommit(() -> write(() -> {
+            ProductNode node = products.get(productId);
+            if (node == null || node.materials.remove(rawMaterialId) == null) return;
+
+            restructure(node);
+        }));
+    }
+
+    public void componentLinked(Long productId, String productName, Long componentId, BigDecimal quantityRequired) {
+        afterCommit(() -> write(() -> {
+            ProductNode component = products.get(componentId);
+            if (component == null) {
+                loaded = false;
+                return;
+            }
+
+            ProductNode node = products.computeIfAbsent(productId, id -> new ProductNode(id, productName));
+            node.components.put(componentId, quantityRequired);
+            component.parents.add(productId);
+            restructure(node);
+        }));
+    }
+
+    public void componentRequirementChanged(Long productId, Long componentId, BigDecimal quantityRequired) {
+        afterCommit(() -> write(() -> {
+            ProductNode node = products.get(productId);
+            if (node == null || !node.components.containsKey(componentId)) return;
+
+            node.components.put(componentId, quantityRequired);
+            restructure(node);
+        }));
+    }
+
+    public void componentUnlinked(Long productId, Long componentId) {
+        afterCommit(() -> write(() -> {
+            ProductNode node = products.get(productId);
+            if (node == null || node.components.remove(componentId) == null) return;
+
+            ProductNode component = products.get(componentId);
+            if (component != null) component.parents.remove(productId);
+            restructure(node);
+        }));
+    }
+
+    public void productRenamed(Long productId, String name) {
+        afterCommit(() -> write(() -> {
+            ProductNode node = products.get(productId);
+            if (node != null) node.name = name;
+        }));
+    }
+
+    public void productRemoved(Long productId) {
+        afterCommit(() -> write(() -> {
+            ProductNode node = products.remove(productId);
+            if (node == null) return;
+
+            node.components.keySet().forEach(componentId -> {
+                ProductNode component = products.get(componentId);
+                if (component != null) component.parents.remove(productId);
+            });
+            unregisterConsumers(productId);
+            exploded.remove(productId);
+        }));
+    }
+
+    // Reservations are not transactional: the new total is applied right away, even before the first load,
+    // since a load reads stock from the database but reservations from here.
+    public void reservationChanged(Long rawMaterialId, BigDecimal reservedQuantity) {
+        lock.writeLock().lock();
+        try {
+            if (reservedQuantity.signum() == 0) reserved.remove(rawMaterialId);
+            else reserved.put(rawMaterialId, reservedQuantity);
+            if (!loaded) return;
+
+            consumers.getOrDefault(rawMaterialId, Set.of())
+                    .forEach(productId -> recompute(products.get(productId)));
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Bulk loads drop the materialized state instead of replaying one event per row; the next read reloads it.
+    public void catalogImported() {
+        afterCommit(() -> write(() -> loaded = false));
+    }
+
+    // Re-explodes the node and every product that (transitively) uses it as a component.
+    private void restructure(ProductNode node) {
+        List<ProductNode> affected = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        Deque<ProductNode> pending = new ArrayDeque<>(List.of(node));
+
+        while (!pending.isEmpty()) {
+            ProductNode current = pending.pop();
+            if (!seen.add(current.id)) continue;
+
+            affected.add(current);
+            unregisterConsumers(current.id);
+            exploded.remove(current.id);
+            current.parents.forEach(parentId -> pending.push(products.get(parentId)));
+        }
+
+        affected.forEach(n -> {
+            explode(n.id).keySet().forEach(rawMaterialId ->
+                    consumers.computeIfAbsent(rawMaterialId, id -> new HashSet<>()).add(n.id));
+            recompute(n);
+        });
+    }
+
+    private Map<Long, BigDecimal> explode(Long productId) {
+        return BomExplosion.explode(productId,
+                id -> products.get(id).materials,
+                id -> products.get(id).components,
+                exploded);
+    }
+
+    private void unregisterConsumers(Long productId) {
+        Map<Long, BigDecimal> requirements = exploded.get(productId);
+        if (requirements == null) return;
+
+        requirements.keySet().forEach(rawMaterialId -> {
+            Set<Long> productIds = consumers.get(rawMaterialId);
+            if (productIds == null) return;
+
+            productIds.remove(productId);
+            if (productIds.isEmpty()) consumers.remove(rawMaterialId);
+        });
+    }
+
+    private boolean putStock(Long rawMaterialId, BigDecimal stockQuantity, Long version) {
+        Long known = stockVersions.get(rawMaterialId);
+        if (version != null && known != null && version <= known) return false;
+
+        stocks.put(rawMaterialId, stockQuantity);
+        if (version != null) stockVersions.put(rawMaterialId, version);
+        return true;
+    }
+
+    private void recompute(ProductNode node) {
+        node.capacity = capacity(exploded.get(node.id), this::available);
+    }
+
+    private BigDecimal available(Long rawMaterialId) {
+        BigDecimal stock = stocks.getOrDefault(rawMaterialId, BigDecimal.ZERO);
+        BigDecimal held = reserved.get(rawMaterialId);
+        return held == null ? stock : stock.subtract(held).max(BigDecimal.ZERO);
+    }
+
+    private static int capacity(Map<Long, BigDecimal> requirements, Function<Long, BigDecimal> stock) {
+        return requirements.entrySet().stream()
+                .mapToInt(e -> stock.apply(e.getKey())
+                        .divide(e.getValue(), 0, RoundingMode.FLOOR)
+                        .intValue())
+                .min()
+                .orElse(0);
+    }
+
+    private static ProductProductionResponse toResponse(ProductCapacityView view) {
+        return new ProductProductionResponse(view.getProductId(), view.getProductName(), view.getMaxProductProduction());
+    }
+
+    private static ProductProductionResponse details(SnapshotProduct product, Map<Long, BigDecimal> stocks) {
+        BigDecimal produced = BigDecimal.valueOf(product.capacity());
+        BigDecimal next = produced.add(BigDecimal.ONE);
+
+        Long limiting = null;
+        List<MaterialBalanceResponse> materials = new ArrayList<>(product.requirements().size());
+        for (Map.Entry<Long, BigDecimal> e : new TreeMap<>(product.requirements()).entrySet()) {
+            BigDecimal stock = stocks.getOrDefault(e.getKey(), BigDecimal.ZERO);
+            BigDecimal required = e.getValue();
+
+            if (limiting == null && stock.divide(required, 0, RoundingMode.FLOOR).intValue() == product.capacity()) limiting = e.getKey();
+            materials.add(new MaterialBalanceResponse(e.getKey(), required, stock,
+                    stock.subtract(required.multiply(produced)),
+                    required.multiply(next).subtract(stock).max(BigDecimal.ZERO)));
+        }
+
+        return new ProductProductionResponse(product.id(), product.name(), product.capacity(), limiting, materials);
+    }
+
+    private Snapshot snapshot() {
+        ensureLoaded();
+
+        Snapshot current = snapshot;
+        if (current != null && current.version() == version) return current;
+
+        lock.readLock().lock();
+        try {
+            // Exploded requirement maps are replaced, never mutated, so the snapshot can share them.
+            List<SnapshotProduct> rows = new ArrayList<>(products.size());
+            Map<Long, Integer> indexes = new HashMap<>();
+            for (ProductNode node : products.values()) {
+                indexes.put(node.id, rows.size());
+                rows.add(new SnapshotProduct(node.id, node.name, node.capacity, exploded.get(node.id)));
+            }
+
+            Map<Long, int[]> consumerIndexes = new HashMap<>();
+            consumers.forEach((rawMaterialId, productIds) ->
+                    consumerIndexes.put(rawMaterialId, productIds.stream().mapToInt(indexes::get).toArray()));
+
+            Map<Long, BigDecimal> available = new HashMap<>();
+            stocks.keySet().forEach(rawMaterialId -> available.put(rawMaterialId, available(rawMaterialId)));
+
+            current = new Snapshot(version, Collections.unmodifiableList(rows),
+                    Collections.unmodifiableMap(available), Collections.unmodifiableMap(consumerIndexes));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        snapshot = current;
+        return current;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+
+        lock.writeLock().lock();
+        try {
+            if (loaded) return;
+
+            products.clear();
+            stocks.clear();
+            stockVersions.clear();
+            consumers.clear();
+            exploded.clear();
+
+            // Both reads see the same snapshot of the catalog, so no component link can point at a product
+            // committed after the products were read. A caller's transaction is joined as it is, so links to
+            // a product that is not in the snapshot are skipped; the change notifications add them later.
+            Catalog catalog = loadTransaction.execute(status ->
+                    new Catalog(productRepository.findAllMaterialRows(), productComponentRepository.findAllRows()));
+
+            for (ProductMaterialRow row : catalog.materials()) {
+                ProductNode node = products.computeIfAbsent(row.productId(), id -> new ProductNode(id, row.productName()));
+                if (row.rawMaterialId() == null) continue;
+
+                node.materials.put(row.rawMaterialId(), row.quantityRequired());
+                putStock(row.rawMaterialId(), row.stockQuantity(), row.stockVersion());
+            }
+
+            for (ProductComponentRow row : catalog.components()) {
+                ProductNode parent = products.get(row.productId());
+                ProductNode component = products.get(row.componentId());
+                if (parent == null || component == null) continue;
+
+                parent.components.put(row.componentId(), row.quantityRequired());
+                component.parents.add(row.productId());
+            }
+
+            for (ProductNode node : products.values()) {
+                explode(node.id).keySet().forEach(rawMaterialId ->
+                        consumers.computeIfAbsent(rawMaterialId, id -> new HashSet<>()).add(node.id));
+            }
+
+            recomputeAll();
+
+            version++;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void recomputeAll() {
+        Map<Long, Integer> columns = new HashMap<>();
+        CapacityMatrix.Builder builder = CapacityMatrix.builder(stocks.size());
+        stocks.keySet().forEach(rawMaterialId -> {
+            int column = columns.size();
+            columns.put(rawMaterialId, column);
+            builder.stock(column, available(rawMaterialId));
+        });
+
+        ProductNode[] nodes = products.values().toArray(ProductNode[]::new);
+        for (ProductNode node : nodes) {
+            builder.row();
+            exploded.get(node.id).forEach((rawMaterialId, quantity) -> builder.entry(columns.get(rawMaterialId), quantity));
+        }
+
+        int[] capacities = capacityEvaluator.evaluate(builder.build());
+        for (int i = 0; i < nodes.length; i++) nodes[i].capacity = capacities[i];
+    }
+
+    // Changes that arrive before the first load are dropped: the load itself reads the committed state.
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) return;
+
+            change.run();
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record Catalog(List<ProductMaterialRow> materials, List<ProductComponentRow> components) {
+    }
+
+    private record Snapshot(long version, List<SnapshotProduct> products, Map<Long, BigDecimal> stocks, Map<Long, int[]> consumers) {
+    }
+
+    private record SnapshotProduct(Long id, String name, int capacity, Map<Long, BigDecimal> requirements) {
+    }
+
+    private static final class ProductNode {
+
+        private final Long id;
+        private String name;
+        private final Map<Long, BigDecimal> materials = new LinkedHashMap<>();
+        private final Map<Long, BigDecimal> components = new LinkedHashMap<>();
+        private final Set<Long> parents = new HashSet<>();
+        private int capacity;
+
+        private ProductNode(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        private ProductProductionResponse toResponse() {
+            return new ProductProductionResponse(id, name, capacity);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package dev.test.projedata.autoflex.api.service;
+
+import dev.test.projedata.autoflex.api.domain.Product;
+import dev.test.projedata.autoflex.api.domain.ProductComponent;
+import dev.test.projedata.autoflex.api.domain.ProductMaterial;
+import dev.test.projedata.autoflex.api.dtos.response.ProductionPlanItemResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductionPlanResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Chooses integer production quantities for all products at once, maximizing the total revenue
+ * ({@code price * quantity}) without exceeding the stock of any shared raw material.
+ * <p>
+ * The optimizer is a time-bounded primal heuristic: products are ranked by revenue per weighted
+ * unit of scarce material and filled greedily; material weights are then raised in proportion to
+ * how much of each material the last round consumed, and the ranking is repeated. The remaining
+ * budget is spent on a drop-and-refill local search over the best plan found. Feasibility is always
+ * checked with exact {@link BigDecimal} arithmetic, so every returned plan can be produced.
+ * <p>
+ * The deadline is absolute, so callers can start the clock when the request arrives. The first greedy
+ * round always runs to the end, even past the deadline, so a late start still yields a complete plan.
+ */
+@Component
+public class ProductionPlanner {
+
+    private static final int MAX_ROUNDS = 200;
+    private static final double LEARNING_RATE = 0.5;
+
+    private final long defaultDeadlineMillis;
+
+    public ProductionPlanner(@Value("${autoflex.production-plan.deadline-ms:2000}") long defaultDeadlineMillis) {
+        this.defaultDeadlineMillis = defaultDeadlineMillis;
+    }
+
+    public ProductionPlanResponse plan(List<Product> products, Long deadlineMillis) {
+        return planUntil(products, deadline(deadlineMillis));
+    }
+
+    // A System.nanoTime() value: the requested budget, capped by the configured one, counted from now.
+    public long deadline(Long deadlineMillis) {
+        long millis = deadlineMillis != null ? Math.min(deadlineMillis, defaultDeadlineMillis) : defaultDeadlineMillis;
+        return System.nanoTime() + millis * 1_000_000L;
+    }
+
+    public ProductionPlanResponse planUntil(List<Product> products, long deadline) {
+        Model model = Model.of(products);
+        Search search = new Search(model, deadline);
+
+        int[] best = search.run();
+
+        List<ProductionPlanItemResponse> items = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < model.products.length; i++) {
+            if (best[i] == 0) continue;
+
+            Product product = model.products[i];
+            BigDecimal revenue = product.getPrice().multiply(BigDecimal.valueOf(best[i]));
+            items.add(new ProductionPlanItemResponse(product.getId(), product.getName(), best[i], revenue));
+            total = total.add(revenue);
+        }
+
+        return new ProductionPlanResponse(total, search.deadlineReached, items);
+    }
+
+    private record Model(Product[] products, double[] prices, int[] rowStart, int[] columns,
+                         BigDecimal[] required, double[] requiredApprox, BigDecimal[] stock) {
+
+        static Model of(List<Product> products) {
+            Map<Long, Product> byId = new HashMap<>();
+            Map<Long, BigDecimal> stockById = new HashMap<>();
+            for (Product product : products) {
+                byId.put(product.getId(), product);
+                product.getProductMaterials().forEach(pm -> stockById.put(pm.getRawMaterial().getId(), pm.getRawMaterial().getStockQuantity()));
+            }
+
+            // Sub-assemblies are planned through their raw material requirements.
+            Map<Long, Map<Long, BigDecimal>> memo = new HashMap<>();
+            Function<Long, Map<Long, BigDecimal>> materials = id -> byId.get(id).getProductMaterials().stream()
+                    .collect(Collectors.toMap(pm -> pm.getRawMaterial().getId(), ProductMaterial::getQuantityRequired));
+            Function<Long, Map<Long, BigDecimal>> components = id -> byId.get(id).getComponents().stream()
+                    .collect(Collectors.toMap(pc -> pc.getComponent().getId(), ProductComponent::getQuantityRequired));
+
+            Product[] catalog = products.toArray(Product[]::new);
+            List<Map<Long, BigDecimal>> requirements = new ArrayList<>(catalog.length);
+            for (Product product : catalog) requirements.add(BomExplosion.explode(product.getId(), materials, components, memo));
+
+            Map<Long, Integer> materialIndex = new HashMap<>();
+            List<BigDecimal> stock = new ArrayList<>();
+
+            int nonZeros = requirements.stream().mapToInt(Map::size).sum();
+            double[] prices = new double[catalog.length];
+            int[] rowStart = new int[catalog.length + 1];
+            int[] columns = new int[nonZeros];
+            BigDecimal[] required = new BigDecimal[nonZeros];
+            double[] requiredApprox = new double[nonZeros];
+
+            int k = 0;
+            for (int i = 0; i < catalog.length; i++) {
+                prices[i] = catalog[i].getPrice().doubleValue();
+                rowStart[i] = k;
+
+                for (Map.Entry<Long, BigDecimal> requirement : requirements.get(i).entrySet()) {
+                    int column = materialIndex.computeIfAbsent(requirement.getKey(), id -> {
+                        stock.add(stockById.get(id));
+                        return stock.size() - 1;
+                    });
+
+                    columns[k] = column;
+                    required[k] = requirement.getValue();
+                    requiredApprox[k] = requirement.getValue().doubleValue();
+                    k++;
+                }
+            }
+            rowStart[catalog.length] = k;
+
+            return new Model(catalog, prices, rowStart, columns, required, requiredApprox, stock.toArray(BigDecimal[]::new));
+        }
+    }
+
+    private static final class Search {
+
+        private final Model model;
+        private final long deadline;
+        private boolean deadlineReached;
+
+        private int[] best;
+        private double bestRevenue = -1;
+
+        private Search(Model model, long deadline) {
+            this.model = model;
+            this.deadline = deadline;
+        }
+
+        private int[] run() {
+            int n = model.products.length;
+            int m = model.stock.length;
+            best = new int[n];
+
+            double[] weights = new double[m];
+            for (int j = 0; j < m; j++) {
+                weights[j] = 1.0 / Math.max(model.stock[j].doubleValue(), 1e-9);
+            }
+
+            Integer[] order = null;
+            for (int round = 0; round < MAX_ROUNDS && (round == 0 || !expired()); round++) {
+                order = rank(weights);
+
+                int[] plan = new int[n];
+                BigDecimal[] remaining = model.stock.clone();
+                fill(plan, remaining, order, -1, round > 0);
+                offer(plan);
+
+                boolean saturated = false;
+                for (int j = 0; j < m; j++) {
+                    double stock = model.stock[j].doubleValue();
+                    if (stock <= 0) continue;
+
+                    double used = 1.0 - remaining[j].doubleValue() / stock;
+                    weights[j] *= Math.exp(LEARNING_RATE * used);
+                    saturated |= used > 0;
+                }
+                if (!saturated) break;
+            }
+
+            if (order != null) improve(order);
+
+            return best;
+        }
+
+        // Drop all units of one product at a time (least attractive first) and refill the freed stock.
+        private void improve(Integer[] order) {
+            boolean improved = true;
+            while (improved && !expired()) {
+                improved = false;
+
+                for (int r = order.length - 1; r >= 0 && !expired(); r--) {
+                    int dropped = order[r];
+                    if (best[dropped] == 0) continue;
+
+                    int[] plan = best.clone();
+                    plan[dropped] = 0;
+
+                    BigDecimal[] remaining = remainingAfter(plan);
+                    fill(plan, remaining, order, dropped, true);
+
+                    if (offer(plan)) improved = true;
+                }
+            }
+        }
+
+        private Integer[] rank(double[] weights) {
+            int n = model.products.length;
+            double[] score = new double[n];
+
+            for (int i = 0; i < n; i++) {
+                double cost = 0;
+                for (int k = model.rowStart[i]; k < model.rowStart[i + 1]; k++) {
+                    cost += model.requiredApprox[k] * weights[model.columns[k]];
+                }
+                score[i] = cost > 0 ? model.prices[i] / cost : 0;
+            }
+
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) order[i] = i;
+            Arrays.sort(order, Comparator.comparingDouble((Integer i) -> score[i]).reversed());
+
+            return order;
+        }
+
+        private void fill(int[] plan, BigDecimal[] remaining, Integer[] order, int skip, boolean interruptible) {
+            int visited = 0;
+            for (Integer i : order) {
+                if (i == skip) continue;
+                if (interruptible && (++visited & 1023) == 0 && expired()) return;
+
+                int units = maxUnits(i, remaining);
+                if (units == 0) continue;
+
+                plan[i] += units;
+                BigDecimal factor = BigDecimal.valueOf(units);
+                for (int k = model.rowStart[i]; k < model.rowStart[i + 1]; k++) {
+                    int j = model.columns[k];
+                    remaining[j] = remaining[j].subtract(model.required[k].multiply(factor));
+                }
+            }
+        }
+
+        private int maxUnits(int i, BigDecimal[] remaining) {
+            if (model.rowStart[i] == model.rowStart[i + 1]) return 0;
+
+            long units = Integer.MAX_VALUE;
+            for (int k = model.rowStart[i]; k < model.rowStart[i + 1] && units > 0; k++) {
+                units = Math.min(units, remaining[model.columns[k]].divide(model.required[k], 0, RoundingMode.FLOOR).longValue());
+            }
+
+            return (int) Math.max(units, 0);
+        }
+
+        private BigDecimal[] remainingAfter(int[] plan) {
+            BigDecimal[] remaining = model.stock.clone();
+            for (int i = 0; i < plan.length; i++) {
+                if (plan[i] == 0) continue;
+
+                BigDecimal factor = BigDecimal.valueOf(plan[i]);
+                for (int k = model.rowStart[i]; k < model.rowStart[i + 1]; k++) {
+                    int j = model.columns[k];
+                    remaining[j] = remaining[j].subtract(model.required[k].multiply(factor));
+                }
+            }
+            return remaining;
+        }
+
+        private boolean offer(int[] plan) {
+            double revenue = 0;
+            for (int i = 0; i < plan.length; i++) revenue += plan[i] * model.prices[i];
+
+            if (revenue <= bestRevenue) return false;
+
+            bestRevenue = revenue;
+            best = plan;
+            return true;
+        }
+
+        private boolean expired() {
+            if (!deadlineReached && System.nanoTime() - deadline >= 0) deadlineReached = true;
+            return deadlineReached;
+        }
+    }
+}
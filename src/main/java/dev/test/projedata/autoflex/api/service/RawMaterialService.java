@@ -1,60 +1,177 @@
 package dev.test.projedata.autoflex.api.service;
 
 import dev.test.projedata.autoflex.api.domain.RawMaterial;
+import dev.test.projedata.autoflex.api.dtos.request.CursorPageRequest;
 import dev.test.projedata.autoflex.api.dtos.request.RawMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.request.StockAdjustmentBatchRequest;
+import dev.test.projedata.autoflex.api.dtos.request.StockAdjustmentRequest;
+import dev.test.projedata.autoflex.api.dtos.request.StockDeltaRequest;
+import dev.test.projedata.autoflex.api.dtos.response.CursorPageResponse;
 import dev.test.projedata.autoflex.api.dtos.response.RawMaterialResponse;
 import dev.test.projedata.autoflex.api.exceptions.DatabaseException;
+import dev.test.projedata.autoflex.api.exceptions.InsufficientStockException;
 import dev.test.projedata.autoflex.api.exceptions.ResourceNotFoundException;
 import dev.test.projedata.autoflex.api.mapper.RawMaterialMapper;
 import dev.test.projedata.autoflex.api.repository.RawMaterialRepository;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Service
 public class RawMaterialService {
 
     private final RawMaterialRepository rawMaterialRepository;
     private final RawMaterialMapper rawMaterialMapper;
+    private final ProductionCapacityEngine productionCapacityEngine;
+    private final CatalogResponseCache catalogResponseCache;
+    private final CatalogVersion catalogVersion;
+    private final StockReservationService stockReservationService;
+    private final OptimisticRetry optimisticRetry;
+    private final TransactionTemplate readOnlyTransaction;
 
-    public RawMaterialService(RawMaterialRepository rawMaterialRepository, RawMaterialMapper rawMaterialMapper) {
+    public RawMaterialService(RawMaterialRepository rawMaterialRepository, RawMaterialMapper rawMaterialMapper, ProductionCapacityEngine productionCapacityEngine, CatalogResponseCache catalogResponseCache, CatalogVersion catalogVersion, StockReservationService stockReservationService, OptimisticRetry optimisticRetry, PlatformTransactionManager transactionManager) {
         this.rawMaterialRepository = rawMaterialRepository;
         this.rawMaterialMapper = rawMaterialMapper;
+        this.productionCapacityEngine = productionCapacityEngine;
+        this.catalogResponseCache = catalogResponseCache;
+        this.catalogVersion = catalogVersion;
+        this.stockReservationService = stockReservationService;
+        this.optimisticRetry = optimisticRetry;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
     @Transactional
     public RawMaterialResponse insert(RawMaterialRequest request) {
         RawMaterial rawMaterial = rawMaterialMapper.toEntity(request);
+        rawMaterial = rawMaterialRepository.save(rawMaterial);
+        catalogVersion.changed();
 
-        return rawMaterialMapper.toResponse(rawMaterialRepository.save(rawMaterial));
+        return rawMaterialMapper.toResponse(rawMaterial);
     }
 
+    @Transactional(readOnly = true)
     public Page<RawMaterialResponse> findAll(Pageable pageable) {
         return rawMaterialRepository.findAll(pageable)
                 .map(rawMaterialMapper::toResponse);
     }
 
-    public RawMaterialResponse findById(Long id) {
-        return rawMaterialRepository.findById(id)
+    @Transactional(readOnly = true)
+    public CursorPageResponse<RawMaterialResponse> findAllByCursor(CursorPageRequest request) {
+        int size = request.size() != null ? request.size() : KeysetCursor.DEFAULT_SIZE;
+        Limit limit = Limit.of(size + 1);
+
+        List<RawMaterial> rawMaterials;
+        if (request.after() == null) {
+            rawMaterials = rawMaterialRepository.findKeysetPage(limit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(request.after());
+            rawMaterials = rawMaterialRepository.findKeysetPageAfter(after.name(), after.id(), limit);
+        }
+
+        boolean hasNext = rawMaterials.size() > size;
+        List<RawMaterialResponse> content = (hasNext ? rawMaterials.subList(0, size) : rawMaterials).stream()
                 .map(rawMaterialMapper::toResponse)
-                .orElseThrow(() -> new ResourceNotFoundException("RawMaterial not found. Id: " + id));
+                .toList();
+        String nextCursor = hasNext ? new KeysetCursor(content.getLast().name(), content.getLast().id()).encode() : null;
+
+        return new CursorPageResponse<>(content, hasNext, nextCursor);
+    }
+
+    // A miss builds the response in a read-only transaction of its own, so a hit never takes a connection.
+    public RawMaterialResponse findById(Long id) {
+        return catalogResponseCache.rawMaterial(id, key -> readOnlyTransaction.execute(status -> load(key)));
+    }
+
+    // Runs in a transaction of its own, retried on a lost version race unless the client sent If-Match.
+    public RawMaterialResponse update(Long id, RawMaterialRequest request, Long expectedVersion) {
+        return optimisticRetry.execute(expectedVersion, () -> {
+            try {
+                RawMaterial existingProd = rawMaterialRepository.getReferenceById(id);
+                EntityVersions.check(expectedVersion, existingProd.getVersion(), "RawMaterial " + id);
+
+                if (request.name() != null) {
+                    existingProd.setName(request.name());
+                    catalogResponseCache.rawMaterialRenamed(id);
+                }
+                if (request.stockQuantity() != null) existingProd.setStockQuantity(request.stockQuantity());
+                // Flushing bumps the version, which goes to the engine along with the stock.
+                rawMaterialRepository.flush();
+                if (request.stockQuantity() != null) {
+                    productionCapacityEngine.stockChanged(id, existingProd.getStockQuantity(), existingProd.getVersion());
+                }
+                catalogResponseCache.rawMaterialChanged(id);
+                catalogVersion.changed();
+
+                return rawMaterialMapper.toResponse(existingProd);
+            } catch (EntityNotFoundException e) {
+                throw new ResourceNotFoundException("RawMaterial not found. Id: " + id);
+            }
+        });
     }
 
+    // A single conditional UPDATE replaces the read-modify-write of update(), so concurrent receipts
+    // and withdrawals on the same material all land instead of overwriting each other. A withdrawal
+    // may not take stock that is on hold.
     @Transactional
-    public RawMaterialResponse update(Long id, RawMaterialRequest request) {
-        try {
-            RawMaterial existingProd = rawMaterialRepository.getReferenceById(id);
+    public RawMaterialResponse adjustStock(Long id, StockAdjustmentRequest request) {
+        BigDecimal delta = request.quantityDelta();
+        int updated = stockReservationService.consume(List.of(id), reserved ->
+                rawMaterialRepository.adjustStock(id, delta, delta.signum() < 0 ? reserved.getOrDefault(id, BigDecimal.ZERO) : BigDecimal.ZERO));
+        if (updated == 0) {
+            if (!rawMaterialRepository.existsById(id)) throw new ResourceNotFoundException("RawMaterial not found. Id: " + id);
+            throw new InsufficientStockException("Adjustment would leave RawMaterial with negative or reserved stock. Id: " + id);
+        }
+        stocksChanged(List.of(id));
+        catalogResponseCache.rawMaterialChanged(id);
+        catalogVersion.changed();
+
+        return load(id);
+    }
 
-            if (request.name() != null) existingProd.setName(request.name());
-            if (request.stockQuantity() != null) existingProd.setStockQuantity(request.stockQuantity());
+    // Deltas for the same material are summed and applied in id order, so concurrent batches take row
+    // locks in the same order and cannot deadlock. Any refused row rolls back the whole batch.
+    @Transactional
+    public List<RawMaterialResponse> adjustStocks(StockAdjustmentBatchRequest request) {
+        SortedMap<Long, BigDecimal> deltas = request.adjustments().stream()
+                .collect(Collectors.toMap(StockDeltaRequest::rawMaterialId, StockDeltaRequest::quantityDelta, BigDecimal::add, TreeMap::new));
 
-            return rawMaterialMapper.toResponse(existingProd);
-        } catch (EntityNotFoundException e) {
-            throw new ResourceNotFoundException("RawMaterial not found. Id: " + id);
+        List<Long> refused = stockReservationService.consume(deltas.keySet(), reserved -> rawMaterialRepository.adjustStocks(deltas, reserved));
+        if (!refused.isEmpty()) {
+            Set<Long> existing = rawMaterialRepository.findAllById(refused).stream()
+                    .map(RawMaterial::getId)
+                    .collect(Collectors.toSet());
+            refused.stream()
+                    .filter(id -> !existing.contains(id))
+                    .findFirst()
+                    .ifPresent(id -> {
+                        throw new ResourceNotFoundException("RawMaterial not found. Id: " + id);
+                    });
+            throw new InsufficientStockException("Adjustment would leave RawMaterial with negative or reserved stock. Ids: " + refused);
         }
+        stocksChanged(deltas.keySet());
+        deltas.keySet().forEach(catalogResponseCache::rawMaterialChanged);
+        catalogVersion.changed();
+
+        return rawMaterialRepository.findAllById(deltas.keySet()).stream()
+                .sorted(Comparator.comparing(RawMaterial::getId))
+                .map(rawMaterialMapper::toResponse)
+                .toList();
     }
 
     @Transactional
@@ -64,8 +181,23 @@ public class RawMaterialService {
 
             rawMaterialRepository.deleteById(id);
             rawMaterialRepository.flush();
+            catalogResponseCache.rawMaterialChanged(id);
+            catalogVersion.changed();
         } catch (DataIntegrityViolationException e) {
             throw new DatabaseException("Cannot delete: RawMaterial has associated records");
         }
     }
+
+    // Read back after the UPDATE, while this transaction still holds the row locks: these are exactly the
+    // values that commit, and their versions let the engine drop a notification that arrives out of order.
+    private void stocksChanged(Collection<Long> ids) {
+        rawMaterialRepository.findStockRows(ids)
+                .forEach(row -> productionCapacityEngine.stockChanged(row.id(), row.stockQuantity(), row.version()));
+    }
+
+    private RawMaterialResponse load(Long id) {
+        return rawMaterialRepository.findById(id)
+                .map(rawMaterialMapper::toResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("RawMaterial not found. Id: " + id));
+    }
 }
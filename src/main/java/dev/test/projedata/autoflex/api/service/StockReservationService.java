@@ -0,0 +1,281 @@
+package dev.test.projedata.autoflex.api.service;
+
+import dev.test.projedata.autoflex.api.dtos.request.StockReservationExtensionRequest;
+import dev.test.projedata.autoflex.api.dtos.request.StockReservationRequest;
+import dev.test.projedata.autoflex.api.dtos.response.StockReservationResponse;
+import dev.test.projedata.autoflex.api.exceptions.InsufficientStockException;
+import dev.test.projedata.autoflex.api.exceptions.ResourceNotFoundException;
+import dev.test.projedata.autoflex.api.repository.RawMaterialRepository;
+import dev.test.projedata.autoflex.api.repository.RawMaterialStockRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Holds raw material stock for pending orders without touching {@code stockQuantity}. A hold counts
+ * against the material until it is released or its time to live runs out; expirations are driven by a
+ * {@link HashedTimingWheel}, never by scanning the holds.
+ * <p>
+ * Holds on the same material are serialized by one of a fixed set of lock stripes, chosen by material
+ * id, so holds on different materials rarely wait on each other. The reserved total of each material is
+ * pushed to the {@link ProductionCapacityEngine} under the same stripe, keeping the updates in order.
+ * <p>
+ * Withdrawals and production orders go through {@link #consume}, which refuses to take stock that is on
+ * hold. Absolute corrections through {@code PUT /rawMaterials/{id}} are accepted as they are; if they
+ * leave less stock than is held, the engine counts the material as empty until holds are released.
+ * <p>
+ * Holds are kept in memory only and do not survive a restart.
+ */
+@Service
+public class StockReservationService implements AutoCloseable {
+
+    private final RawMaterialRepository rawMaterialRepository;
+    private final ProductionCapacityEngine productionCapacityEngine;
+    private final CatalogVersion catalogVersion;
+    private final HashedTimingWheel wheel;
+    private final Clock clock;
+
+    // A stock read that raced with this many writes gives up with a 409 instead of retrying forever.
+    static final int MAX_STOCK_READS = 5;
+
+    private final ReentrantLock[] stripes;
+    private final AtomicLongArray stripeWrites;
+    private final Map<UUID, Hold> holds = new ConcurrentHashMap<>();
+    private final Map<Long, BigDecimal> reserved = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StockReservationService(RawMaterialRepository rawMaterialRepository, ProductionCapacityEngine productionCapacityEngine, CatalogVersion catalogVersion,
+                                   @Value("${autoflex.reservations.tick-ms:100}") long tickMillis,
+                                   @Value("${autoflex.reservations.wheel-size:512}") int wheelSize,
+                                   @Value("${autoflex.reservations.stripes:64}") int stripes) {
+        this(rawMaterialRepository, productionCapacityEngine, catalogVersion,
+                new HashedTimingWheel("stock-reservation-expiry", tickMillis, wheelSize).start(), Clock.systemUTC(), stripes);
+    }
+
+    StockReservationService(RawMaterialRepository rawMaterialRepository, ProductionCapacityEngine productionCapacityEngine, CatalogVersion catalogVersion,
+                            HashedTimingWheel wheel, Clock clock, int stripes) {
+        this.rawMaterialRepository = rawMaterialRepository;
+        this.productionCapacityEngine = productionCapacityEngine;
+        this.catalogVersion = catalogVersion;
+        this.wheel = wheel;
+        this.clock = clock;
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) this.stripes[i] = new ReentrantLock();
+        this.stripeWrites = new AtomicLongArray(stripes);
+    }
+
+    // Stock is read before the stripe is taken: writes waiting on the stripe may already hold pool
+    // connections, so borrowing one under it could exhaust the pool. A write bumps its stripes' counters
+    // before releasing them, so a counter that moved while the stock was read means the value may predate
+    // a withdrawal, and it is read again. The scalar query goes straight to the database, past any cached
+    // entity.
+    public StockReservationResponse reserve(StockReservationRequest request) {
+        Long rawMaterialId = request.rawMaterialId();
+        int index = stripeIndex(rawMaterialId);
+
+        for (int attempt = 0; attempt < MAX_STOCK_READS; attempt++) {
+            long writes = stripeWrites.get(index);
+            BigDecimal stock = rawMaterialRepository.findStockRows(List.of(rawMaterialId)).stream()
+                    .findFirst()
+                    .map(RawMaterialStockRow::stockQuantity)
+                    .orElseThrow(() -> new ResourceNotFoundException("RawMaterial not found. Id: " + rawMaterialId));
+
+            ReentrantLock stripe = stripes[index];
+            stripe.lock();
+            try {
+                if (stripeWrites.get(index) != writes) continue;
+
+                BigDecimal total = reserved.getOrDefault(rawMaterialId, BigDecimal.ZERO).add(request.quantity());
+                if (total.compareTo(stock) > 0) {
+                    throw new InsufficientStockException("Reservation exceeds the unreserved stock of RawMaterial. Id: " + rawMaterialId);
+                }
+
+                Hold hold = new Hold(UUID.randomUUID(), rawMaterialId, request.quantity());
+                holds.put(hold.id, hold);
+                schedule(hold, request.ttlSeconds());
+                setReserved(rawMaterialId, total);
+
+                return hold.toResponse();
+            } finally {
+                stripe.unlock();
+            }
+        }
+
+        throw new OptimisticLockingFailureException("Stock of RawMaterial kept changing while reserving. Id: " + rawMaterialId);
+    }
+
+    public StockReservationResponse findById(UUID id) {
+        return find(id).toResponse();
+    }
+
+    // The new time to live counts from now, not from the previous expiry.
+    public StockReservationResponse extend(UUID id, StockReservationExtensionRequest request) {
+        Hold hold = find(id);
+
+        ReentrantLock stripe = stripe(hold.rawMaterialId);
+        stripe.lock();
+        try {
+            if (holds.get(id) != hold) throw notFound(id);
+
+            hold.timeout.cancel();
+            schedule(hold, request.ttlSeconds());
+
+            return hold.toResponse();
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    public void release(UUID id) {
+        Hold hold = find(id);
+
+        ReentrantLock stripe = stripe(hold.rawMaterialId);
+        stripe.lock();
+        try {
+            if (!holds.remove(id, hold)) throw notFound(id);
+
+            hold.timeout.cancel();
+            setReserved(hold.rawMaterialId, reserved.get(hold.rawMaterialId).subtract(hold.quantity));
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    public BigDecimal reservedQuantity(Long rawMaterialId) {
+        return reserved.getOrDefault(rawMaterialId, BigDecimal.ZERO);
+    }
+
+    /**
+     * Runs a write that consumes stock of the given materials, handing it their reserved totals so the
+     * write can refuse to dip into held stock. The stripes of those materials are taken, in index order,
+     * before the write and kept until the surrounding transaction completes: no hold can be placed on
+     * stock that is about to be consumed, and no hold is counted against a value that is about to change.
+     */
+    public <T> T consume(Collection<Long> rawMaterialIds, Function<Map<Long, BigDecimal>, T> write) {
+        List<Integer> indexes = rawMaterialIds.stream()
+                .map(this::stripeIndex)
+                .distinct()
+                .sorted()
+                .toList();
+        indexes.forEach(index -> stripes[index].lock());
+        Runnable unlock = () -> {
+            indexes.forEach(stripeWrites::incrementAndGet);
+            indexes.reversed().forEach(index -> stripes[index].unlock());
+        };
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                return write.apply(reservedTotals(rawMaterialIds));
+            } finally {
+                unlock.run();
+            }
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                unlock.run();
+            }
+        });
+        return write.apply(reservedTotals(rawMaterialIds));
+    }
+
+    @Override
+    public void close() {
+        wheel.close();
+    }
+
+    // Runs on the wheel's thread. A timeout that was replaced by an extension, or a hold that was
+    // released, may still fire if it raced with the change; both cases are ignored here.
+    private void expire(Hold hold, HashedTimingWheel.Timeout timeout) {
+        ReentrantLock stripe = stripe(hold.rawMaterialId);
+        stripe.lock();
+        try {
+            if (hold.timeout != timeout || !holds.remove(hold.id, hold)) return;
+
+            setReserved(hold.rawMaterialId, reserved.get(hold.rawMaterialId).subtract(hold.quantity));
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private void schedule(Hold hold, long ttlSeconds) {
+        hold.expiresAt = clock.instant().plusSeconds(ttlSeconds);
+
+        HashedTimingWheel.Timeout[] scheduled = new HashedTimingWheel.Timeout[1];
+        scheduled[0] = wheel.schedule(() -> expire(hold, scheduled[0]), ttlSeconds, TimeUnit.SECONDS);
+        hold.timeout = scheduled[0];
+    }
+
+    private void setReserved(Long rawMaterialId, BigDecimal total) {
+        if (total.signum() == 0) reserved.remove(rawMaterialId);
+        else reserved.put(rawMaterialId, total);
+
+        productionCapacityEngine.reservationChanged(rawMaterialId, total);
+        catalogVersion.changed();
+    }
+
+    private Hold find(UUID id) {
+        Hold hold = holds.get(id);
+        if (hold == null) throw notFound(id);
+        return hold;
+    }
+
+    private Map<Long, BigDecimal> reservedTotals(Collection<Long> rawMaterialIds) {
+        Map<Long, BigDecimal> totals = new HashMap<>();
+        rawMaterialIds.forEach(id -> {
+            BigDecimal total = reserved.get(id);
+            if (total != null) totals.put(id, total);
+        });
+        return totals;
+    }
+
+    private ReentrantLock stripe(Long rawMaterialId) {
+        return stripes[stripeIndex(rawMaterialId)];
+    }
+
+    private int stripeIndex(Long rawMaterialId) {
+        return Math.floorMod(Long.hashCode(rawMaterialId), stripes.length);
+    }
+
+    private static ResourceNotFoundException notFound(UUID id) {
+        return new ResourceNotFoundException("Reservation not found. Id: " + id);
+    }
+
+    // Mutable fields are only written under the material's stripe.
+    private static final class Hold {
+
+        private final UUID id;
+        private final Long rawMaterialId;
+        private final BigDecimal quantity;
+        private volatile Instant expiresAt;
+        private volatile HashedTimingWheel.Timeout timeout;
+
+        private Hold(UUID id, Long rawMaterialId, BigDecimal quantity) {
+            this.id = id;
+            this.rawMaterialId = rawMaterialId;
+            this.quantity = quantity;
+        }
+
+        private StockReservationResponse toResponse() {
+            return new StockReservationResponse(id, rawMaterialId, quantity, expiresAt);
+        }
+    }
+}
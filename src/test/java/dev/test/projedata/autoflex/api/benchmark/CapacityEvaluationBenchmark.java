@@ -0,0 +1,58 @@
+package dev.test.projedata.autoflex.api.benchmark;
+
+import dev.test.projedata.autoflex.api.service.CapacityEvaluator;
+import dev.test.projedata.autoflex.api.service.CapacityMatrix;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequential vs fork-join capacity evaluation by catalog size, used to pick
+ * {@code autoflex.capacity.parallel-threshold}: the crossover is the smallest {@code rows} value
+ * where {@code parallel} beats {@code sequential}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CapacityEvaluationBenchmark {
+
+    @Param({"1000", "10000", "50000", "100000", "500000", "1000000"})
+    int rows;
+
+    private CapacityMatrix matrix;
+    private CapacityEvaluator sequential;
+    private CapacityEvaluator parallel;
+
+    @Setup
+    public void setUp() {
+        matrix = SyntheticCatalog.matrix(rows, 5_000, 5, 42L);
+        sequential = new CapacityEvaluator(Integer.MAX_VALUE, 1);
+        parallel = new CapacityEvaluator(0, 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        sequential.shutdown();
+        parallel.shutdown();
+    }
+
+    @Benchmark
+    public int[] sequential() {
+        return sequential.evaluate(matrix);
+    }
+
+    @Benchmark
+    public int[] parallel() {
+        return parallel.evaluate(matrix);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CapacityEvaluationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,138 @@
+package dev.test.projedata.autoflex.api.benchmark;
+
+import dev.test.projedata.autoflex.api.AutoflexApiApplication;
+import dev.test.projedata.autoflex.api.dtos.request.AvailableProductionRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductRequest;
+import dev.test.projedata.autoflex.api.dtos.request.RawMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.request.StockAdjustmentRequest;
+import dev.test.projedata.autoflex.api.service.ProductService;
+import dev.test.projedata.autoflex.api.service.RawMaterialService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Database round trips (prepared statements) per call of {@code GET /products} and
+ * {@code GET /products/availableProduction} under a read-heavy mix: one stock adjustment every
+ * {@value #WRITE_EVERY} calls, the rest split between the two reads. Each trial prints the statements
+ * per call of both reads; compare the {@code l2cache=false} and {@code l2cache=true} lines. The
+ * services are called directly against the H2 test profile, with and without the capacity engine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogReadBenchmark {
+
+    static final int WRITE_EVERY = 20;
+
+    private static final int PRODUCTS = 2_000;
+    private static final int RAW_MATERIALS = 200;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"false", "true"})
+    boolean l2cache;
+
+    @Param({"true", "false"})
+    boolean capacityEngine;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private RawMaterialService rawMaterialService;
+    private Statistics statistics;
+    private final List<Long> rawMaterialIds = new ArrayList<>();
+    private final Random random = new Random(42L);
+    private final RoundTrips products = new RoundTrips();
+    private final RoundTrips availableProduction = new RoundTrips();
+    private long calls;
+
+    @Setup
+    public void setUp() {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(AutoflexApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.properties.hibernate.generate_statistics=true",
+                        "spring.jpa.show-sql=false",
+                        "autoflex.capacity.engine.enabled=" + capacityEngine);
+        if (l2cache) builder.profiles("l2cache");
+        context = builder.run();
+
+        productService = context.getBean(ProductService.class);
+        rawMaterialService = context.getBean(RawMaterialService.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        for (int i = 0; i < RAW_MATERIALS; i++) {
+            rawMaterialIds.add(rawMaterialService.insert(new RawMaterialRequest("material " + i, new BigDecimal("100000"))).id());
+        }
+        for (int i = 0; i < PRODUCTS; i++) {
+            Long productId = productService.insert(new ProductRequest("product " + i, new BigDecimal("10.00"))).id();
+            for (int j = 0; j < 3; j++) {
+                Long rawMaterialId = rawMaterialIds.get((i * 3 + j) % RAW_MATERIALS);
+                productService.addMaterial(productId, new ProductMaterialRequest(rawMaterialId, BigDecimal.ONE));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%nl2cache=%s capacityEngine=%s: %.2f statements per /products, %.2f per /products/availableProduction%n",
+                l2cache, capacityEngine, products.perCall(), availableProduction.perCall());
+        context.close();
+    }
+
+    @Benchmark
+    public Object readHeavyMix() {
+        long call = calls++;
+        if (call % WRITE_EVERY == 0) {
+            Long rawMaterialId = rawMaterialIds.get(random.nextInt(rawMaterialIds.size()));
+            return rawMaterialService.adjustStock(rawMaterialId, new StockAdjustmentRequest(BigDecimal.ONE));
+        }
+
+        if (call % 2 == 0) {
+            int page = random.nextInt(PRODUCTS / PAGE_SIZE);
+            return products.count(() -> productService.findAll(PageRequest.of(page, PAGE_SIZE, Sort.by("name"))));
+        }
+        return availableProduction.count(() ->
+                productService.getAvailableProduction(new AvailableProductionRequest(null, null, null, null, null)));
+    }
+
+    private final class RoundTrips {
+
+        private long calls;
+        private long statements;
+
+        private Object count(Supplier<Object> call) {
+            long before = statistics.getPrepareStatementCount();
+            Object result = call.get();
+            statements += statistics.getPrepareStatementCount() - before;
+            calls++;
+            return result;
+        }
+
+        private double perCall() {
+            return (double) statements / Math.max(1, calls);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CatalogReadBenchmark.class.getSimpleName()).build()).run();
+    }
+}
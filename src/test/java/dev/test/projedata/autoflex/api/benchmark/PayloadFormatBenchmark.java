@@ -0,0 +1,100 @@
+package dev.test.projedata.autoflex.api.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.test.projedata.autoflex.api.dtos.response.ProductMaterialResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductResponse;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of writing and reading one {@code GET /products} page, with nested materials, as JSON, CBOR and
+ * Smile. Mappers are built the way the application builds its converters. Each trial prints the payload
+ * size of its format and page size; compare the {@code serialize} and {@code deserialize} scores across
+ * {@code format} for the same {@code pageSize}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadFormatBenchmark {
+
+    private static final int MATERIALS_PER_PRODUCT = 5;
+
+    @Param({"json", "cbor", "smile"})
+    String format;
+
+    @Param({"10", "50", "200"})
+    int pageSize;
+
+    private ObjectMapper mapper;
+    private Page<ProductResponse> page;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        page = page(pageSize, 42L);
+        payload = mapper.writeValueAsBytes(page);
+
+        System.out.printf("%nformat=%s pageSize=%d: %d bytes%n", format, pageSize, payload.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public ProductPage deserialize() throws IOException {
+        return mapper.readValue(payload, ProductPage.class);
+    }
+
+    // Prices and quantities carry trailing zeros on purpose, so the decimal encoding is exercised.
+    private static Page<ProductResponse> page(int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+
+        List<ProductResponse> content = new ArrayList<>(size);
+        long materialLineId = 1;
+        for (int i = 0; i < size; i++) {
+            List<ProductMaterialResponse> materials = new ArrayList<>(MATERIALS_PER_PRODUCT);
+            for (int k = 0; k < MATERIALS_PER_PRODUCT; k++) {
+                long rawMaterialId = random.nextLong(1, 5_000);
+                materials.add(new ProductMaterialResponse(materialLineId++, rawMaterialId, "material " + rawMaterialId,
+                        BigDecimal.valueOf(random.nextLong(1, 5_000) * 10, 3), 0L));
+            }
+            content.add(new ProductResponse((long) i + 1, "product " + (i + 1),
+                    BigDecimal.valueOf(random.nextLong(100, 100_000), 2), materials, List.of(), 0L));
+        }
+        return new PageImpl<>(content, PageRequest.of(0, size, Sort.by("name")), 10_000);
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record ProductPage(List<ProductResponse> content, long totalElements, int totalPages, int number, int size) {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PayloadFormatBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,46 @@
+package dev.test.projedata.autoflex.api.benchmark;
+
+import dev.test.projedata.autoflex.api.domain.Product;
+import dev.test.projedata.autoflex.api.dtos.response.ProductionPlanResponse;
+import dev.test.projedata.autoflex.api.service.ProductionPlanner;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wall-clock cost of a full production plan for a 10k product / 50k material line catalog.
+ * Run with {@code java -cp target/test-classes:<test classpath> ...ProductionPlanBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ProductionPlanBenchmark {
+
+    @Param({"250", "1000", "2000"})
+    long deadlineMillis;
+
+    private List<Product> catalog;
+    private ProductionPlanner planner;
+
+    @Setup
+    public void setUp() {
+        catalog = SyntheticCatalog.generate(10_000, 2_000, 5, 42L);
+        planner = new ProductionPlanner(deadlineMillis);
+    }
+
+    @Benchmark
+    public ProductionPlanResponse plan() {
+        return planner.plan(catalog, null);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ProductionPlanBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,64 @@
+package dev.test.projedata.autoflex.api.benchmark;
+
+import dev.test.projedata.autoflex.api.domain.Product;
+import dev.test.projedata.autoflex.api.domain.ProductMaterial;
+import dev.test.projedata.autoflex.api.domain.RawMaterial;
+import dev.test.projedata.autoflex.api.service.CapacityMatrix;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public final class SyntheticCatalog {
+
+    private SyntheticCatalog() {
+    }
+
+    public static List<Product> generate(int productCount, int rawMaterialCount, int materialsPerProduct, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+
+        List<RawMaterial> rawMaterials = new ArrayList<>(rawMaterialCount);
+        for (int j = 0; j < rawMaterialCount; j++) {
+            BigDecimal stock = BigDecimal.valueOf(random.nextLong(1_000, 1_000_000), 2);
+            rawMaterials.add(new RawMaterial((long) j + 1, "material " + (j + 1), stock));
+        }
+
+        List<Product> products = new ArrayList<>(productCount);
+        long materialLineId = 1;
+        for (int i = 0; i < productCount; i++) {
+            BigDecimal price = BigDecimal.valueOf(random.nextLong(100, 100_000), 2);
+            Product product = new Product((long) i + 1, "product " + (i + 1), price);
+
+            int start = random.nextInt(rawMaterialCount);
+            for (int k = 0; k < materialsPerProduct; k++) {
+                RawMaterial rawMaterial = rawMaterials.get((start + k * 7) % rawMaterialCount);
+                BigDecimal required = BigDecimal.valueOf(random.nextLong(1, 5_000), 3);
+                product.getProductMaterials().add(new ProductMaterial(materialLineId++, product, rawMaterial, required));
+            }
+
+            products.add(product);
+        }
+
+        return products;
+    }
+
+    public static CapacityMatrix matrix(int rows, int columns, int entriesPerRow, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+
+        CapacityMatrix.Builder builder = CapacityMatrix.builder(columns);
+        for (int j = 0; j < columns; j++) {
+            builder.stock(j, BigDecimal.valueOf(random.nextLong(1_000, 1_000_000), 2));
+        }
+
+        for (int i = 0; i < rows; i++) {
+            builder.row();
+            int start = random.nextInt(columns);
+            for (int k = 0; k < entriesPerRow; k++) {
+                builder.entry((start + k * 7) % columns, BigDecimal.valueOf(random.nextLong(1, 5_000), 3));
+            }
+        }
+
+        return builder.build();
+    }
+}
@@ -0,0 +1,120 @@
+package dev.test.projedata.autoflex.api.configs;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 2, 40);
+
+    @Test
+    void tryAcquire_whenLimitReached_shouldRejectWithoutWaitingUntilReleased() {
+        // Given
+        for (int i = 0; i < 10; i++) assertTrue(limiter.tryAcquire());
+
+        // When
+        boolean overLimit = limiter.tryAcquire();
+        limiter.release(FAST, AdaptiveConcurrencyLimiter.Outcome.IGNORED);
+
+        // Then
+        assertFalse(overLimit);
+        assertTrue(limiter.tryAcquire());
+        assertEquals(10, limiter.inFlight());
+    }
+
+    @Test
+    void release_whenSaturatedAndLatencyStaysAtFloor_shouldRaiseLimit() {
+        // When
+        for (int i = 0; i < 20; i++) saturateAndRelease(FAST);
+
+        // Then
+        assertEquals(40, limiter.limit());
+    }
+
+    @Test
+    void release_whenSaturatedAndLatencyGrows_shouldLowerLimit() {
+        // Given
+        saturateAndRelease(FAST);
+
+        // When
+        for (int i = 0; i < 20; i++) saturateAndRelease(SLOW);
+
+        // Then
+        assertTrue(limiter.limit() < 10);
+        assertTrue(limiter.limit() >= 2);
+    }
+
+    @Test
+    void release_whenSmallLimitAndLatencyGrows_shouldLowerLimit() {
+        // Given
+        AdaptiveConcurrencyLimiter small = new AdaptiveConcurrencyLimiter("small", 6, 1, 6);
+        saturateAndRelease(small, FAST);
+
+        // When
+        saturateAndRelease(small, SLOW);
+        int afterOneSlowSample = small.limit();
+        for (int i = 0; i < 20; i++) saturateAndRelease(small, SLOW);
+
+        // Then
+        assertEquals(5, afterOneSlowSample);
+        assertEquals(1, small.limit());
+    }
+
+    @Test
+    void release_whenLatencyWithinTolerance_shouldNotLowerLimit() {
+        // Given
+        AdaptiveConcurrencyLimiter small = new AdaptiveConcurrencyLimiter("small", 2, 1, 2);
+        saturateAndRelease(small, FAST);
+
+        // When
+        for (int i = 0; i < 20; i++) saturateAndRelease(small, FAST + FAST / 4);
+
+        // Then
+        assertEquals(2, small.limit());
+    }
+
+    @Test
+    void release_whenFewRequestsInFlight_shouldKeepLimit() {
+        // When
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire();
+            limiter.release(FAST, AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+        }
+
+        // Then
+        assertEquals(10, limiter.limit());
+    }
+
+    @Test
+    void release_whenDropped_shouldBackOffButNotBelowMinimum() {
+        // When
+        limiter.tryAcquire();
+        limiter.release(FAST, AdaptiveConcurrencyLimiter.Outcome.DROPPED);
+        int afterOneDrop = limiter.limit();
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.release(FAST, AdaptiveConcurrencyLimiter.Outcome.DROPPED);
+        }
+
+        // Then
+        assertEquals(9, afterOneDrop);
+        assertEquals(2, limiter.limit());
+    }
+
+    private void saturateAndRelease(long latencyNanos) {
+        saturateAndRelease(limiter, latencyNanos);
+    }
+
+    private static void saturateAndRelease(AdaptiveConcurrencyLimiter limiter, long latencyNanos) {
+        while (limiter.tryAcquire()) {
+            // fill every free slot
+        }
+        limiter.release(latencyNanos, AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+    }
+}
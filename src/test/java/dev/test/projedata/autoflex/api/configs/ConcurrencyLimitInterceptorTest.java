@@ -0,0 +1,127 @@
+package dev.test.projedata.autoflex.api.configs;
+
+import dev.test.projedata.autoflex.api.exceptions.GlobalExceptionHandler;
+import dev.test.projedata.autoflex.api.exceptions.ServiceOverloadedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ConcurrencyLimitInterceptorTest {
+
+    private final AdaptiveConcurrencyLimiter production = new AdaptiveConcurrencyLimiter("production", 1, 1, 1);
+    private final AdaptiveConcurrencyLimiter catalog = new AdaptiveConcurrencyLimiter("catalog", 1, 1, 1);
+
+    private ConcurrencyLimitInterceptor interceptor;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new ConcurrencyLimitInterceptor(List.of(
+                group(production, "/products/availableProduction/**"),
+                group(catalog, "/products/**")), 3);
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new StubController())
+                .addInterceptors(interceptor)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void preHandle_whenFirstGroupMatches_shouldTakePermitFromThatGroupOnly() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products/availableProduction");
+
+        // When
+        interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+
+        // Then
+        assertEquals(1, production.inFlight());
+        assertEquals(0, catalog.inFlight());
+    }
+
+    @Test
+    void preHandle_whenPathOutsideEveryGroup_shouldNotLimit() {
+        // When
+        for (int i = 0; i < 5; i++) {
+            assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/cache/stats"), new MockHttpServletResponse(), new Object()));
+        }
+
+        // Then
+        assertEquals(0, production.inFlight());
+        assertEquals(0, catalog.inFlight());
+    }
+
+    @Test
+    void preHandle_whenGroupIsFull_shouldThrowServiceOverloaded() {
+        // Given
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/products/1"), new MockHttpServletResponse(), new Object());
+
+        // When / Then
+        ServiceOverloadedException ex = assertThrows(ServiceOverloadedException.class, () ->
+                interceptor.preHandle(new MockHttpServletRequest("GET", "/products/2"), new MockHttpServletResponse(), new Object()));
+        assertEquals(3, ex.getRetryAfterSeconds());
+    }
+
+    @Test
+    void afterCompletion_shouldReleasePermitOnce() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, new Object());
+
+        // When
+        interceptor.afterCompletion(request, response, new Object(), null);
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        // Then
+        assertEquals(0, catalog.inFlight());
+    }
+
+    @Test
+    void request_whenGroupIsFull_shouldAnswer503WithRetryAfter() throws Exception {
+        // Given
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/products/availableProduction"), new MockHttpServletResponse(), new Object());
+
+        // When / Then
+        mockMvc.perform(get("/products/availableProduction"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"))
+                .andExpect(jsonPath("$.code").value("SERVICE_UNAVAILABLE"));
+        mockMvc.perform(get("/products/1"))
+                .andExpect(status().isOk());
+        assertEquals(0, catalog.inFlight());
+    }
+
+    private static ConcurrencyLimitInterceptor.Group group(AdaptiveConcurrencyLimiter limiter, String pattern) {
+        return new ConcurrencyLimitInterceptor.Group(List.of(PathPatternParser.defaultInstance.parse(pattern)), limiter);
+    }
+
+    @RestController
+    static class StubController {
+
+        @GetMapping("/products/availableProduction")
+        String availableProduction() {
+            return "[]";
+        }
+
+        @GetMapping("/products/{id}")
+        String product() {
+            return "{}";
+        }
+    }
+}
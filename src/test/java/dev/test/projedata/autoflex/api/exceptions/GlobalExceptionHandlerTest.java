@@ -0,0 +1,40 @@
+package dev.test.projedata.autoflex.api.exceptions;
+
+import dev.test.projedata.autoflex.api.dtos.error.ApiError;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void handleOptimisticLockingFailure_whenClientSentIfMatch_shouldReturnPreconditionFailed() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_MATCH, "\"3\"");
+
+        // When
+        ResponseEntity<ApiError> response = handler.handleOptimisticLockingFailure(new OptimisticLockingFailureException("stale"), new ServletWebRequest(request));
+
+        // Then
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+    }
+
+    @Test
+    void handleOptimisticLockingFailure_whenClientSentNoIfMatch_shouldReturnConflict() {
+        // When
+        ResponseEntity<ApiError> response = handler.handleOptimisticLockingFailure(new OptimisticLockingFailureException("stale"), new ServletWebRequest(new MockHttpServletRequest()));
+
+        // Then
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("CONFLICT", response.getBody().code());
+    }
+}
@@ -0,0 +1,124 @@
+package dev.test.projedata.autoflex.api.integration;
+
+import dev.test.projedata.autoflex.api.dtos.request.AvailableProductionRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductComponentRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductRequest;
+import dev.test.projedata.autoflex.api.dtos.request.RawMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.response.ProductProductionResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductResponse;
+import dev.test.projedata.autoflex.api.dtos.response.RawMaterialResponse;
+import dev.test.projedata.autoflex.api.repository.ProductRepository;
+import dev.test.projedata.autoflex.api.service.ProductService;
+import dev.test.projedata.autoflex.api.service.RawMaterialService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AvailableProductionIT {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private RawMaterialService rawMaterialService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void aggregateQueryAndEngine_shouldReturnSameCapacities() {
+        RawMaterialResponse rm1 = rawMaterialService.insert(new RawMaterialRequest("aco", new BigDecimal("100.5")));
+        RawMaterialResponse rm2 = rawMaterialService.insert(new RawMaterialRequest("tinta", new BigDecimal("7")));
+
+        ProductResponse p1 = productService.insert(new ProductRequest("cadeira", new BigDecimal("80.00")));
+        ProductResponse p2 = productService.insert(new ProductRequest("mesa", new BigDecimal("300.00")));
+        ProductResponse p3 = productService.insert(new ProductRequest("sem materiais", new BigDecimal("10.00")));
+
+        productService.addMaterial(p1.id(), new ProductMaterialRequest(rm1.id(), new BigDecimal("2.5")));
+        productService.addMaterial(p1.id(), new ProductMaterialRequest(rm2.id(), new BigDecimal("0.3")));
+        productService.addMaterial(p2.id(), new ProductMaterialRequest(rm1.id(), new BigDecimal("12")));
+
+        ProductResponse p4 = productService.insert(new ProductRequest("kit", new BigDecimal("200.00")));
+        productService.addComponent(p4.id(), new ProductComponentRequest(p1.id(), new BigDecimal("2")));
+        productService.addMaterial(p4.id(), new ProductMaterialRequest(rm2.id(), new BigDecimal("1")));
+
+        Map<Long, ProductProductionResponse> fromEngine = byProductId(productService.getAvailableProduction(new AvailableProductionRequest(null, null, null, null, null)));
+        Map<Long, ProductProductionResponse> fromDatabase = byProductId(productRepository.findAvailableProduction().stream()
+                .map(v -> new ProductProductionResponse(v.getProductId(), v.getProductName(), v.getMaxProductProduction()))
+                .toList());
+
+        for (Long id : List.of(p1.id(), p2.id(), p3.id(), p4.id())) {
+            assertEquals(fromEngine.get(id), fromDatabase.get(id));
+        }
+        assertEquals(23, fromDatabase.get(p1.id()).maxProductProduction());
+        assertEquals(8, fromDatabase.get(p2.id()).maxProductProduction());
+        assertEquals(0, fromDatabase.get(p3.id()).maxProductProduction());
+        assertEquals(4, fromDatabase.get(p4.id()).maxProductProduction());
+    }
+
+    @Test
+    void aggregateQuery_whenBillOfMaterialsIsDeep_shouldKeepTheExactRequirement() {
+        RawMaterialResponse rm = rawMaterialService.insert(new RawMaterialRequest("fio fino", new BigDecimal("1.00")));
+
+        // Six levels of 0.11 need 0.11^6 = 0.000001771561 per unit: scale 12.
+        ProductResponse leaf = productService.insert(new ProductRequest("nivel 6", new BigDecimal("1.00")));
+        productService.addMaterial(leaf.id(), new ProductMaterialRequest(rm.id(), new BigDecimal("0.11")));
+        ProductResponse root = leaf;
+        for (int level = 5; level >= 1; level--) {
+            ProductResponse parent = productService.insert(new ProductRequest("nivel " + level, new BigDecimal("1.00")));
+            productService.addComponent(parent.id(), new ProductComponentRequest(root.id(), new BigDecimal("0.11")));
+            root = parent;
+        }
+
+        Map<Long, ProductProductionResponse> fromEngine = byProductId(productService.getAvailableProduction(new AvailableProductionRequest(null, null, null, null, null)));
+        Map<Long, ProductProductionResponse> fromDatabase = byProductId(productRepository.findAvailableProduction().stream()
+                .map(v -> new ProductProductionResponse(v.getProductId(), v.getProductName(), v.getMaxProductProduction()))
+                .toList());
+
+        assertEquals(564473, fromDatabase.get(root.id()).maxProductProduction());
+        assertEquals(fromEngine.get(root.id()), fromDatabase.get(root.id()));
+    }
+
+    @Test
+    void aggregateQuery_whenComponentRowsFormACycle_shouldStillTerminate() {
+        RawMaterialResponse rm = rawMaterialService.insert(new RawMaterialRequest("ciclo", new BigDecimal("10")));
+        ProductResponse a = productService.insert(new ProductRequest("ciclo a", new BigDecimal("10.00")));
+        ProductResponse b = productService.insert(new ProductRequest("ciclo b", new BigDecimal("10.00")));
+        productService.addMaterial(b.id(), new ProductMaterialRequest(rm.id(), new BigDecimal("2")));
+        productService.addComponent(a.id(), new ProductComponentRequest(b.id(), BigDecimal.ONE));
+
+        // A row written behind the service's back closes the cycle b -> a.
+        jdbcTemplate.update("INSERT INTO product_component (id, version, product_id, component_id, quantity_required) "
+                + "VALUES (NEXT VALUE FOR product_component_seq, 0, ?, ?, 1)", b.id(), a.id());
+        try {
+            Map<Long, ProductProductionResponse> fromDatabase = byProductId(productRepository.findAvailableProduction().stream()
+                    .map(v -> new ProductProductionResponse(v.getProductId(), v.getProductName(), v.getMaxProductProduction()))
+                    .toList());
+
+            assertEquals(5, fromDatabase.get(a.id()).maxProductProduction());
+            assertEquals(5, fromDatabase.get(b.id()).maxProductProduction());
+        } finally {
+            jdbcTemplate.update("DELETE FROM product_component WHERE product_id = ? AND component_id = ?", b.id(), a.id());
+        }
+    }
+
+    private Map<Long, ProductProductionResponse> byProductId(List<ProductProductionResponse> capacities) {
+        return capacities.stream().collect(Collectors.toMap(ProductProductionResponse::productId, Function.identity()));
+    }
+}
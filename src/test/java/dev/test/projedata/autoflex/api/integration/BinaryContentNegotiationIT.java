@@ -0,0 +1,101 @@
+package dev.test.projedata.autoflex.api.integration;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import dev.test.projedata.autoflex.api.dtos.request.ProductMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductRequest;
+import dev.test.projedata.autoflex.api.dtos.request.RawMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.response.ProductResponse;
+import dev.test.projedata.autoflex.api.dtos.response.RawMaterialResponse;
+import dev.test.projedata.autoflex.api.service.ProductService;
+import dev.test.projedata.autoflex.api.service.RawMaterialService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BinaryContentNegotiationIT {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private RawMaterialService rawMaterialService;
+
+    @Test
+    void shouldServeProductInCborKeepingDecimalScale() throws Exception {
+        ProductResponse product = insertProduct("cinto cbor");
+
+        byte[] body = mockMvc.perform(get("/products/{id}", product.id()).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        ProductResponse decoded = new CBORMapper().readValue(body, ProductResponse.class);
+        assertEquals(new BigDecimal("120.50"), decoded.price());
+        assertEquals(new BigDecimal("2.50"), decoded.materials().getFirst().quantityRequired());
+    }
+
+    @Test
+    void shouldServeProductPageInSmileKeepingDecimalScale() throws Exception {
+        ProductResponse product = insertProduct("cinto smile");
+
+        byte[] body = mockMvc.perform(get("/products").param("size", "100").accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        ProductPage page = new SmileMapper().readValue(body, ProductPage.class);
+        ProductResponse decoded = page.content().stream().filter(p -> p.id().equals(product.id())).findFirst().orElseThrow();
+        assertEquals(new BigDecimal("120.50"), decoded.price());
+        assertEquals(new BigDecimal("2.50"), decoded.materials().getFirst().quantityRequired());
+    }
+
+    @Test
+    void shouldKeepJsonAsDefaultAndTagFormatsApart() throws Exception {
+        String json = mockMvc.perform(get("/rawMaterials"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String cbor = mockMvc.perform(get("/rawMaterials").accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, json))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotEquals(json, cbor);
+    }
+
+    private ProductResponse insertProduct(String name) {
+        RawMaterialResponse rm = rawMaterialService.insert(new RawMaterialRequest("fivela " + name, new BigDecimal("10")));
+        ProductResponse product = productService.insert(new ProductRequest(name, new BigDecimal("120.50")));
+        productService.addMaterial(product.id(), new ProductMaterialRequest(rm.id(), new BigDecimal("2.50")));
+        return product;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record ProductPage(List<ProductResponse> content) {
+    }
+}
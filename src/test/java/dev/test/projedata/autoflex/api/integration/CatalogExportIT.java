@@ -0,0 +1,108 @@
+package dev.test.projedata.autoflex.api.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.test.projedata.autoflex.api.dtos.request.ProductComponentRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductRequest;
+import dev.test.projedata.autoflex.api.dtos.request.RawMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.response.ProductResponse;
+import dev.test.projedata.autoflex.api.dtos.response.RawMaterialResponse;
+import dev.test.projedata.autoflex.api.service.ProductService;
+import dev.test.projedata.autoflex.api.service.RawMaterialService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CatalogExportIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RawMaterialService rawMaterialService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void shouldExportRawMaterialsAsCsvWithImportHeaders() throws Exception {
+        RawMaterialResponse rm = rawMaterialService.insert(new RawMaterialRequest("export \"cola\", forte", new BigDecimal("12.50")));
+
+        String body = export("/export/rawMaterials", MediaType.ALL);
+
+        String[] lines = body.split("\n");
+        assertEquals("id,name,stockQuantity", lines[0]);
+        assertTrue(Arrays.asList(lines).contains(rm.id() + ",\"export \"\"cola\"\", forte\",12.50"), body);
+    }
+
+    @Test
+    void shouldExportRawMaterialsAsNdjson() throws Exception {
+        RawMaterialResponse rm = rawMaterialService.insert(new RawMaterialRequest("export ndjson", new BigDecimal("3")));
+
+        String body = export("/export/rawMaterials", MediaType.APPLICATION_NDJSON);
+
+        assertTrue(body.endsWith("}\n"), body);
+        for (String line : body.split("\n")) assertTrue(line.startsWith("{") && line.endsWith("}"), line);
+
+        boolean found = false;
+        for (String line : body.split("\n")) {
+            JsonNode row = objectMapper.readTree(line);
+            if (row.get("id").asLong() == rm.id()) {
+                assertEquals("export ndjson", row.get("name").asText());
+                assertEquals(0, new BigDecimal("3").compareTo(row.get("stockQuantity").decimalValue()));
+                found = true;
+            }
+        }
+        assertTrue(found, body);
+    }
+
+    @Test
+    void shouldExportProductComponentsAsCsvWithImportHeaders() throws Exception {
+        ProductResponse kit = productService.insert(new ProductRequest("export kit", new BigDecimal("20.00")));
+        ProductResponse part = productService.insert(new ProductRequest("export peca", new BigDecimal("2.00")));
+        productService.addComponent(kit.id(), new ProductComponentRequest(part.id(), new BigDecimal("3")));
+
+        String body = export("/export/productComponents", MediaType.ALL);
+
+        String[] lines = body.split("\n");
+        assertEquals("productId,componentId,quantityRequired", lines[0]);
+        assertTrue(Arrays.asList(lines).contains(kit.id() + "," + part.id() + ",3.00"), body);
+    }
+
+    @Test
+    void shouldReturnNotFoundForUnknownDataset() throws Exception {
+        mockMvc.perform(get("/export/customers"))
+                .andExpect(status().isNotFound());
+    }
+
+    private String export(String path, MediaType accept) throws Exception {
+        MvcResult result = mockMvc.perform(get(path).accept(accept))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
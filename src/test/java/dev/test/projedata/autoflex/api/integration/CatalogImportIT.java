@@ -0,0 +1,142 @@
+package dev.test.projedata.autoflex.api.integration;
+
+import dev.test.projedata.autoflex.api.domain.Product;
+import dev.test.projedata.autoflex.api.domain.RawMaterial;
+import dev.test.projedata.autoflex.api.dtos.request.AvailableProductionRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductRequest;
+import dev.test.projedata.autoflex.api.dtos.response.ImportErrorResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ImportSummaryResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductProductionResponse;
+import dev.test.projedata.autoflex.api.repository.ProductRepository;
+import dev.test.projedata.autoflex.api.repository.RawMaterialRepository;
+import dev.test.projedata.autoflex.api.service.CatalogImportService;
+import dev.test.projedata.autoflex.api.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "autoflex.import.chunk-size=2")
+@ActiveProfiles("test")
+class CatalogImportIT {
+
+    private static final MediaType TEXT_CSV = MediaType.valueOf("text/csv");
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private RawMaterialRepository rawMaterialRepository;
+
+    @Test
+    void importCatalog_shouldPersistValidRowsAndReportTheRest() {
+        ImportSummaryResponse rawMaterials = catalogImportService.importRawMaterials(body("""
+                name,stockQuantity
+                import aco,100
+                import tinta,-1
+                import cola,30
+                """), TEXT_CSV);
+
+        assertEquals(3, rawMaterials.received());
+        assertEquals(2, rawMaterials.imported());
+        assertEquals(List.of(new ImportErrorResponse(2, "stockQuantity: must be greater than zero")), rawMaterials.errors());
+
+        ImportSummaryResponse products = catalogImportService.importProducts(body("""
+                [{"name": "import cadeira", "price": 80.00},
+                 {"name": "", "price": 10.00},
+                 {"name": "import mesa", "price": 300.00}]
+                """), MediaType.APPLICATION_JSON);
+
+        assertEquals(2, products.imported());
+        assertEquals(1, products.rejected());
+
+        Map<String, Long> rm = rawMaterialRepository.findAll().stream()
+                .collect(Collectors.toMap(RawMaterial::getName, RawMaterial::getId, (a, b) -> a));
+        Map<String, Long> p = productRepository.findAll().stream()
+                .collect(Collectors.toMap(Product::getName, Product::getId, (a, b) -> a));
+        Long chair = p.get("import cadeira");
+        Long table = p.get("import mesa");
+
+        ImportSummaryResponse productMaterials = catalogImportService.importProductMaterials(body("""
+                productId,rawMaterialId,quantityRequired
+                %d,%d,10
+                %d,%d,3
+                %d,%d,25
+                %d,%d,1
+                999999,%d,1
+                """.formatted(chair, rm.get("import aco"), chair, rm.get("import cola"), table, rm.get("import aco"),
+                chair, rm.get("import aco"), rm.get("import aco"))), TEXT_CSV);
+
+        assertEquals(5, productMaterials.received());
+        assertEquals(3, productMaterials.imported());
+        assertEquals(List.of(
+                new ImportErrorResponse(4, "Material already associated with this product"),
+                new ImportErrorResponse(5, "Product not found. Id: 999999")), productMaterials.errors());
+
+        Map<Long, Integer> capacities = productService.getAvailableProduction(new AvailableProductionRequest(null, null, null, List.of(chair, table), null)).stream()
+                .collect(Collectors.toMap(ProductProductionResponse::productId, ProductProductionResponse::maxProductProduction));
+        assertEquals(Map.of(chair, 10, table, 4), capacities);
+    }
+
+    @Test
+    void importProductComponents_shouldRefuseUnknownIdsDuplicatesAndCycles() {
+        Long kit = productService.insert(new ProductRequest("import kit", new BigDecimal("200.00"))).id();
+        Long chair = productService.insert(new ProductRequest("import cadeira do kit", new BigDecimal("80.00"))).id();
+        Long leg = productService.insert(new ProductRequest("import perna", new BigDecimal("5.00"))).id();
+
+        ImportSummaryResponse summary = catalogImportService.importProductComponents(body("""
+                productId,componentId,quantityRequired
+                %d,%d,2
+                %d,%d,4
+                %d,%d,1
+                %d,%d,1
+                %d,999999,1
+                """.formatted(kit, chair, chair, leg, leg, kit, kit, chair, kit)), TEXT_CSV);
+
+        assertEquals(5, summary.received());
+        assertEquals(2, summary.imported());
+        assertEquals(List.of(
+                new ImportErrorResponse(3, "Cannot add component: it would create a cycle in the bill of materials"),
+                new ImportErrorResponse(4, "Component already associated with this product"),
+                new ImportErrorResponse(5, "Product not found. Id: 999999")), summary.errors());
+        assertEquals(1, productService.findById(kit).components().size());
+        assertEquals(1, productService.findById(chair).components().size());
+    }
+
+    @Test
+    void importRawMaterials_whenDocumentBreaks_shouldKeepRowsReadBeforeIt() {
+        ImportSummaryResponse summary = catalogImportService.importRawMaterials(body("""
+                [{"name": "import parafuso", "stockQuantity": 5},
+                 {"name": "import porca", "stockQuantity": 5},
+                 {"name": "import arruela", "stockQuantity": 5},
+                 {"name": "import broken"
+                """), MediaType.APPLICATION_JSON);
+
+        assertEquals(3, summary.imported());
+        assertEquals(0, summary.rejected());
+        assertEquals(4, summary.errors().getFirst().row());
+        assertTrue(summary.errors().getFirst().message().startsWith("Malformed input"));
+    }
+
+    private InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,55 @@
+package dev.test.projedata.autoflex.api.integration;
+
+import dev.test.projedata.autoflex.api.dtos.request.ProductMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductRequest;
+import dev.test.projedata.autoflex.api.dtos.request.RawMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.request.StockAdjustmentRequest;
+import dev.test.projedata.autoflex.api.dtos.response.ProductResponse;
+import dev.test.projedata.autoflex.api.dtos.response.RawMaterialResponse;
+import dev.test.projedata.autoflex.api.exceptions.InsufficientStockException;
+import dev.test.projedata.autoflex.api.service.ProductService;
+import dev.test.projedata.autoflex.api.service.RawMaterialService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CatalogResponseCacheIT {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private RawMaterialService rawMaterialService;
+
+    @Test
+    void findById_afterRawMaterialRenamed_shouldShowNewNameInsideProduct() {
+        RawMaterialResponse rm = rawMaterialService.insert(new RawMaterialRequest("couro", new BigDecimal("10")));
+        ProductResponse p = productService.insert(new ProductRequest("bolsa", new BigDecimal("120.00")));
+        productService.addMaterial(p.id(), new ProductMaterialRequest(rm.id(), new BigDecimal("2")));
+        assertEquals("couro", productService.findById(p.id()).materials().getFirst().rawMaterialName());
+
+        rawMaterialService.update(rm.id(), new RawMaterialRequest("couro sintetico", null), null);
+
+        assertEquals("couro sintetico", productService.findById(p.id()).materials().getFirst().rawMaterialName());
+        assertEquals("couro sintetico", rawMaterialService.findById(rm.id()).name());
+    }
+
+    @Test
+    void findById_afterRefusedAdjustment_shouldKeepCommittedStock() {
+        RawMaterialResponse rm = rawMaterialService.insert(new RawMaterialRequest("linha", new BigDecimal("5")));
+        rawMaterialService.findById(rm.id());
+
+        rawMaterialService.adjustStock(rm.id(), new StockAdjustmentRequest(new BigDecimal("3")));
+        assertThrows(InsufficientStockException.class, () -> rawMaterialService.adjustStock(rm.id(), new StockAdjustmentRequest(new BigDecimal("-9"))));
+
+        assertEquals(0, new BigDecimal("8").compareTo(rawMaterialService.findById(rm.id()).stockQuantity()));
+    }
+}
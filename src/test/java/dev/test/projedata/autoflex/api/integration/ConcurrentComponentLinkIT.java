@@ -0,0 +1,75 @@
+package dev.test.projedata.autoflex.api.integration;
+
+import dev.test.projedata.autoflex.api.dtos.request.ProductComponentRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductRequest;
+import dev.test.projedata.autoflex.api.dtos.response.ProductResponse;
+import dev.test.projedata.autoflex.api.exceptions.DatabaseException;
+import dev.test.projedata.autoflex.api.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ConcurrentComponentLinkIT {
+
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private ProductService productService;
+
+    /*
+     * Each round links A -> B and B -> A at the same moment. Either link alone is valid; together they
+     * close a cycle, so exactly one of them must be refused.
+     */
+    @Test
+    void addComponent_whenBothDirectionsAreLinkedConcurrently_shouldRefuseOne() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                ProductResponse a = productService.insert(new ProductRequest("ciclo a " + round, new BigDecimal("10.00")));
+                ProductResponse b = productService.insert(new ProductRequest("ciclo b " + round, new BigDecimal("10.00")));
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> links = List.of(
+                        executor.submit(() -> link(start, a.id(), b.id())),
+                        executor.submit(() -> link(start, b.id(), a.id())));
+                start.countDown();
+
+                int refused = 0;
+                for (Future<?> link : links) {
+                    try {
+                        link.get();
+                    } catch (ExecutionException e) {
+                        assertInstanceOf(DatabaseException.class, e.getCause());
+                        refused++;
+                    }
+                }
+
+                assertEquals(1, refused, "round " + round);
+                int linked = productService.findById(a.id()).components().size() + productService.findById(b.id()).components().size();
+                assertEquals(1, linked, "round " + round);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Void link(CountDownLatch start, Long productId, Long componentId) throws InterruptedException {
+        start.await();
+        productService.addComponent(productId, new ProductComponentRequest(componentId, BigDecimal.ONE));
+        return null;
+    }
+}
@@ -0,0 +1,122 @@
+package dev.test.projedata.autoflex.api.integration;
+
+import dev.test.projedata.autoflex.api.dtos.request.ProductMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductRequest;
+import dev.test.projedata.autoflex.api.dtos.request.RawMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.response.ProductResponse;
+import dev.test.projedata.autoflex.api.dtos.response.RawMaterialResponse;
+import dev.test.projedata.autoflex.api.service.ProductService;
+import dev.test.projedata.autoflex.api.service.RawMaterialService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"spring.datasource.hikari.maximum-pool-size=2", "autoflex.concurrency.enabled=false"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConnectionReleaseIT {
+
+    private static final AtomicInteger bodiesWritten = new AtomicInteger();
+    private static final AtomicInteger bodiesWrittenHoldingResources = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private RawMaterialService rawMaterialService;
+
+    @Test
+    void readEndpoints_underConcurrentLoad_shouldReleaseConnectionBeforeWritingResponse() throws Exception {
+        RawMaterialResponse rawMaterial = rawMaterialService.insert(new RawMaterialRequest("vidro", new BigDecimal("40")));
+        ProductResponse product = productService.insert(new ProductRequest("janela", new BigDecimal("90.00")));
+        productService.addMaterial(product.id(), new ProductMaterialRequest(rawMaterial.id(), new BigDecimal("4")));
+
+        List<String> urls = List.of("/products", "/products/" + product.id(), "/rawMaterials", "/rawMaterials/" + rawMaterial.id());
+        bodiesWritten.set(0);
+        bodiesWrittenHoldingResources.set(0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> requests = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                String url = urls.get(i % urls.size());
+                requests.add(executor.submit(() -> mockMvc.perform(get(url)).andExpect(status().isOk())));
+            }
+            for (Future<?> request : requests) request.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(400, bodiesWritten.get());
+        assertEquals(0, bodiesWrittenHoldingResources.get());
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        ResourceTrackingAdvice resourceTrackingAdvice(EntityManagerFactory entityManagerFactory, DataSource dataSource) {
+            return new ResourceTrackingAdvice(entityManagerFactory, dataSource);
+        }
+    }
+
+    // Runs on the request thread right before Jackson writes the body.
+    @ControllerAdvice
+    static class ResourceTrackingAdvice implements ResponseBodyAdvice<Object> {
+
+        private final EntityManagerFactory entityManagerFactory;
+        private final DataSource dataSource;
+
+        ResourceTrackingAdvice(EntityManagerFactory entityManagerFactory, DataSource dataSource) {
+            this.entityManagerFactory = entityManagerFactory;
+            this.dataSource = dataSource;
+        }
+
+        @Override
+        public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+            return true;
+        }
+
+        @Override
+        public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                      Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                      ServerHttpRequest request, ServerHttpResponse response) {
+            bodiesWritten.incrementAndGet();
+            if (TransactionSynchronizationManager.hasResource(entityManagerFactory)
+                    || TransactionSynchronizationManager.hasResource(dataSource)) {
+                bodiesWrittenHoldingResources.incrementAndGet();
+            }
+            return body;
+        }
+    }
+}
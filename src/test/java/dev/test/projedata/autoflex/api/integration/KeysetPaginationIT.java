@@ -0,0 +1,45 @@
+package dev.test.projedata.autoflex.api.integration;
+
+import dev.test.projedata.autoflex.api.dtos.request.CursorPageRequest;
+import dev.test.projedata.autoflex.api.dtos.request.RawMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.response.CursorPageResponse;
+import dev.test.projedata.autoflex.api.dtos.response.RawMaterialResponse;
+import dev.test.projedata.autoflex.api.service.RawMaterialService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class KeysetPaginationIT {
+
+    @Autowired
+    private RawMaterialService rawMaterialService;
+
+    @Test
+    void findAllByCursor_whenNamesRepeat_shouldVisitEveryRowExactlyOnceInOrder() {
+        List<RawMaterialResponse> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            expected.add(rawMaterialService.insert(new RawMaterialRequest("keyset " + (i % 3), BigDecimal.TEN)));
+        }
+        expected.sort(Comparator.comparing(RawMaterialResponse::name).thenComparing(RawMaterialResponse::id));
+
+        List<RawMaterialResponse> visited = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPageResponse<RawMaterialResponse> slice = rawMaterialService.findAllByCursor(new CursorPageRequest(after, 2));
+            slice.content().stream().filter(rm -> rm.name().startsWith("keyset ")).forEach(visited::add);
+            after = slice.nextCursor();
+        } while (after != null);
+
+        assertEquals(expected.stream().map(RawMaterialResponse::id).toList(), visited.stream().map(RawMaterialResponse::id).toList());
+    }
+}
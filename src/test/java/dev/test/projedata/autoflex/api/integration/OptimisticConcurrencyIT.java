@@ -0,0 +1,91 @@
+package dev.test.projedata.autoflex.api.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.test.projedata.autoflex.api.dtos.request.RawMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.request.StockAdjustmentRequest;
+import dev.test.projedata.autoflex.api.dtos.response.RawMaterialResponse;
+import dev.test.projedata.autoflex.api.service.RawMaterialService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OptimisticConcurrencyIT {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RawMaterialService rawMaterialService;
+
+    @Test
+    void shouldRejectUpdateWithStaleIfMatch() throws Exception {
+        RawMaterialResponse rm = rawMaterialService.insert(new RawMaterialRequest("versionada", new BigDecimal("10")));
+
+        mockMvc.perform(get("/rawMaterials/{id}", rm.id()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+
+        mockMvc.perform(put("/rawMaterials/{id}", rm.id())
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RawMaterialRequest("versionada", new BigDecimal("20")))))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.version").value(1));
+
+        mockMvc.perform(put("/rawMaterials/{id}", rm.id())
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RawMaterialRequest("versionada", new BigDecimal("99")))))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/rawMaterials/{id}", rm.id()))
+                .andExpect(jsonPath("$.stockQuantity").value(20));
+    }
+
+    @Test
+    void shouldRejectUpdateWithWeakIfMatch() throws Exception {
+        RawMaterialResponse rm = rawMaterialService.insert(new RawMaterialRequest("fraca", new BigDecimal("10")));
+
+        mockMvc.perform(put("/rawMaterials/{id}", rm.id())
+                        .header(HttpHeaders.IF_MATCH, "W/\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RawMaterialRequest("fraca", new BigDecimal("20")))))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/rawMaterials/{id}", rm.id()))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(jsonPath("$.stockQuantity").value(10));
+    }
+
+    @Test
+    void stockAdjustment_shouldInvalidatePreviouslyReadETag() throws Exception {
+        RawMaterialResponse rm = rawMaterialService.insert(new RawMaterialRequest("ajustada", new BigDecimal("10")));
+        rawMaterialService.adjustStock(rm.id(), new StockAdjustmentRequest(new BigDecimal("5")));
+
+        mockMvc.perform(put("/rawMaterials/{id}", rm.id())
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RawMaterialRequest("ajustada", new BigDecimal("10")))))
+                .andExpect(status().isPreconditionFailed());
+    }
+}
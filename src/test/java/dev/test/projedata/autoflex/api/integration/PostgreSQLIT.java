@@ -0,0 +1,185 @@
+package dev.test.projedata.autoflex.api.integration;
+
+import dev.test.projedata.autoflex.api.dtos.request.AvailableProductionRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductComponentRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductRequest;
+import dev.test.projedata.autoflex.api.dtos.request.RawMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.response.ProductProductionResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductResponse;
+import dev.test.projedata.autoflex.api.dtos.response.RawMaterialResponse;
+import dev.test.projedata.autoflex.api.exceptions.DatabaseException;
+import dev.test.projedata.autoflex.api.repository.ProductRepository;
+import dev.test.projedata.autoflex.api.service.CatalogExportService;
+import dev.test.projedata.autoflex.api.service.ExportDataset;
+import dev.test.projedata.autoflex.api.service.ProductService;
+import dev.test.projedata.autoflex.api.service.RawMaterialService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs the native queries and the COPY export against the database they are written for; H2 accepts a
+// looser dialect and never takes the COPY path.
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+class PostgreSQLIT {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.driverClassName", POSTGRES::getDriverClassName);
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private RawMaterialService rawMaterialService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CatalogExportService catalogExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void findAvailableProduction_shouldMatchEngineWithScaleTwoQuantitiesAndSubAssemblies() {
+        RawMaterialResponse rm1 = rawMaterialService.insert(new RawMaterialRequest("aco pg", new BigDecimal("100.55")));
+        RawMaterialResponse rm2 = rawMaterialService.insert(new RawMaterialRequest("tinta pg", new BigDecimal("7.25")));
+
+        ProductResponse chair = productService.insert(new ProductRequest("cadeira pg", new BigDecimal("80.00")));
+        ProductResponse clip = productService.insert(new ProductRequest("presilha pg", new BigDecimal("1.00")));
+        ProductResponse empty = productService.insert(new ProductRequest("sem materiais pg", new BigDecimal("10.00")));
+        ProductResponse kit = productService.insert(new ProductRequest("kit pg", new BigDecimal("200.00")));
+        ProductResponse pallet = productService.insert(new ProductRequest("palete pg", new BigDecimal("500.00")));
+
+        productService.addMaterial(chair.id(), new ProductMaterialRequest(rm1.id(), new BigDecimal("2.35")));
+        productService.addMaterial(chair.id(), new ProductMaterialRequest(rm2.id(), new BigDecimal("0.35")));
+        productService.addMaterial(clip.id(), new ProductMaterialRequest(rm1.id(), new BigDecimal("0.01")));
+        productService.addComponent(kit.id(), new ProductComponentRequest(chair.id(), new BigDecimal("3")));
+        productService.addMaterial(kit.id(), new ProductMaterialRequest(rm2.id(), new BigDecimal("0.05")));
+        productService.addComponent(pallet.id(), new ProductComponentRequest(kit.id(), new BigDecimal("2")));
+
+        Map<Long, ProductProductionResponse> fromEngine = byProductId(productService.getAvailableProduction(new AvailableProductionRequest(null, null, null, null, null)));
+        Map<Long, ProductProductionResponse> fromDatabase = byProductId(productRepository.findAvailableProduction().stream()
+                .map(v -> new ProductProductionResponse(v.getProductId(), v.getProductName(), v.getMaxProductProduction()))
+                .toList());
+
+        assertEquals(fromEngine, fromDatabase);
+        assertEquals(20, fromDatabase.get(chair.id()).maxProductProduction());
+        assertEquals(10055, fromDatabase.get(clip.id()).maxProductProduction());
+        assertEquals(0, fromDatabase.get(empty.id()).maxProductProduction());
+        assertEquals(6, fromDatabase.get(kit.id()).maxProductProduction());
+        assertEquals(3, fromDatabase.get(pallet.id()).maxProductProduction());
+    }
+
+    @Test
+    void exportCsv_shouldStreamThroughCopyWithImportHeadersAndCsvQuoting() throws Exception {
+        RawMaterialResponse rm = rawMaterialService.insert(new RawMaterialRequest("copy \"cola\", forte", new BigDecimal("12.5")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        catalogExportService.exportCsv(ExportDataset.RAW_MATERIALS, out);
+
+        String body = out.toString(StandardCharsets.UTF_8);
+        String[] lines = body.split("\n");
+        assertEquals("id,name,stockQuantity", lines[0]);
+        assertTrue(Arrays.asList(lines).contains(rm.id() + ",\"copy \"\"cola\"\", forte\",12.50"), body);
+        assertTrue(body.endsWith("\n"), body);
+    }
+
+    @Test
+    void addComponent_whenBothDirectionsAreLinkedConcurrently_shouldRefuseOneThroughTheAdvisoryLock() throws Exception {
+        ProductResponse a = productService.insert(new ProductRequest("ciclo a pg", new BigDecimal("10.00")));
+        ProductResponse b = productService.insert(new ProductRequest("ciclo b pg", new BigDecimal("10.00")));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> links = List.of(
+                    executor.submit(() -> link(start, a.id(), b.id())),
+                    executor.submit(() -> link(start, b.id(), a.id())));
+            start.countDown();
+
+            int refused = 0;
+            for (Future<?> link : links) {
+                try {
+                    link.get();
+                } catch (ExecutionException e) {
+                    assertInstanceOf(DatabaseException.class, e.getCause());
+                    refused++;
+                }
+            }
+            assertEquals(1, refused);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void findAvailableProduction_whenComponentRowsFormACycle_shouldStillTerminate() {
+        RawMaterialResponse rm = rawMaterialService.insert(new RawMaterialRequest("ciclo pg", new BigDecimal("10")));
+        ProductResponse a = productService.insert(new ProductRequest("laco a pg", new BigDecimal("10.00")));
+        ProductResponse b = productService.insert(new ProductRequest("laco b pg", new BigDecimal("10.00")));
+        productService.addMaterial(b.id(), new ProductMaterialRequest(rm.id(), new BigDecimal("2")));
+        productService.addComponent(a.id(), new ProductComponentRequest(b.id(), BigDecimal.ONE));
+
+        jdbcTemplate.update("INSERT INTO product_component (id, version, product_id, component_id, quantity_required) "
+                + "VALUES (nextval('product_component_seq'), 0, ?, ?, 1)", b.id(), a.id());
+        try {
+            Map<Long, ProductProductionResponse> fromDatabase = byProductId(productRepository.findAvailableProduction().stream()
+                    .map(v -> new ProductProductionResponse(v.getProductId(), v.getProductName(), v.getMaxProductProduction()))
+                    .toList());
+
+            assertEquals(5, fromDatabase.get(a.id()).maxProductProduction());
+            assertEquals(5, fromDatabase.get(b.id()).maxProductProduction());
+        } finally {
+            jdbcTemplate.update("DELETE FROM product_component WHERE product_id = ? AND component_id = ?", b.id(), a.id());
+        }
+    }
+
+    private Void link(CountDownLatch start, Long productId, Long componentId) throws InterruptedException {
+        start.await();
+        productService.addComponent(productId, new ProductComponentRequest(componentId, BigDecimal.ONE));
+        return null;
+    }
+
+    private Map<Long, ProductProductionResponse> byProductId(List<ProductProductionResponse> capacities) {
+        return capacities.stream().collect(Collectors.toMap(ProductProductionResponse::productId, Function.identity()));
+    }
+}
@@ -0,0 +1,70 @@
+package dev.test.projedata.autoflex.api.integration;
+
+import dev.test.projedata.autoflex.api.dtos.request.ProductComponentRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductRequest;
+import dev.test.projedata.autoflex.api.dtos.request.RawMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.response.ProductResponse;
+import dev.test.projedata.autoflex.api.dtos.response.RawMaterialResponse;
+import dev.test.projedata.autoflex.api.service.ProductService;
+import dev.test.projedata.autoflex.api.service.RawMaterialService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class ProductListingQueryCountIT {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private RawMaterialService rawMaterialService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void findAll_shouldIssueConstantNumberOfQueriesPerPage() {
+        RawMaterialResponse rm1 = rawMaterialService.insert(new RawMaterialRequest("madeira", new BigDecimal("500")));
+        RawMaterialResponse rm2 = rawMaterialService.insert(new RawMaterialRequest("parafuso", new BigDecimal("900")));
+
+        ProductResponse previous = null;
+        for (int i = 0; i < 30; i++) {
+            ProductResponse product = productService.insert(new ProductRequest("listagem " + i, new BigDecimal("10.00")));
+            productService.addMaterial(product.id(), new ProductMaterialRequest(rm1.id(), new BigDecimal("2")));
+            productService.addMaterial(product.id(), new ProductMaterialRequest(rm2.id(), new BigDecimal("4")));
+            if (previous != null) productService.addComponent(product.id(), new ProductComponentRequest(previous.id(), BigDecimal.ONE));
+            previous = product;
+        }
+
+        long small = countQueries(PageRequest.of(0, 2, Sort.by("name")));
+        long large = countQueries(PageRequest.of(0, 20, Sort.by("name")));
+
+        assertEquals(small, large);
+        assertTrue(large <= 4, "queries per page: " + large);
+    }
+
+    private long countQueries(PageRequest pageable) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Page<ProductResponse> page = productService.findAll(pageable);
+        page.getContent().forEach(p -> assertTrue(p.materials().size() <= 2));
+
+        return statistics.getPrepareStatementCount();
+    }
+}
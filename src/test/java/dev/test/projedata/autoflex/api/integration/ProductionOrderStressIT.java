@@ -0,0 +1,116 @@
+package dev.test.projedata.autoflex.api.integration;
+
+import dev.test.projedata.autoflex.api.dtos.request.ProductComponentRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductionOrderRequest;
+import dev.test.projedata.autoflex.api.dtos.request.RawMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.response.ProductResponse;
+import dev.test.projedata.autoflex.api.dtos.response.RawMaterialResponse;
+import dev.test.projedata.autoflex.api.exceptions.InsufficientStockException;
+import dev.test.projedata.autoflex.api.service.ProductService;
+import dev.test.projedata.autoflex.api.service.RawMaterialService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductionOrderStressIT {
+
+    private static final int PRODUCERS = 64;
+    private static final int ORDERS_PER_PRODUCER = 5;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private RawMaterialService rawMaterialService;
+
+    /*
+     * Two products share the same materials, linked in opposite orders, and one of them also pulls a
+     * material through a sub-assembly. Stock is enough for fewer orders than are placed, so producers
+     * race for the last units. Every committed order must be fully reflected and no stock may go negative.
+     */
+    @Test
+    void produce_with64ConcurrentProducers_shouldNeitherLoseUpdatesNorOversell() throws Exception {
+        RawMaterialResponse steel = rawMaterialService.insert(new RawMaterialRequest("stress aco", new BigDecimal("500")));
+        RawMaterialResponse paint = rawMaterialService.insert(new RawMaterialRequest("stress tinta", new BigDecimal("300")));
+        RawMaterialResponse screw = rawMaterialService.insert(new RawMaterialRequest("stress parafuso", new BigDecimal("1000")));
+
+        ProductResponse frame = productService.insert(new ProductRequest("stress quadro", new BigDecimal("10.00")));
+        productService.addMaterial(frame.id(), new ProductMaterialRequest(screw.id(), new BigDecimal("4")));
+
+        ProductResponse chair = productService.insert(new ProductRequest("stress cadeira", new BigDecimal("80.00")));
+        productService.addMaterial(chair.id(), new ProductMaterialRequest(steel.id(), new BigDecimal("2")));
+        productService.addMaterial(chair.id(), new ProductMaterialRequest(paint.id(), new BigDecimal("1")));
+        productService.addComponent(chair.id(), new ProductComponentRequest(frame.id(), BigDecimal.ONE));
+
+        ProductResponse table = productService.insert(new ProductRequest("stress mesa", new BigDecimal("300.00")));
+        productService.addMaterial(table.id(), new ProductMaterialRequest(paint.id(), new BigDecimal("2")));
+        productService.addMaterial(table.id(), new ProductMaterialRequest(steel.id(), new BigDecimal("3")));
+
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<int[]>> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            Long productId = p % 2 == 0 ? chair.id() : table.id();
+            producers.add(() -> {
+                start.await();
+                int[] produced = new int[1];
+                for (int i = 0; i < ORDERS_PER_PRODUCER; i++) {
+                    try {
+                        productService.produce(productId, new ProductionOrderRequest(1));
+                        produced[0]++;
+                    } catch (InsufficientStockException e) {
+                        // Expected once the shared stock runs out.
+                    }
+                }
+                return produced;
+            });
+        }
+
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (Callable<int[]> producer : producers) results.add(executor.submit(producer));
+            start.countDown();
+
+            int chairs = 0;
+            int tables = 0;
+            for (int p = 0; p < PRODUCERS; p++) {
+                int produced = results.get(p).get()[0];
+                if (p % 2 == 0) chairs += produced;
+                else tables += produced;
+            }
+
+            BigDecimal steelLeft = stock(steel);
+            BigDecimal paintLeft = stock(paint);
+            BigDecimal screwLeft = stock(screw);
+
+            assertTrue(chairs + tables < PRODUCERS * ORDERS_PER_PRODUCER, "stock should run out before all orders are filled");
+            assertEquals(0, new BigDecimal(500 - 2 * chairs - 3 * tables).compareTo(steelLeft));
+            assertEquals(0, new BigDecimal(300 - chairs - 2 * tables).compareTo(paintLeft));
+            assertEquals(0, new BigDecimal(1000 - 4 * chairs).compareTo(screwLeft));
+            assertTrue(steelLeft.signum() >= 0 && paintLeft.signum() >= 0 && screwLeft.signum() >= 0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private BigDecimal stock(RawMaterialResponse rawMaterial) {
+        return rawMaterialService.findById(rawMaterial.id()).stockQuantity();
+    }
+}
@@ -0,0 +1,93 @@
+package dev.test.projedata.autoflex.api.integration;
+
+import dev.test.projedata.autoflex.api.dtos.request.ProductMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductRequest;
+import dev.test.projedata.autoflex.api.dtos.request.RawMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.request.StockAdjustmentBatchRequest;
+import dev.test.projedata.autoflex.api.dtos.request.StockDeltaRequest;
+import dev.test.projedata.autoflex.api.dtos.response.ProductResponse;
+import dev.test.projedata.autoflex.api.dtos.response.RawMaterialResponse;
+import dev.test.projedata.autoflex.api.repository.RawMaterialRepository;
+import dev.test.projedata.autoflex.api.service.ProductService;
+import dev.test.projedata.autoflex.api.service.RawMaterialService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles({"test", "l2cache"})
+class SecondLevelCacheIT {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private RawMaterialService rawMaterialService;
+
+    @Autowired
+    private RawMaterialRepository rawMaterialRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void findAll_whenRepeatedWithoutWrites_shouldBeServedFromCache() {
+        RawMaterialResponse rm = rawMaterialService.insert(new RawMaterialRequest("vidro", new BigDecimal("50")));
+        for (int i = 0; i < 5; i++) {
+            ProductResponse p = productService.insert(new ProductRequest("janela " + i, new BigDecimal("90.00")));
+            productService.addMaterial(p.id(), new ProductMaterialRequest(rm.id(), new BigDecimal("2")));
+        }
+        PageRequest page = PageRequest.of(0, 5, Sort.by("name"));
+
+        long cold = countStatements(() -> productService.findAll(page));
+        long warm = countStatements(() -> productService.findAll(page));
+
+        assertTrue(warm < cold, "cold: " + cold + ", warm: " + warm);
+    }
+
+    @Test
+    void addMaterial_shouldEvictCachedMaterialsCollection() {
+        RawMaterialResponse rm1 = rawMaterialService.insert(new RawMaterialRequest("aluminio", new BigDecimal("50")));
+        RawMaterialResponse rm2 = rawMaterialService.insert(new RawMaterialRequest("borracha", new BigDecimal("50")));
+        ProductResponse p = productService.insert(new ProductRequest("porta", new BigDecimal("300.00")));
+        productService.addMaterial(p.id(), new ProductMaterialRequest(rm1.id(), new BigDecimal("3")));
+        productService.findAll(PageRequest.of(0, 100, Sort.by("name")));
+
+        productService.addMaterial(p.id(), new ProductMaterialRequest(rm2.id(), BigDecimal.ONE));
+
+        ProductResponse reloaded = productService.findAll(PageRequest.of(0, 100, Sort.by("name"))).getContent().stream()
+                .filter(r -> r.id().equals(p.id()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(2, reloaded.materials().size());
+    }
+
+    @Test
+    void adjustStocks_shouldEvictCachedRawMaterialsWrittenThroughJdbc() {
+        RawMaterialResponse rm = rawMaterialService.insert(new RawMaterialRequest("cola", new BigDecimal("10")));
+        rawMaterialRepository.findById(rm.id());
+
+        rawMaterialService.adjustStocks(new StockAdjustmentBatchRequest(List.of(new StockDeltaRequest(rm.id(), new BigDecimal("-4")))));
+
+        assertEquals(0, new BigDecimal("6").compareTo(rawMaterialRepository.findById(rm.id()).orElseThrow().getStockQuantity()));
+    }
+
+    private long countStatements(Runnable call) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        call.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
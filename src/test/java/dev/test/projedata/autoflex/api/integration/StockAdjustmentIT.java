@@ -0,0 +1,98 @@
+package dev.test.projedata.autoflex.api.integration;
+
+import dev.test.projedata.autoflex.api.dtos.request.RawMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.request.StockAdjustmentBatchRequest;
+import dev.test.projedata.autoflex.api.dtos.request.StockAdjustmentRequest;
+import dev.test.projedata.autoflex.api.dtos.request.StockDeltaRequest;
+import dev.test.projedata.autoflex.api.dtos.response.RawMaterialResponse;
+import dev.test.projedata.autoflex.api.exceptions.InsufficientStockException;
+import dev.test.projedata.autoflex.api.service.RawMaterialService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockAdjustmentIT {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private RawMaterialService rawMaterialService;
+
+    @Test
+    void adjustStock_whenReceiptsRunConcurrently_shouldNotLoseAnyUpdate() throws Exception {
+        RawMaterialResponse rm = rawMaterialService.insert(new RawMaterialRequest("ajuste concorrente", new BigDecimal("10")));
+
+        int succeeded = runConcurrently(400, () -> rawMaterialService.adjustStock(rm.id(), new StockAdjustmentRequest(BigDecimal.ONE)));
+
+        assertEquals(400, succeeded);
+        assertEquals(0, new BigDecimal("410").compareTo(rawMaterialService.findById(rm.id()).stockQuantity()));
+    }
+
+    @Test
+    void adjustStock_whenWithdrawalsExceedStock_shouldStopAtZero() throws Exception {
+        RawMaterialResponse rm = rawMaterialService.insert(new RawMaterialRequest("retirada concorrente", new BigDecimal("50")));
+
+        int succeeded = runConcurrently(120, () -> rawMaterialService.adjustStock(rm.id(), new StockAdjustmentRequest(new BigDecimal("-1"))));
+
+        assertEquals(50, succeeded);
+        assertEquals(0, BigDecimal.ZERO.compareTo(rawMaterialService.findById(rm.id()).stockQuantity()));
+    }
+
+    @Test
+    void adjustStocks_whenOneRowIsRefused_shouldApplyNothing() {
+        RawMaterialResponse rm1 = rawMaterialService.insert(new RawMaterialRequest("lote a", new BigDecimal("10")));
+        RawMaterialResponse rm2 = rawMaterialService.insert(new RawMaterialRequest("lote b", new BigDecimal("10")));
+
+        assertThrows(InsufficientStockException.class, () -> rawMaterialService.adjustStocks(new StockAdjustmentBatchRequest(List.of(
+                new StockDeltaRequest(rm1.id(), new BigDecimal("5")),
+                new StockDeltaRequest(rm2.id(), new BigDecimal("-11"))))));
+
+        assertEquals(0, new BigDecimal("10").compareTo(rawMaterialService.findById(rm1.id()).stockQuantity()));
+
+        List<RawMaterialResponse> adjusted = rawMaterialService.adjustStocks(new StockAdjustmentBatchRequest(List.of(
+                new StockDeltaRequest(rm2.id(), new BigDecimal("-4")),
+                new StockDeltaRequest(rm1.id(), new BigDecimal("5")))));
+
+        assertEquals(List.of(rm1.id(), rm2.id()), adjusted.stream().map(RawMaterialResponse::id).toList());
+        assertEquals(0, new BigDecimal("6").compareTo(adjusted.get(1).stockQuantity()));
+    }
+
+    private int runConcurrently(int calls, Runnable call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<Boolean>> tasks = new ArrayList<>();
+            for (int i = 0; i < calls; i++) {
+                tasks.add(() -> {
+                    try {
+                        call.run();
+                        return true;
+                    } catch (InsufficientStockException e) {
+                        return false;
+                    }
+                });
+            }
+
+            int succeeded = 0;
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                if (result.get()) succeeded++;
+            }
+            return succeeded;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
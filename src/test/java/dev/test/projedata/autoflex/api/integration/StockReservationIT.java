@@ -0,0 +1,119 @@
+package dev.test.projedata.autoflex.api.integration;
+
+import dev.test.projedata.autoflex.api.dtos.request.AvailableProductionRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductionOrderRequest;
+import dev.test.projedata.autoflex.api.dtos.request.RawMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.request.StockAdjustmentRequest;
+import dev.test.projedata.autoflex.api.dtos.request.StockReservationRequest;
+import dev.test.projedata.autoflex.api.dtos.response.ProductResponse;
+import dev.test.projedata.autoflex.api.dtos.response.RawMaterialResponse;
+import dev.test.projedata.autoflex.api.dtos.response.StockReservationResponse;
+import dev.test.projedata.autoflex.api.exceptions.InsufficientStockException;
+import dev.test.projedata.autoflex.api.service.ProductService;
+import dev.test.projedata.autoflex.api.service.RawMaterialService;
+import dev.test.projedata.autoflex.api.service.StockReservationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockReservationIT {
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private RawMaterialService rawMaterialService;
+
+    @Test
+    void reserve_shouldReduceAvailableProductionWithoutChangingStock() {
+        RawMaterialResponse rm = rawMaterialService.insert(new RawMaterialRequest("madeira reservada", new BigDecimal("20")));
+        ProductResponse p = productService.insert(new ProductRequest("banco reservado", new BigDecimal("50.00")));
+        productService.addMaterial(p.id(), new ProductMaterialRequest(rm.id(), new BigDecimal("4")));
+        assertEquals(5, capacityOf(p.id()));
+
+        StockReservationResponse hold = stockReservationService.reserve(new StockReservationRequest(rm.id(), new BigDecimal("9"), 60L));
+
+        assertEquals(2, capacityOf(p.id()));
+        assertEquals(0, new BigDecimal("20").compareTo(rawMaterialService.findById(rm.id()).stockQuantity()));
+
+        stockReservationService.release(hold.id());
+
+        assertEquals(5, capacityOf(p.id()));
+    }
+
+    @Test
+    void consumingWrites_shouldNotTakeHeldStock() {
+        RawMaterialResponse rm = rawMaterialService.insert(new RawMaterialRequest("madeira retida", new BigDecimal("10")));
+        ProductResponse p = productService.insert(new ProductRequest("mesa retida", new BigDecimal("80.00")));
+        productService.addMaterial(p.id(), new ProductMaterialRequest(rm.id(), new BigDecimal("3")));
+
+        StockReservationResponse hold = stockReservationService.reserve(new StockReservationRequest(rm.id(), new BigDecimal("8"), 60L));
+
+        assertThrows(InsufficientStockException.class,
+                () -> rawMaterialService.adjustStock(rm.id(), new StockAdjustmentRequest(new BigDecimal("-5"))));
+        assertThrows(InsufficientStockException.class, () -> productService.produce(p.id(), new ProductionOrderRequest(1)));
+        rawMaterialService.adjustStock(rm.id(), new StockAdjustmentRequest(new BigDecimal("-2")));
+
+        stockReservationService.release(hold.id());
+
+        productService.produce(p.id(), new ProductionOrderRequest(2));
+        assertEquals(0, new BigDecimal("2").compareTo(rawMaterialService.findById(rm.id()).stockQuantity()));
+    }
+
+    @Test
+    void reserve_whenHoldsRunConcurrently_shouldNeverExceedStock() throws Exception {
+        RawMaterialResponse rm = rawMaterialService.insert(new RawMaterialRequest("reserva concorrente", new BigDecimal("100")));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Boolean>> tasks = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                tasks.add(() -> {
+                    try {
+                        stockReservationService.reserve(new StockReservationRequest(rm.id(), BigDecimal.ONE, 60L));
+                        return true;
+                    } catch (InsufficientStockException e) {
+                        return false;
+                    }
+                });
+            }
+
+            int succeeded = 0;
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                if (result.get()) succeeded++;
+            }
+
+            assertEquals(100, succeeded);
+            assertEquals(0, new BigDecimal("100").compareTo(stockReservationService.reservedQuantity(rm.id())));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private int capacityOf(Long productId) {
+        return productService.getAvailableProduction(new AvailableProductionRequest(null, null, null, null, null)).stream()
+                .filter(c -> c.productId().equals(productId))
+                .findFirst()
+                .orElseThrow()
+                .maxProductProduction();
+    }
+}
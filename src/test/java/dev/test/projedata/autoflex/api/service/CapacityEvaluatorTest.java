@@ -0,0 +1,44 @@
+package dev.test.projedata.autoflex.api.service;
+
+import dev.test.projedata.autoflex.api.benchmark.SyntheticCatalog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CapacityEvaluatorTest {
+
+    private final CapacityEvaluator sequential = new CapacityEvaluator(Integer.MAX_VALUE, 1);
+    private final CapacityEvaluator parallel = new CapacityEvaluator(0, 4);
+
+    @AfterEach
+    void tearDown() {
+        sequential.shutdown();
+        parallel.shutdown();
+    }
+
+    @Test
+    void evaluate_whenAboveThreshold_shouldMatchSequentialResultInSameOrder() {
+        // Given
+        CapacityMatrix matrix = SyntheticCatalog.matrix(CapacityEvaluator.CHUNK_ROWS * 10 + 17, 500, 4, 11L);
+
+        // When
+        int[] expected = sequential.evaluate(matrix);
+        int[] result = parallel.evaluate(matrix);
+
+        // Then
+        assertArrayEquals(expected, result);
+    }
+
+    @Test
+    void evaluate_whenMatrixIsEmpty_shouldReturnEmptyArray() {
+        // Given
+        CapacityMatrix matrix = CapacityMatrix.builder(0).build();
+
+        // When
+        int[] result = parallel.evaluate(matrix);
+
+        // Then
+        assertEquals(0, result.length);
+    }
+}
@@ -0,0 +1,114 @@
+package dev.test.projedata.autoflex.api.service;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.RepetitionInfo;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CapacityKernelTest {
+
+    @RepeatedTest(200)
+    void evaluate_whenRandomMatrixAndScales_shouldMatchBigDecimalFloorDivision(RepetitionInfo repetition) {
+        // Given
+        SplittableRandom random = new SplittableRandom(repetition.getCurrentRepetition());
+        int maxScale = random.nextInt(0, 22);
+        long maxUnscaled = random.nextInt(5) == 0 ? Long.MAX_VALUE / 1_000 : 1_000_000;
+
+        int columns = random.nextInt(1, 30);
+        List<BigDecimal> stock = new ArrayList<>();
+        CapacityMatrix.Builder builder = CapacityMatrix.builder(columns);
+        for (int j = 0; j < columns; j++) {
+            BigDecimal quantity = randomDecimal(random, maxScale, maxUnscaled, false);
+            stock.add(quantity);
+            builder.stock(j, quantity);
+        }
+
+        int rows = random.nextInt(0, 200);
+        List<List<Integer>> rowColumns = new ArrayList<>();
+        List<List<BigDecimal>> rowRequired = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            builder.row();
+            List<Integer> cols = new ArrayList<>();
+            List<BigDecimal> reqs = new ArrayList<>();
+
+            int entries = random.nextInt(0, 8);
+            for (int k = 0; k < entries; k++) {
+                int column = random.nextInt(columns);
+                BigDecimal required = randomDecimal(random, maxScale, maxUnscaled, true);
+                builder.entry(column, required);
+                cols.add(column);
+                reqs.add(required);
+            }
+            rowColumns.add(cols);
+            rowRequired.add(reqs);
+        }
+
+        CapacityMatrix matrix = builder.build();
+        int[] capacities = new int[rows];
+
+        // When
+        CapacityKernel.evaluate(matrix, capacities);
+
+        // Then
+        for (int i = 0; i < rows; i++) {
+            int expected = rowRequired.get(i).isEmpty() ? 0 : Integer.MAX_VALUE;
+            for (int k = 0; k < rowRequired.get(i).size(); k++) {
+                BigDecimal available = stock.get(rowColumns.get(i).get(k));
+                expected = Math.min(expected, available.divide(rowRequired.get(i).get(k), 0, RoundingMode.FLOOR).intValue());
+            }
+            assertEquals(expected, capacities[i], "row " + i + " (fixed point: " + matrix.isFixedPoint() + ")");
+        }
+    }
+
+    @Test
+    void build_whenValueDoesNotFitFixedPoint_shouldFallBackToBigDecimal() {
+        // Given
+        CapacityMatrix matrix = CapacityMatrix.builder(1)
+                .stock(0, new BigDecimal("92233720368547758070"))
+                .row().entry(0, new BigDecimal("0.5"))
+                .build();
+        int[] capacities = new int[1];
+
+        // When
+        CapacityKernel.evaluate(matrix, capacities);
+
+        // Then
+        assertFalse(matrix.isFixedPoint());
+        assertEquals(new BigDecimal("184467440737095516140").intValue(), capacities[0]);
+    }
+
+    @Test
+    void build_whenValuesFitFixedPoint_shouldUseFixedPointPath() {
+        // Given
+        CapacityMatrix matrix = CapacityMatrix.builder(2)
+                .stock(0, new BigDecimal("30"))
+                .stock(1, new BigDecimal("15.75"))
+                .row().entry(0, new BigDecimal("5")).entry(1, new BigDecimal("5.25"))
+                .row()
+                .build();
+        int[] capacities = new int[2];
+
+        // When
+        CapacityKernel.evaluate(matrix, capacities);
+
+        // Then
+        assertTrue(matrix.isFixedPoint());
+        assertArrayEquals(new int[]{3, 0}, capacities);
+    }
+
+    private BigDecimal randomDecimal(SplittableRandom random, int maxScale, long maxUnscaled, boolean positive) {
+        int scale = random.nextInt(0, maxScale + 1);
+        BigInteger unscaled = BigInteger.valueOf(random.nextLong(positive ? 1 : 0, maxUnscaled));
+        if (random.nextInt(500) == 0) unscaled = unscaled.multiply(BigInteger.TEN.pow(random.nextInt(1, 25)));
+
+        return new BigDecimal(unscaled, scale);
+    }
+}
@@ -0,0 +1,93 @@
+package dev.test.projedata.autoflex.api.service;
+
+import dev.test.projedata.autoflex.api.dtos.request.AvailableProductionRequest;
+import dev.test.projedata.autoflex.api.dtos.response.ProductProductionResponse;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.RepetitionInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CapacitySelectionTest {
+
+    private final List<ProductProductionResponse> catalog = List.of(
+            new ProductProductionResponse(1L, "prod 1", 3),
+            new ProductProductionResponse(2L, "prod 2", 7),
+            new ProductProductionResponse(3L, "prod 3", 0),
+            new ProductProductionResponse(4L, "prod 4", 7),
+            new ProductProductionResponse(5L, "prod 5", 1));
+
+    @Test
+    void select_whenNoParameters_shouldKeepCatalogOrder() {
+        // When
+        List<ProductProductionResponse> result = select(new AvailableProductionRequest(null, null, null, null, null));
+
+        // Then
+        assertEquals(catalog, result);
+    }
+
+    @Test
+    void select_whenTopKDescending_shouldBreakTiesByProductId() {
+        // When
+        List<ProductProductionResponse> result = select(new AvailableProductionRequest(3, "desc", null, null, null));
+
+        // Then
+        assertEquals(List.of(2L, 4L, 1L), ids(result));
+    }
+
+    @Test
+    void select_whenTopKAscendingWithFilters_shouldApplyFiltersBeforeLimit() {
+        // When
+        List<ProductProductionResponse> result = select(new AvailableProductionRequest(2, "asc", 1, List.of(1L, 3L, 4L, 5L), null));
+
+        // Then
+        assertEquals(List.of(5L, 1L), ids(result));
+    }
+
+    @Test
+    void select_whenLimitWithoutSort_shouldReturnFirstMatchesInCatalogOrder() {
+        // When
+        List<ProductProductionResponse> result = select(new AvailableProductionRequest(2, null, 1, null, null));
+
+        // Then
+        assertEquals(List.of(1L, 2L), ids(result));
+    }
+
+    @RepeatedTest(50)
+    void select_whenRandomCatalog_shouldMatchFullSortThenLimit(RepetitionInfo repetition) {
+        // Given
+        SplittableRandom random = new SplittableRandom(repetition.getCurrentRepetition());
+        int size = random.nextInt(0, 500);
+        List<ProductProductionResponse> products = new ArrayList<>();
+        for (long id = 1; id <= size; id++) products.add(new ProductProductionResponse(id, "prod " + id, random.nextInt(0, 20)));
+
+        int limit = random.nextInt(1, 40);
+        String sort = random.nextBoolean() ? "asc" : "desc";
+
+        Comparator<ProductProductionResponse> byCapacity = Comparator.comparingInt(ProductProductionResponse::maxProductProduction);
+        List<ProductProductionResponse> expected = products.stream()
+                .sorted(("asc".equals(sort) ? byCapacity : byCapacity.reversed()).thenComparingLong(ProductProductionResponse::productId))
+                .limit(limit)
+                .toList();
+
+        // When
+        List<ProductProductionResponse> result = CapacitySelection.select(products, ProductProductionResponse::productId,
+                ProductProductionResponse::maxProductProduction, new AvailableProductionRequest(limit, sort, null, null, null));
+
+        // Then
+        assertEquals(expected, result);
+    }
+
+    private List<ProductProductionResponse> select(AvailableProductionRequest request) {
+        return CapacitySelection.select(catalog, ProductProductionResponse::productId, ProductProductionResponse::maxProductProduction, request);
+    }
+
+    private List<Long> ids(List<ProductProductionResponse> products) {
+        return products.stream().map(ProductProductionResponse::productId).toList();
+    }
+}
@@ -0,0 +1,120 @@
+package dev.test.projedata.autoflex.api.service;
+
+import dev.test.projedata.autoflex.api.dtos.response.CacheStatsResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductComponentResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductMaterialResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductResponse;
+import dev.test.projedata.autoflex.api.dtos.response.RawMaterialResponse;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogResponseCacheTest {
+
+    private final CatalogResponseCache cache = new CatalogResponseCache(100, Duration.ofMinutes(1));
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void product_whenCached_shouldNotCallLoaderAgainAndRecordStats() {
+        // When
+        cache.product(1L, this::loadProduct);
+        cache.product(1L, this::loadProduct);
+
+        // Then
+        assertEquals(1, loads.get());
+        CacheStatsResponse stats = cache.stats().getFirst();
+        assertEquals("products", stats.name());
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+    }
+
+    @Test
+    void rawMaterialRenamed_shouldEvictProductsThatListTheMaterialOnly() {
+        // Given
+        cache.product(1L, this::loadProduct);
+        cache.product(2L, this::loadProduct);
+        cache.rawMaterial(10L, id -> new RawMaterialResponse(id, "material", BigDecimal.TEN));
+
+        // When
+        cache.rawMaterialRenamed(10L);
+        cache.product(1L, this::loadProduct);
+        cache.product(2L, this::loadProduct);
+
+        // Then
+        assertEquals(3, loads.get());
+        assertEquals(0, cache.stats().get(1).size());
+    }
+
+    @Test
+    void productRenamed_shouldEvictProductsThatUseItAsComponent() {
+        // Given
+        cache.product(2L, this::loadProduct);
+        cache.product(3L, this::loadProduct);
+
+        // When
+        cache.productRenamed(2L);
+        cache.product(3L, this::loadProduct);
+
+        // Then
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void rawMaterialRenamed_whenProductLoadIsInFlight_shouldNotKeepTheStaleProduct() throws Exception {
+        // Given
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch renamed = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ProductResponse> inFlight = executor.submit(() -> cache.product(1L, id -> {
+                loading.countDown();
+                await(renamed);
+                return loadProduct(id);
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            // When
+            cache.rawMaterialRenamed(10L);
+            renamed.countDown();
+            ProductResponse stale = inFlight.get(5, TimeUnit.SECONDS);
+            cache.product(1L, this::loadProduct);
+
+            // Then
+            assertEquals(1L, stale.id());
+            assertEquals(2, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Product 1 uses raw material 10; product 3 uses product 2 as a component.
+    private ProductResponse loadProduct(Long id) {
+        loads.incrementAndGet();
+        List<ProductMaterialResponse> materials = id == 1L
+                ? List.of(new ProductMaterialResponse(1L, 10L, "material", BigDecimal.ONE))
+                : List.of();
+        List<ProductComponentResponse> components = id == 3L
+                ? List.of(new ProductComponentResponse(1L, 2L, "prod 2", BigDecimal.ONE))
+                : List.of();
+        return new ProductResponse(id, "prod " + id, BigDecimal.TEN, materials, components);
+    }
+}
@@ -0,0 +1,47 @@
+package dev.test.projedata.autoflex.api.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CatalogVersionTest {
+
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void changed_whenNoTransaction_shouldBumpImmediately() {
+        // Given
+        long before = catalogVersion.current().version();
+
+        // When
+        catalogVersion.changed();
+
+        // Then
+        assertEquals(before + 1, catalogVersion.current().version());
+    }
+
+    @Test
+    void changed_whenInsideTransaction_shouldBumpOnlyAfterCommit() {
+        // Given
+        long before = catalogVersion.current().version();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        catalogVersion.changed();
+
+        // Then
+        assertEquals(before, catalogVersion.current().version());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(before + 1, catalogVersion.current().version());
+    }
+}
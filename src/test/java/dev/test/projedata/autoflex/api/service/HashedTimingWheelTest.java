@@ -0,0 +1,109 @@
+package dev.test.projedata.autoflex.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedTimingWheelTest {
+
+    private final long[] nanos = {0};
+
+    // Not started: each advance() is one 100 ms tick, and time only moves when a test moves it.
+    private final HashedTimingWheel wheel = new HashedTimingWheel("test-wheel", 100, 8, () -> nanos[0]);
+
+    @Test
+    void advance_whenDeadlineReached_shouldRunTaskOnceAndNotBefore() {
+        // Given
+        List<String> fired = new ArrayList<>();
+        wheel.schedule(() -> fired.add("a"), 250, TimeUnit.MILLISECONDS);
+
+        // When
+        wheel.advance();
+        wheel.advance();
+        List<String> beforeDeadline = List.copyOf(fired);
+        int expired = wheel.advance();
+        wheel.advance();
+
+        // Then
+        assertTrue(beforeDeadline.isEmpty());
+        assertEquals(1, expired);
+        assertEquals(List.of("a"), fired);
+    }
+
+    @Test
+    void schedule_whenCalledInTheMiddleOfATick_shouldCountTheDelayFromNow() {
+        // Given
+        List<String> fired = new ArrayList<>();
+        nanos[0] = TimeUnit.MILLISECONDS.toNanos(100);
+        wheel.advance();
+        nanos[0] = TimeUnit.MILLISECONDS.toNanos(150);
+        wheel.schedule(() -> fired.add("a"), 100, TimeUnit.MILLISECONDS);
+
+        // When
+        nanos[0] = TimeUnit.MILLISECONDS.toNanos(200);
+        int atTwoHundred = wheel.advance();
+        nanos[0] = TimeUnit.MILLISECONDS.toNanos(300);
+        int atThreeHundred = wheel.advance();
+
+        // Then
+        assertEquals(0, atTwoHundred);
+        assertEquals(1, atThreeHundred);
+        assertEquals(List.of("a"), fired);
+    }
+
+    @Test
+    void advance_whenDeadlineIsBeyondOneRevolution_shouldWaitForTheRightRound() {
+        // Given
+        List<Integer> firedAt = new ArrayList<>();
+        int[] tick = {0};
+        wheel.schedule(() -> firedAt.add(tick[0]), 2, TimeUnit.SECONDS);
+
+        // When
+        for (tick[0] = 1; tick[0] <= 30; tick[0]++) wheel.advance();
+
+        // Then
+        assertEquals(List.of(20), firedAt);
+    }
+
+    @Test
+    void advance_whenTimeoutCancelled_shouldNotRunTask() {
+        // Given
+        List<String> fired = new ArrayList<>();
+        wheel.schedule(() -> fired.add("a"), 100, TimeUnit.MILLISECONDS).cancel();
+        wheel.schedule(() -> fired.add("b"), 100, TimeUnit.MILLISECONDS);
+
+        // When
+        int expired = wheel.advance();
+
+        // Then
+        assertEquals(1, expired);
+        assertEquals(List.of("b"), fired);
+    }
+
+    @Test
+    void advance_whenTaskFails_shouldKeepRunningOtherTasks() {
+        // Given
+        List<String> fired = new ArrayList<>();
+        wheel.schedule(() -> {
+            throw new IllegalStateException("boom");
+        }, 100, TimeUnit.MILLISECONDS);
+        wheel.schedule(() -> fired.add("b"), 100, TimeUnit.MILLISECONDS);
+
+        // When
+        int expired = wheel.advance();
+
+        // Then
+        assertEquals(2, expired);
+        assertEquals(List.of("b"), fired);
+    }
+
+    @Test
+    void constructor_whenWheelSizeIsNotPowerOfTwo_shouldThrowIllegalArgumentException() {
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> new HashedTimingWheel("test-wheel", 100, 10));
+    }
+}
@@ -0,0 +1,80 @@
+package dev.test.projedata.autoflex.api.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.test.projedata.autoflex.api.dtos.request.RawMaterialRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportRowReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void next_whenJsonArray_shouldMapRowsAndRejectOnlyTheBadOne() throws IOException {
+        // Given
+        String json = """
+                [{"name": "madeira", "stockQuantity": 10},
+                 {"name": "prego", "stockQuantity": "muito"},
+                 {"name": "cola", "stockQuantity": 2.5}]
+                """;
+
+        // When
+        List<ImportRow<RawMaterialRequest>> rows = readAll(json, MediaType.APPLICATION_JSON);
+
+        // Then
+        assertEquals(3, rows.size());
+        assertEquals(new RawMaterialRequest("madeira", new BigDecimal("10")), rows.get(0).value());
+        assertFalse(rows.get(1).isValid());
+        assertEquals(2, rows.get(1).number());
+        assertEquals(new RawMaterialRequest("cola", new BigDecimal("2.5")), rows.get(2).value());
+    }
+
+    @Test
+    void next_whenCsvWithQuotedFields_shouldSplitOnUnquotedCommasOnly() throws IOException {
+        // Given
+        String csv = """
+                name,stockQuantity
+                "parafuso, 3mm",40
+
+                "cola ""forte\""",7
+                tinta
+                """;
+
+        // When
+        List<ImportRow<RawMaterialRequest>> rows = readAll(csv, MediaType.valueOf("text/csv"));
+
+        // Then
+        assertEquals(3, rows.size());
+        assertEquals(new RawMaterialRequest("parafuso, 3mm", new BigDecimal("40")), rows.get(0).value());
+        assertEquals(new RawMaterialRequest("cola \"forte\"", new BigDecimal("7")), rows.get(1).value());
+        assertEquals("Expected 2 columns but found 1", rows.get(2).error());
+    }
+
+    @Test
+    void open_whenJsonIsNotAnArray_shouldThrowJsonParseException() {
+        // Given
+        ByteArrayInputStream input = new ByteArrayInputStream("{\"name\": \"madeira\"}".getBytes(StandardCharsets.UTF_8));
+
+        // When / Then
+        assertThrows(JsonParseException.class, () -> ImportRowReader.open(input, MediaType.APPLICATION_JSON, objectMapper, RawMaterialRequest.class));
+    }
+
+    private List<ImportRow<RawMaterialRequest>> readAll(String content, MediaType contentType) throws IOException {
+        List<ImportRow<RawMaterialRequest>> rows = new ArrayList<>();
+        try (ImportRowReader<RawMaterialRequest> reader = ImportRowReader.open(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), contentType, objectMapper, RawMaterialRequest.class)) {
+            for (ImportRow<RawMaterialRequest> row = reader.next(); row != null; row = reader.next()) rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,123 @@
+package dev.test.projedata.autoflex.api.service;
+
+import dev.test.projedata.autoflex.api.dtos.response.MaterialRequirementResponse;
+import dev.test.projedata.autoflex.api.exceptions.ResourceNotFoundException;
+import dev.test.projedata.autoflex.api.repository.MaterialRequirementRow;
+import dev.test.projedata.autoflex.api.repository.ProductComponentRepository;
+import dev.test.projedata.autoflex.api.repository.ProductComponentRow;
+import dev.test.projedata.autoflex.api.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MaterialRequirementsCalculatorTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductComponentRepository productComponentRepository;
+
+    @InjectMocks
+    private MaterialRequirementsCalculator materialRequirementsCalculator;
+
+    @Test
+    void calculate_whenDemandSharesMaterials_shouldSumRequirementsAndReportShortfall() {
+        // Given
+        when(productRepository.findMaterialRequirementRows(anyCollection())).thenReturn(List.of(
+                new MaterialRequirementRow(1L, 1L, "aco", new BigDecimal("30"), new BigDecimal("5")),
+                new MaterialRequirementRow(1L, 2L, "tinta", new BigDecimal("15"), new BigDecimal("0.5")),
+                new MaterialRequirementRow(2L, 1L, "aco", new BigDecimal("30"), new BigDecimal("15"))));
+
+        // When
+        List<MaterialRequirementResponse> result = materialRequirementsCalculator.calculate(Map.of(1L, new BigDecimal("4"), 2L, BigDecimal.ONE));
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals(new MaterialRequirementResponse(1L, "aco", new BigDecimal("35"), new BigDecimal("30"), new BigDecimal("5")), result.get(0));
+        assertEquals(new MaterialRequirementResponse(2L, "tinta", new BigDecimal("2.0"), new BigDecimal("15"), BigDecimal.ZERO), result.get(1));
+    }
+
+    @Test
+    void calculate_whenProductHasSharedSubAssembly_shouldPushDemandDownOnce() {
+        // Given
+        List<ProductComponentRow> rows = List.of(
+                new ProductComponentRow(1L, 3L, new BigDecimal("2")),
+                new ProductComponentRow(2L, 3L, BigDecimal.ONE),
+                new ProductComponentRow(1L, 2L, BigDecimal.ONE),
+                new ProductComponentRow(4L, 3L, BigDecimal.ONE));
+        when(productComponentRepository.findRowsByProductIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return rows.stream().filter(row -> ids.contains(row.productId())).toList();
+        });
+        when(productRepository.findMaterialRequirementRows(anyCollection())).thenReturn(List.of(
+                new MaterialRequirementRow(1L, null, null, null, null),
+                new MaterialRequirementRow(2L, null, null, null, null),
+                new MaterialRequirementRow(3L, 1L, "aco", new BigDecimal("100"), new BigDecimal("10"))));
+
+        // When
+        List<MaterialRequirementResponse> result = materialRequirementsCalculator.calculate(Map.of(1L, BigDecimal.TEN));
+
+        // Then
+        assertEquals(List.of(new MaterialRequirementResponse(1L, "aco", new BigDecimal("300"), new BigDecimal("100"), new BigDecimal("200"))), result);
+    }
+
+    @Test
+    void calculate_whenProductHasSubAssemblies_shouldOnlyReadReachableComponentRows() {
+        // Given
+        when(productComponentRepository.findRowsByProductIdIn(List.of(1L))).thenReturn(List.of(new ProductComponentRow(1L, 2L, BigDecimal.ONE)));
+        when(productComponentRepository.findRowsByProductIdIn(List.of(2L))).thenReturn(List.of());
+        when(productRepository.findMaterialRequirementRows(anyCollection())).thenReturn(List.of(
+                new MaterialRequirementRow(1L, null, null, null, null),
+                new MaterialRequirementRow(2L, 1L, "aco", new BigDecimal("100"), new BigDecimal("10"))));
+
+        // When
+        materialRequirementsCalculator.calculate(Map.of(1L, BigDecimal.ONE));
+
+        // Then
+        verify(productComponentRepository, times(2)).findRowsByProductIdIn(anyCollection());
+        verify(productComponentRepository, never()).findAllRows();
+    }
+
+    @Test
+    void calculate_whenDemandIsLargerThanBatch_shouldQueryInBatches() {
+        // Given
+        Map<Long, BigDecimal> demand = new LinkedHashMap<>();
+        for (long id = 1; id <= MaterialRequirementsCalculator.QUERY_BATCH_SIZE * 2L + 1; id++) demand.put(id, BigDecimal.ONE);
+
+        when(productRepository.findMaterialRequirementRows(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> new MaterialRequirementRow(id, 1L, "aco", new BigDecimal("10"), BigDecimal.ONE)).toList();
+        });
+
+        // When
+        List<MaterialRequirementResponse> result = materialRequirementsCalculator.calculate(demand);
+
+        // Then
+        assertEquals(new BigDecimal(demand.size()), result.getFirst().quantityRequired());
+        verify(productRepository, times(3)).findMaterialRequirementRows(anyCollection());
+        verify(productComponentRepository, times(3)).findRowsByProductIdIn(anyCollection());
+    }
+
+    @Test
+    void calculate_whenProductDoesNotExist_shouldThrowResourceNotFoundException() {
+        // Given
+        when(productRepository.findMaterialRequirementRows(anyCollection())).thenReturn(List.of());
+
+        // When/Then
+        assertThrows(ResourceNotFoundException.class, () -> materialRequirementsCalculator.calculate(Map.of(999L, BigDecimal.ONE)));
+    }
+}
@@ -0,0 +1,107 @@
+package dev.test.projedata.autoflex.api.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OptimisticRetryTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OptimisticRetry optimisticRetry;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        optimisticRetry = new OptimisticRetry(transactionManager, 3, 0);
+    }
+
+    @Test
+    void execute_whenConflictIsTransient_shouldRetryInNewTransactionAndReturnResult() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        String result = optimisticRetry.execute(() -> {
+            if (attempts.incrementAndGet() < 3) throw new OptimisticLockingFailureException("stale");
+            return "ok";
+        });
+
+        // Then
+        assertEquals("ok", result);
+        assertEquals(3, attempts.get());
+        verify(transactionManager, times(3)).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        verify(transactionManager, times(2)).rollback(any());
+    }
+
+    @Test
+    void execute_whenConflictPersists_shouldGiveUpAfterMaxAttempts() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When/Then
+        assertThrows(OptimisticLockingFailureException.class, () -> optimisticRetry.execute(() -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("stale");
+        }));
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void execute_whenActionFailsOtherwise_shouldNotRetry() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When/Then
+        assertThrows(IllegalArgumentException.class, () -> optimisticRetry.execute(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalArgumentException("bad input");
+        }));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void execute_whenClientSentVersion_shouldRunOnceAndLetConflictThrough() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When/Then
+        assertThrows(OptimisticLockingFailureException.class, () -> optimisticRetry.execute(5L, () -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("stale");
+        }));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void execute_whenClientSentNoVersion_shouldRetryConflict() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        String result = optimisticRetry.execute(null, () -> {
+            if (attempts.incrementAndGet() < 2) throw new OptimisticLockingFailureException("stale");
+            return "ok";
+        });
+
+        // Then
+        assertEquals("ok", result);
+        assertEquals(2, attempts.get());
+    }
+}
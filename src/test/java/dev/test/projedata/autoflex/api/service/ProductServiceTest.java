@@ -1,35 +1,66 @@
 package dev.test.projedata.autoflex.api.service;
 
 import dev.test.projedata.autoflex.api.domain.Product;
+import dev.test.projedata.autoflex.api.domain.ProductComponent;
 import dev.test.projedata.autoflex.api.domain.ProductMaterial;
 import dev.test.projedata.autoflex.api.domain.RawMaterial;
+import dev.test.projedata.autoflex.api.dtos.request.AvailableProductionRequest;
+import dev.test.projedata.autoflex.api.dtos.request.CursorPageRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductComponentRequest;
 import dev.test.projedata.autoflex.api.dtos.request.ProductMaterialRequest;
 import dev.test.projedata.autoflex.api.dtos.request.ProductMaterialUpdateRequest;
 import dev.test.projedata.autoflex.api.dtos.request.ProductRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductionOrderRequest;
+import dev.test.projedata.autoflex.api.dtos.request.ProductionSimulationRequest;
+import dev.test.projedata.autoflex.api.dtos.request.StockDeltaRequest;
+import dev.test.projedata.autoflex.api.dtos.response.CursorPageResponse;
+import dev.test.projedata.autoflex.api.dtos.response.MaterialConsumptionResponse;
+import dev.test.projedata.autoflex.api.dtos.response.MaterialRequirementResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductComponentResponse;
 import dev.test.projedata.autoflex.api.dtos.response.ProductMaterialResponse;
 import dev.test.projedata.autoflex.api.dtos.response.ProductProductionResponse;
 import dev.test.projedata.autoflex.api.dtos.response.ProductResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductSimulationResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductionOrderResponse;
 import dev.test.projedata.autoflex.api.exceptions.DatabaseException;
+import dev.test.projedata.autoflex.api.exceptions.InsufficientStockException;
+import dev.test.projedata.autoflex.api.exceptions.PreconditionFailedException;
 import dev.test.projedata.autoflex.api.exceptions.ResourceNotFoundException;
+import dev.test.projedata.autoflex.api.mapper.ProductComponentMapper;
 import dev.test.projedata.autoflex.api.mapper.ProductMapper;
 import dev.test.projedata.autoflex.api.mapper.ProductMaterialMapper;
+import dev.test.projedata.autoflex.api.repository.ProductComponentRepository;
+import dev.test.projedata.autoflex.api.repository.ProductComponentRow;
 import dev.test.projedata.autoflex.api.repository.ProductMaterialRepository;
 import dev.test.projedata.autoflex.api.repository.ProductRepository;
 import dev.test.projedata.autoflex.api.repository.RawMaterialRepository;
+import dev.test.projedata.autoflex.api.repository.RawMaterialStockRow;
 import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -52,9 +83,47 @@ class ProductServiceTest {
     @Mock
     private ProductMaterialMapper productMaterialMapper;
 
+    @Mock
+    private ProductComponentRepository productComponentRepository;
+
+    @Mock
+    private ProductComponentMapper productComponentMapper;
+
+    @Mock
+    private ProductionCapacityEngine productionCapacityEngine;
+
+    @Mock
+    private ProductionPlanner productionPlanner;
+
+    @Mock
+    private MaterialRequirementsCalculator materialRequirementsCalculator;
+
+    @Spy
+    private CatalogResponseCache catalogResponseCache = new CatalogResponseCache(100, Duration.ofMinutes(1));
+
+    @Mock
+    private CatalogVersion catalogVersion;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private OptimisticRetry optimisticRetry;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private ProductService productService;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(stockReservationService.consume(any(), any()))
+                .thenAnswer(inv -> inv.<Function<Map<Long, BigDecimal>, Object>>getArgument(1).apply(Map.of()));
+        lenient().when(optimisticRetry.execute(any(), any()))
+                .thenAnswer(inv -> inv.<Supplier<Object>>getArgument(1).get());
+    }
+
     @Test
     void findAll_whenExistsProducts_shouldReturnPageOfProductResponse() {
         // Given
@@ -62,16 +131,17 @@ class ProductServiceTest {
         Product p2 = new Product(2L, "prod 2", new BigDecimal("50.00"));
         Product p3 = new Product(3L, "prod 3", new BigDecimal("250.00"));
 
-        List<Product> productList = List.of(p1, p2, p3);
+        List<Long> ids = List.of(1L, 2L, 3L);
 
         Pageable pageable = PageRequest.of(0,10);
-        Page<Product> productPage = new PageImpl<>(productList, pageable, productList.size());
+        Page<Long> idPage = new PageImpl<>(ids, pageable, ids.size());
 
-        when(productRepository.findAll(pageable)).thenReturn(productPage);
+        when(productRepository.findPageIds(pageable)).thenReturn(idPage);
+        when(productRepository.findAllWithMaterialsByIdIn(ids)).thenReturn(List.of(p3, p1, p2));
 
-        ProductResponse resp1 = new ProductResponse(1L, "prod 1", new BigDecimal("150.00"), List.of());
-        ProductResponse resp2 = new ProductResponse(2L, "prod 2", new BigDecimal("50.00"), List.of());
-        ProductResponse resp3 = new ProductResponse(3L, "prod 3", new BigDecimal("250.00"), List.of());
+        ProductResponse resp1 = new ProductResponse(1L, "prod 1", new BigDecimal("150.00"), List.of(), List.of());
+        ProductResponse resp2 = new ProductResponse(2L, "prod 2", new BigDecimal("50.00"), List.of(), List.of());
+        ProductResponse resp3 = new ProductResponse(3L, "prod 3", new BigDecimal("250.00"), List.of(), List.of());
 
         when(productMapper.toResponse(p1)).thenReturn(resp1);
         when(productMapper.toResponse(p2)).thenReturn(resp2);
@@ -83,35 +153,103 @@ class ProductServiceTest {
 
         // Then
         assertEquals(3, result.getTotalElements());
-        assertEquals(1L, result.getContent().getFirst().id());
-        verify(productRepository).findAll(pageable);
+        assertEquals(List.of(resp1, resp2, resp3), result.getContent());
+        verify(productRepository).findPageIds(pageable);
+        verify(productRepository).findAllWithComponentsByIdIn(ids);
         verify(productMapper, times(3)).toResponse(any());
     }
 
     @Test
-    void findAll_whenNotExistsProducts_shouldReturnEmptyPage() {
+    void findAll_whenProductDeletedBetweenQueries_shouldSkipIt() {
         // Given
-        List<Product> productList = List.of();
+        Product p1 = new Product(1L, "prod 1", new BigDecimal("150.00"));
+        Product p3 = new Product(3L, "prod 3", new BigDecimal("250.00"));
+
+        List<Long> ids = List.of(1L, 2L, 3L);
+
+        Pageable pageable = PageRequest.of(0,10);
+        when(productRepository.findPageIds(pageable)).thenReturn(new PageImpl<>(ids, pageable, ids.size()));
+        when(productRepository.findAllWithMaterialsByIdIn(ids)).thenReturn(List.of(p3, p1));
+
+        ProductResponse resp1 = new ProductResponse(1L, "prod 1", new BigDecimal("150.00"), List.of(), List.of());
+        ProductResponse resp3 = new ProductResponse(3L, "prod 3", new BigDecimal("250.00"), List.of(), List.of());
+
+        when(productMapper.toResponse(p1)).thenReturn(resp1);
+        when(productMapper.toResponse(p3)).thenReturn(resp3);
 
+        // When
+        Page<ProductResponse> result = productService.findAll(pageable);
+
+        // Then
+        assertEquals(List.of(resp1, resp3), result.getContent());
+        verify(productMapper, times(2)).toResponse(any());
+    }
+
+    @Test
+    void findAll_whenNotExistsProducts_shouldReturnEmptyPage() {
+        // Given
         Pageable pageable = PageRequest.of(0,10);
-        Page<Product> productPage = new PageImpl<>(productList, pageable, 0);
+        Page<Long> idPage = new PageImpl<>(List.of(), pageable, 0);
 
-        when(productRepository.findAll(pageable)).thenReturn(productPage);
+        when(productRepository.findPageIds(pageable)).thenReturn(idPage);
 
         // When
         Page<ProductResponse> result = productService.findAll(pageable);
 
         // Then
         assertTrue(result.isEmpty());
-        verify(productRepository).findAll(pageable);
+        verify(productRepository).findPageIds(pageable);
+        verify(productRepository, never()).findAllWithMaterialsByIdIn(any());
         verify(productMapper, never()).toResponse(any());
     }
 
+    @Test
+    void findAllByCursor_whenMoreRowsThanSize_shouldKeepKeysetOrderAndReturnNextCursor() {
+        // Given
+        Product p1 = new Product(1L, "prod 1", new BigDecimal("150.00"));
+        Product p2 = new Product(2L, "prod 2", new BigDecimal("50.00"));
+
+        when(productRepository.findKeysetIds(Limit.of(3))).thenReturn(List.of(2L, 1L, 3L));
+        when(productRepository.findAllWithMaterialsByIdIn(List.of(2L, 1L))).thenReturn(List.of(p1, p2));
+
+        ProductResponse resp1 = new ProductResponse(1L, "prod 1", new BigDecimal("150.00"), List.of(), List.of());
+        ProductResponse resp2 = new ProductResponse(2L, "prod 2", new BigDecimal("50.00"), List.of(), List.of());
+
+        when(productMapper.toResponse(p1)).thenReturn(resp1);
+        when(productMapper.toResponse(p2)).thenReturn(resp2);
+
+        // When
+        CursorPageResponse<ProductResponse> result = productService.findAllByCursor(new CursorPageRequest(null, 2));
+
+        // Then
+        assertEquals(List.of(resp2, resp1), result.content());
+        assertTrue(result.hasNext());
+        assertEquals(new KeysetCursor("prod 1", 1L), KeysetCursor.decode(result.nextCursor()));
+        verify(productRepository).findAllWithComponentsByIdIn(List.of(2L, 1L));
+    }
+
+    @Test
+    void findAllByCursor_whenNoRowsAfterCursor_shouldReturnEmptyLastSlice() {
+        // Given
+        String after = new KeysetCursor("prod 3", 3L).encode();
+
+        when(productRepository.findKeysetIdsAfter("prod 3", 3L, Limit.of(11))).thenReturn(List.of());
+
+        // When
+        CursorPageResponse<ProductResponse> result = productService.findAllByCursor(new CursorPageRequest(after, null));
+
+        // Then
+        assertTrue(result.content().isEmpty());
+        assertFalse(result.hasNext());
+        assertNull(result.nextCursor());
+        verify(productRepository, never()).findAllWithMaterialsByIdIn(any());
+    }
+
     @Test
     void findById_whenExistsProduct_shouldReturnProductResponse() {
         // Given
         Product product = new Product(1L, "prod 1", new BigDecimal("150.00"));
-        ProductResponse resp = new ProductResponse(1L, "prod 1", new BigDecimal("150.00"), List.of());
+        ProductResponse resp = new ProductResponse(1L, "prod 1", new BigDecimal("150.00"), List.of(), List.of());
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
         when(productMapper.toResponse(product)).thenReturn(resp);
@@ -125,6 +263,25 @@ class ProductServiceTest {
         verify(productMapper).toResponse(product);
     }
 
+    @Test
+    void findById_whenCalledAgain_shouldServeFromCacheUntilProductChanges() {
+        // Given
+        Product product = new Product(1L, "prod 1", new BigDecimal("150.00"));
+        ProductResponse resp = new ProductResponse(1L, "prod 1", new BigDecimal("150.00"), List.of(), List.of());
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productMapper.toResponse(product)).thenReturn(resp);
+
+        // When
+        productService.findById(1L);
+        productService.findById(1L);
+        catalogResponseCache.productChanged(1L);
+        productService.findById(1L);
+
+        // Then
+        verify(productRepository, times(2)).findById(1L);
+    }
+
     @Test
     void findById_whenNotExistsProduct_shouldThrowResourceNotFoundException() {
         // Given
@@ -143,7 +300,7 @@ class ProductServiceTest {
         // Given
         Product savedProduct = new Product(1L, "prod 1", new BigDecimal("150.00"));
         ProductRequest request = new ProductRequest("prod 1", new BigDecimal("150.00"));
-        ProductResponse response = new ProductResponse(1L, "prod 1", new BigDecimal("150.00"), List.of());
+        ProductResponse response = new ProductResponse(1L, "prod 1", new BigDecimal("150.00"), List.of(), List.of());
         Product productWhitOutId = new Product(null, "prod 1", new BigDecimal("150.00"));
 
         when(productMapper.toEntity(request)).thenReturn(productWhitOutId);
@@ -168,13 +325,13 @@ class ProductServiceTest {
         Product existingProduct = new Product(1L, "prod 1", new BigDecimal("150.00"));
         ProductRequest request = new ProductRequest("prod 2", new BigDecimal("350.00"));
         Product updatedProduct = new Product(1L, request.name(), request.price());
-        ProductResponse response = new ProductResponse(1L, updatedProduct.getName(), updatedProduct.getPrice(), List.of());
+        ProductResponse response = new ProductResponse(1L, updatedProduct.getName(), updatedProduct.getPrice(), List.of(), List.of());
 
         when(productRepository.getReferenceById(productId)).thenReturn(existingProduct);
         when(productMapper.toResponse(updatedProduct)).thenReturn(response);
 
         // When
-        ProductResponse result = productService.update(productId, request);
+        ProductResponse result = productService.update(productId, request, null);
 
         // Then
         assertEquals(response, result);
@@ -183,6 +340,22 @@ class ProductServiceTest {
         verify(productMapper).toResponse(updatedProduct);
     }
 
+    @Test
+    void update_whenExpectedVersionIsStale_shouldThrowPreconditionFailedException() {
+        // Given
+        Product existingProduct = new Product(1L, "prod 1", new BigDecimal("150.00"));
+        ReflectionTestUtils.setField(existingProduct, "version", 4L);
+
+        when(productRepository.getReferenceById(1L)).thenReturn(existingProduct);
+
+        // When/Then
+        assertThrows(PreconditionFailedException.class,
+                () -> productService.update(1L, new ProductRequest("prod 2", new BigDecimal("350.00")), 3L));
+        assertEquals("prod 1", existingProduct.getName());
+        verify(productRepository, never()).flush();
+        verifyNoInteractions(productionCapacityEngine);
+    }
+
     @Test
     void update_whenNotExistsProduct_shouldThrowResourceNotFoundException() {
         // Given
@@ -193,7 +366,7 @@ class ProductServiceTest {
         when(productRepository.getReferenceById(productId)).thenThrow(EntityNotFoundException.class);
 
         // When/Then
-        assertThrows(ResourceNotFoundException.class, () -> productService.update(productId, request));
+        assertThrows(ResourceNotFoundException.class, () -> productService.update(productId, request, null));
         verify(productRepository).getReferenceById(productId);
         verify(productMapper, never()).toResponse(any());
     }
@@ -227,6 +400,20 @@ class ProductServiceTest {
         verify(productRepository, never()).deleteById(productId);
     }
 
+    @Test
+    void delete_whenProductIsUsedAsComponent_shouldThrowDatabaseException() {
+        // Given
+        Long productId = 2L;
+
+        when(productRepository.existsById(productId)).thenReturn(true);
+        when(productComponentRepository.existsByComponentId(productId)).thenReturn(true);
+
+        // When/Then
+        assertThrows(DatabaseException.class, () -> productService.delete(productId));
+        verify(productRepository, never()).deleteById(productId);
+        verify(productionCapacityEngine, never()).productRemoved(productId);
+    }
+
     @Test
     void addMaterial_whenExistsProductAndMaterial_andNotExistsProductMaterial_shouldReturnProductMaterialResponse() {
         // Given
@@ -255,6 +442,7 @@ class ProductServiceTest {
         verify(rawMaterialRepository).findById(rawMaterialId);
         verify(productMaterialRepository).save(any(ProductMaterial.class));
         verify(productMaterialMapper).toResponse(productMaterial);
+        verify(productionCapacityEngine).materialLinked(productId, "prod 1", rawMaterialId, new BigDecimal("30"), null, new BigDecimal("5"));
     }
 
     @Test
@@ -291,7 +479,7 @@ class ProductServiceTest {
         when(productMaterialMapper.toResponse(productMaterial)).thenReturn(response);
 
         // When
-        ProductMaterialResponse result = productService.updateQuantityMaterial(productId, rawMaterialId, request);
+        ProductMaterialResponse result = productService.updateQuantityMaterial(productId, rawMaterialId, request, null);
 
         // Then
         assertEquals(response, result);
@@ -311,7 +499,7 @@ class ProductServiceTest {
         when(productMaterialRepository.findByProductIdAndRawMaterialId(productId, rawMaterialId)).thenReturn(Optional.empty());
 
         // When/Then
-        assertThrows(ResourceNotFoundException.class, () -> productService.updateQuantityMaterial(productId, rawMaterialId, request));
+        assertThrows(ResourceNotFoundException.class, () -> productService.updateQuantityMaterial(productId, rawMaterialId, request, null));
         verify(productMaterialRepository).findByProductIdAndRawMaterialId(productId, rawMaterialId);
         verify(productMaterialMapper, never()).toResponse(any());
     }
@@ -334,6 +522,7 @@ class ProductServiceTest {
         // Then
         verify(productMaterialRepository).findByProductIdAndRawMaterialId(productId, rawMaterialId);
         verify(productMaterialRepository).delete(productMaterial);
+        verify(productionCapacityEngine).materialUnlinked(productId, rawMaterialId);
     }
 
     @Test
@@ -351,33 +540,178 @@ class ProductServiceTest {
     }
 
     @Test
-    void getAvailableProduction_whenExistsRelationshipBetweenProductAndRawMaterial_shouldReturnListOfProductProductionResponse() {
+    void addComponent_whenExistsProductAndComponent_andNoCycle_shouldReturnProductComponentResponse() {
         // Given
-        Product p1 = new Product(1L, "prod 1", new BigDecimal("150.00"));
-        Product p2 = new Product(2L, "prod 2", new BigDecimal("50.00"));
+        Long productId = 1L;
+        Long componentId = 2L;
+
+        Product product = new Product(productId, "prod 1", new BigDecimal("150.00"));
+        Product component = new Product(componentId, "prod 2", new BigDecimal("50.00"));
+        ProductComponent productComponent = new ProductComponent(10L, product, component, new BigDecimal("2"));
+        ProductComponentRequest request = new ProductComponentRequest(componentId, new BigDecimal("2"));
+        ProductComponentResponse response = new ProductComponentResponse(10L, componentId, "prod 2", new BigDecimal("2"));
+
+        when(productComponentRepository.findByProductIdAndComponentId(productId, componentId)).thenReturn(Optional.empty());
+        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
+        when(productRepository.findById(componentId)).thenReturn(Optional.of(component));
+        when(productComponentRepository.findAllRows()).thenReturn(List.of(new ProductComponentRow(3L, productId, BigDecimal.ONE)));
+        when(productComponentRepository.save(any(ProductComponent.class))).thenReturn(productComponent);
+        when(productComponentMapper.toResponse(productComponent)).thenReturn(response);
+
+        // When
+        ProductComponentResponse result = productService.addComponent(productId, request);
+
+        // Then
+        assertEquals(response, result);
+        InOrder inOrder = inOrder(productComponentRepository);
+        inOrder.verify(productComponentRepository).lockBillOfMaterials();
+        inOrder.verify(productComponentRepository).findAllRows();
+        verify(productComponentRepository).save(any(ProductComponent.class));
+        verify(productionCapacityEngine).componentLinked(productId, "prod 1", componentId, new BigDecimal("2"));
+    }
+
+    @Test
+    void addComponent_whenLinkWouldCreateCycle_shouldThrowDatabaseException() {
+        // Given
+        Long productId = 1L;
+        Long componentId = 3L;
+
+        Product product = new Product(productId, "prod 1", new BigDecimal("150.00"));
+        Product component = new Product(componentId, "prod 3", new BigDecimal("250.00"));
+        ProductComponentRequest request = new ProductComponentRequest(componentId, BigDecimal.ONE);
+
+        when(productComponentRepository.findByProductIdAndComponentId(productId, componentId)).thenReturn(Optional.empty());
+        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
+        when(productRepository.findById(componentId)).thenReturn(Optional.of(component));
+        when(productComponentRepository.findAllRows()).thenReturn(List.of(
+                new ProductComponentRow(3L, 2L, BigDecimal.ONE),
+                new ProductComponentRow(2L, productId, BigDecimal.ONE)));
+
+        // When/Then
+        assertThrows(DatabaseException.class, () -> productService.addComponent(productId, request));
+        verify(productComponentRepository, never()).save(any(ProductComponent.class));
+        verifyNoInteractions(productionCapacityEngine);
+    }
+
+    @Test
+    void addComponent_whenComponentIsTheProductItself_shouldThrowDatabaseException() {
+        // Given
+        Long productId = 1L;
+
+        Product product = new Product(productId, "prod 1", new BigDecimal("150.00"));
+        ProductComponentRequest request = new ProductComponentRequest(productId, BigDecimal.ONE);
+
+        when(productComponentRepository.findByProductIdAndComponentId(productId, productId)).thenReturn(Optional.empty());
+        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
+        when(productComponentRepository.findAllRows()).thenReturn(List.of());
+
+        // When/Then
+        assertThrows(DatabaseException.class, () -> productService.addComponent(productId, request));
+        verify(productComponentRepository, never()).save(any(ProductComponent.class));
+    }
+
+    @Test
+    void getAvailableProduction_shouldReturnMaterializedCapacityWithoutQueryingDatabase() {
+        // Given
+        AvailableProductionRequest request = new AvailableProductionRequest(null, null, null, null, null);
+        List<ProductProductionResponse> capacity = List.of(
+                new ProductProductionResponse(1L, "prod 1", 3),
+                new ProductProductionResponse(2L, "prod 2", 2));
 
-        RawMaterial rm1 = new RawMaterial(1L, "material 1", new BigDecimal("30"));
-        RawMaterial rm2 = new RawMaterial(2L, "material 2", new BigDecimal("15"));
+        when(productionCapacityEngine.isEnabled()).thenReturn(true);
+        when(productionCapacityEngine.getAvailableProduction(request)).thenReturn(capacity);
 
-        ProductMaterial pm1 = new ProductMaterial(1L, p1, rm1, new BigDecimal("5"));
-        ProductMaterial pm2 = new ProductMaterial(2L, p1, rm2, new BigDecimal("5"));
-        p1.getProductMaterials().addAll(List.of(pm1, pm2));
+        // When
+        List<ProductProductionResponse> result = productService.getAvailableProduction(request);
 
-        ProductMaterial pm3 = new ProductMaterial(3L, p2, rm1, new BigDecimal("15"));
-        p2.getProductMaterials().add(pm3);
+        // Then
+        assertEquals(capacity, result);
+        verify(productionCapacityEngine).getAvailableProduction(request);
+        verifyNoInteractions(productRepository, productMaterialRepository, rawMaterialRepository, transactionManager);
+    }
+
+    @Test
+    void getAvailableProduction_whenEngineDisabled_shouldRunAggregateQueryInReadOnlyTransaction() {
+        // Given
+        AvailableProductionRequest request = new AvailableProductionRequest(null, null, null, null, null);
+        List<ProductProductionResponse> capacity = List.of(new ProductProductionResponse(1L, "prod 1", 3));
 
-        when(productRepository.findAllWithMaterials()).thenReturn(List.of(p1, p2));
+        when(productionCapacityEngine.isEnabled()).thenReturn(false);
+        when(productionCapacityEngine.getAvailableProduction(request)).thenReturn(capacity);
 
         // When
-        List<ProductProductionResponse> result = productService.getAvailableProduction();
+        List<ProductProductionResponse> result = productService.getAvailableProduction(request);
 
         // Then
-        assertEquals(2, result.size());
-        assertEquals("prod 1", result.get(0).productName());
-        assertEquals(3, result.get(0).maxProductProduction());
-        assertEquals("prod 2", result.get(1).productName());
-        assertEquals(2, result.get(1).maxProductProduction());
+        assertEquals(capacity, result);
+        verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    @Test
+    void getAvailableProduction_whenDetailed_shouldDelegateToDetailedCapacity() {
+        // Given
+        AvailableProductionRequest request = new AvailableProductionRequest(20, "asc", null, null, true);
+        List<ProductProductionResponse> details = List.of(new ProductProductionResponse(1L, "prod 1", 3, 2L, List.of()));
+
+        when(productionCapacityEngine.getAvailableProductionDetails(request)).thenReturn(details);
+
+        // When
+        List<ProductProductionResponse> result = productService.getAvailableProduction(request);
+
+        // Then
+        assertEquals(details, result);
+        verify(productionCapacityEngine, never()).getAvailableProduction(any());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void simulateAvailableProduction_whenRepeatedMaterial_shouldSumDeltasAndNotQueryDatabase() {
+        // Given
+        ProductionSimulationRequest request = new ProductionSimulationRequest(List.of(
+                new StockDeltaRequest(3L, new BigDecimal("500")),
+                new StockDeltaRequest(1L, new BigDecimal("-20")),
+                new StockDeltaRequest(3L, new BigDecimal("-100"))));
+        List<ProductSimulationResponse> simulation = List.of(new ProductSimulationResponse(1L, "prod 1", 3, 5, 2));
+
+        when(productionCapacityEngine.simulate(Map.of(3L, new BigDecimal("400"), 1L, new BigDecimal("-20")))).thenReturn(simulation);
+
+        // When
+        List<ProductSimulationResponse> result = productService.simulateAvailableProduction(request);
+
+        // Then
+        assertEquals(simulation, result);
+        verifyNoInteractions(productRepository, productMaterialRepository, rawMaterialRepository, transactionManager);
+    }
+
+    @Test
+    void produce_whenStockSuffices_shouldConsumeRequirementsInIdOrder() {
+        // Given
+        when(materialRequirementsCalculator.calculate(Map.of(1L, new BigDecimal("3")))).thenReturn(List.of(
+                new MaterialRequirementResponse(2L, "material 2", new BigDecimal("6"), new BigDecimal("10"), BigDecimal.ZERO),
+                new MaterialRequirementResponse(1L, "material 1", new BigDecimal("1.5"), new BigDecimal("4"), BigDecimal.ZERO)));
+        when(rawMaterialRepository.adjustStocks(any(), any())).thenReturn(List.of());
+        when(rawMaterialRepository.findStockRows(any())).thenReturn(List.of(
+                new RawMaterialStockRow(1L, new BigDecimal("2.5"), 3L),
+                new RawMaterialStockRow(2L, new BigDecimal("4"), 7L)));
+
+        // When
+        ProductionOrderResponse result = productService.produce(1L, new ProductionOrderRequest(3));
+
+        // Then
+        verify(rawMaterialRepository).adjustStocks(new TreeMap<>(Map.of(1L, new BigDecimal("-1.5"), 2L, new BigDecimal("-6"))), Map.of());
+        verify(productionCapacityEngine).stockChanged(2L, new BigDecimal("4"), 7L);
+        assertEquals(new MaterialConsumptionResponse(2L, "material 2", new BigDecimal("6"), new BigDecimal("4")), result.consumed().getFirst());
+    }
+
+    @Test
+    void produce_whenAnyMaterialIsShort_shouldThrowInsufficientStockException() {
+        // Given
+        when(materialRequirementsCalculator.calculate(Map.of(1L, new BigDecimal("3")))).thenReturn(List.of(
+                new MaterialRequirementResponse(1L, "material 1", new BigDecimal("30"), new BigDecimal("10"), new BigDecimal("20"))));
+        when(rawMaterialRepository.adjustStocks(any(), any())).thenReturn(List.of(1L));
 
-        verify(productRepository).findAllWithMaterials();
+        // When / Then
+        assertThrows(InsufficientStockException.class, () -> productService.produce(1L, new ProductionOrderRequest(3)));
+        verify(productionCapacityEngine, never()).stockChanged(any(), any(), any());
     }
 }
@@ -0,0 +1,444 @@
+package dev.test.projedata.autoflex.api.service;
+
+import dev.test.projedata.autoflex.api.dtos.request.AvailableProductionRequest;
+import dev.test.projedata.autoflex.api.dtos.response.MaterialBalanceResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductProductionResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductSimulationResponse;
+import dev.test.projedata.autoflex.api.repository.ProductCapacityView;
+import dev.test.projedata.autoflex.api.repository.ProductComponentRepository;
+import dev.test.projedata.autoflex.api.repository.ProductComponentRow;
+import dev.test.projedata.autoflex.api.repository.ProductMaterialRow;
+import dev.test.projedata.autoflex.api.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductionCapacityEngineTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductComponentRepository productComponentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductionCapacityEngine productionCapacityEngine;
+
+    @BeforeEach
+    void setUp() {
+        productionCapacityEngine = new ProductionCapacityEngine(productRepository, productComponentRepository, new CapacityEvaluator(50_000, 1), transactionManager, true);
+
+        List<ProductMaterialRow> rows = List.of(
+                new ProductMaterialRow(1L, "prod 1", 1L, new BigDecimal("30"), 0L, new BigDecimal("5")),
+                new ProductMaterialRow(1L, "prod 1", 2L, new BigDecimal("15"), 0L, new BigDecimal("5")),
+                new ProductMaterialRow(2L, "prod 2", 1L, new BigDecimal("30"), 0L, new BigDecimal("15")),
+                new ProductMaterialRow(3L, "prod 3", null, null, null, null));
+
+        lenient().when(productRepository.findAllMaterialRows()).thenReturn(rows);
+    }
+
+    @Test
+    void getAvailableProduction_whenExistsRelationshipBetweenProductAndRawMaterial_shouldReturnListOfProductProductionResponse() {
+        // When
+        List<ProductProductionResponse> result = productionCapacityEngine.getAvailableProduction();
+
+        // Then
+        assertEquals(3, result.size());
+        assertEquals("prod 1", result.get(0).productName());
+        assertEquals(3, result.get(0).maxProductProduction());
+        assertEquals("prod 2", result.get(1).productName());
+        assertEquals(2, result.get(1).maxProductProduction());
+        assertEquals("prod 3", result.get(2).productName());
+        assertEquals(0, result.get(2).maxProductProduction());
+    }
+
+    @Test
+    void getAvailableProduction_whenCalledRepeatedly_shouldLoadCatalogOnlyOnce() {
+        // When
+        productionCapacityEngine.getAvailableProduction();
+        productionCapacityEngine.getAvailableProduction();
+
+        // Then
+        verify(productRepository, times(1)).findAllMaterialRows();
+    }
+
+    @Test
+    void getAvailableProduction_shouldLoadCatalogInOneRepeatableReadTransaction() {
+        // When
+        productionCapacityEngine.getAvailableProduction();
+
+        // Then
+        verify(transactionManager).getTransaction(argThat(definition -> definition.isReadOnly()
+                && definition.getIsolationLevel() == TransactionDefinition.ISOLATION_REPEATABLE_READ));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void getAvailableProduction_whenComponentLinkPointsAtUnloadedProduct_shouldSkipIt() {
+        // Given
+        when(productComponentRepository.findAllRows()).thenReturn(List.of(
+                new ProductComponentRow(3L, 1L, new BigDecimal("2")),
+                new ProductComponentRow(4L, 1L, BigDecimal.ONE)));
+
+        // When
+        List<ProductProductionResponse> result = productionCapacityEngine.getAvailableProduction();
+
+        // Then
+        assertEquals(3, result.size());
+        assertEquals(1, result.get(2).maxProductProduction());
+    }
+
+    @Test
+    void stockChanged_shouldRecomputeOnlyProductsThatConsumeTheMaterial() {
+        // Given
+        productionCapacityEngine.getAvailableProduction();
+
+        // When
+        productionCapacityEngine.stockChanged(2L, new BigDecimal("50"), 1L);
+        List<ProductProductionResponse> result = productionCapacityEngine.getAvailableProduction();
+
+        // Then
+        assertEquals(6, result.get(0).maxProductProduction());
+        assertEquals(2, result.get(1).maxProductProduction());
+        verify(productRepository, times(1)).findAllMaterialRows();
+    }
+
+    @Test
+    void stockChanged_whenOlderVersionArrivesLate_shouldKeepNewerStock() {
+        // Given
+        productionCapacityEngine.getAvailableProduction();
+
+        // When
+        productionCapacityEngine.stockChanged(2L, new BigDecimal("35"), 2L);
+        productionCapacityEngine.stockChanged(2L, new BigDecimal("20"), 1L);
+        List<ProductProductionResponse> result = productionCapacityEngine.getAvailableProduction();
+
+        // Then
+        assertEquals(6, result.get(0).maxProductProduction());
+        verify(productRepository, times(1)).findAllMaterialRows();
+    }
+
+    @Test
+    void stockChanged_whenVersionIsNotNewerThanLoaded_shouldBeIgnored() {
+        // Given
+        productionCapacityEngine.getAvailableProduction();
+
+        // When
+        productionCapacityEngine.stockChanged(2L, new BigDecimal("100"), 0L);
+        List<ProductProductionResponse> result = productionCapacityEngine.getAvailableProduction();
+
+        // Then
+        assertEquals(3, result.get(0).maxProductProduction());
+    }
+
+    @Test
+    void materialLinked_andRequirementChanged_shouldUpdateMaterializedCapacity() {
+        // Given
+        productionCapacityEngine.getAvailableProduction();
+
+        // When
+        productionCapacityEngine.materialLinked(2L, "prod 2", 3L, new BigDecimal("50"), 0L, new BigDecimal("50"));
+        List<ProductProductionResponse> afterLink = productionCapacityEngine.getAvailableProduction();
+
+        productionCapacityEngine.requirementChanged(2L, 3L, new BigDecimal("10"));
+        List<ProductProductionResponse> afterChange = productionCapacityEngine.getAvailableProduction();
+
+        // Then
+        assertEquals(1, afterLink.get(1).maxProductProduction());
+        assertEquals(2, afterChange.get(1).maxProductProduction());
+    }
+
+    @Test
+    void materialUnlinked_whenLastMaterialRemoved_shouldKeepProductWithZeroCapacity() {
+        // Given
+        productionCapacityEngine.getAvailableProduction();
+
+        // When
+        productionCapacityEngine.materialUnlinked(2L, 1L);
+        productionCapacityEngine.materialUnlinked(1L, 2L);
+        List<ProductProductionResponse> result = productionCapacityEngine.getAvailableProduction();
+
+        // Then
+        assertEquals(3, result.size());
+        assertEquals(6, result.get(0).maxProductProduction());
+        assertEquals(0, result.get(1).maxProductProduction());
+    }
+
+    @Test
+    void productAdded_shouldAppearWithZeroCapacity() {
+        // Given
+        productionCapacityEngine.getAvailableProduction();
+
+        // When
+        productionCapacityEngine.productAdded(4L, "prod 4");
+        List<ProductProductionResponse> result = productionCapacityEngine.getAvailableProduction();
+
+        // Then
+        assertEquals(new ProductProductionResponse(4L, "prod 4", 0), result.getLast());
+    }
+
+    @Test
+    void getAvailableProduction_whenEngineDisabled_shouldDelegateToAggregateQuery() {
+        // Given
+        ProductionCapacityEngine disabled = new ProductionCapacityEngine(productRepository, productComponentRepository, new CapacityEvaluator(50_000, 1), transactionManager, false);
+        ProductCapacityView view = mock(ProductCapacityView.class);
+
+        when(view.getProductId()).thenReturn(1L);
+        when(view.getProductName()).thenReturn("prod 1");
+        when(view.getMaxProductProduction()).thenReturn(3);
+        when(productRepository.streamAvailableProduction()).thenReturn(Stream.of(view));
+
+        // When
+        List<ProductProductionResponse> result = disabled.getAvailableProduction();
+
+        // Then
+        assertEquals(List.of(new ProductProductionResponse(1L, "prod 1", 3)), result);
+        verify(productRepository, never()).findAllMaterialRows();
+        verify(productRepository, never()).findAvailableProduction();
+    }
+
+    @Test
+    void getAvailableProduction_whenEngineDisabledWithLimit_shouldSelectFromTheCursorAndCloseIt() {
+        // Given
+        ProductionCapacityEngine disabled = new ProductionCapacityEngine(productRepository, productComponentRepository, new CapacityEvaluator(50_000, 1), transactionManager, false);
+        AtomicBoolean closed = new AtomicBoolean();
+        List<ProductCapacityView> views = new ArrayList<>();
+
+        for (long id = 1; id <= 5; id++) {
+            ProductCapacityView view = mock(ProductCapacityView.class);
+            lenient().when(view.getProductId()).thenReturn(id);
+            lenient().when(view.getProductName()).thenReturn("prod " + id);
+            when(view.getMaxProductProduction()).thenReturn((int) id * 2);
+            views.add(view);
+        }
+        when(productRepository.streamAvailableProduction()).thenReturn(views.stream().onClose(() -> closed.set(true)));
+
+        // When
+        List<ProductProductionResponse> result = disabled.getAvailableProduction(new AvailableProductionRequest(2, "desc", null, null, null));
+
+        // Then
+        assertEquals(List.of(new ProductProductionResponse(5L, "prod 5", 10), new ProductProductionResponse(4L, "prod 4", 8)), result);
+        assertTrue(closed.get());
+        verify(productRepository, never()).findAvailableProduction();
+    }
+
+    @Test
+    void reservationChanged_shouldComputeCapacityOnUnreservedStock() {
+        // Given
+        productionCapacityEngine.getAvailableProduction();
+
+        // When
+        productionCapacityEngine.reservationChanged(1L, new BigDecimal("20"));
+        List<ProductProductionResponse> reserved = productionCapacityEngine.getAvailableProduction();
+        productionCapacityEngine.reservationChanged(1L, BigDecimal.ZERO);
+        List<ProductProductionResponse> released = productionCapacityEngine.getAvailableProduction();
+
+        // Then
+        assertEquals(2, reserved.get(0).maxProductProduction());
+        assertEquals(0, reserved.get(1).maxProductProduction());
+        assertEquals(3, released.get(0).maxProductProduction());
+        assertEquals(2, released.get(1).maxProductProduction());
+        verify(productRepository, times(1)).findAllMaterialRows();
+    }
+
+    @Test
+    void reservationChanged_whenEngineDisabled_shouldAnswerFromEngineWhileReservationsAreHeld() {
+        // Given
+        ProductionCapacityEngine disabled = new ProductionCapacityEngine(productRepository, productComponentRepository, new CapacityEvaluator(50_000, 1), transactionManager, false);
+
+        // When
+        disabled.reservationChanged(2L, new BigDecimal("10"));
+        List<ProductProductionResponse> result = disabled.getAvailableProduction();
+
+        // Then
+        assertEquals(1, result.get(0).maxProductProduction());
+        verify(productRepository, never()).streamAvailableProduction();
+    }
+
+    @Test
+    void productRenamedAndRemoved_shouldBeReflectedWithoutReload() {
+        // Given
+        productionCapacityEngine.getAvailableProduction();
+
+        // When
+        productionCapacityEngine.productRenamed(1L, "prod 1 v2");
+        productionCapacityEngine.productRemoved(2L);
+        productionCapacityEngine.stockChanged(1L, new BigDecimal("0"), 1L);
+        List<ProductProductionResponse> result = productionCapacityEngine.getAvailableProduction();
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals("prod 1 v2", result.getFirst().productName());
+        assertEquals(0, result.getFirst().maxProductProduction());
+        verify(productRepository, times(1)).findAllMaterialRows();
+    }
+
+    @Test
+    void getAvailableProduction_whenProductHasSubAssembly_shouldExplodeComponentRequirements() {
+        // Given
+        when(productComponentRepository.findAllRows()).thenReturn(List.of(new ProductComponentRow(3L, 1L, new BigDecimal("2"))));
+
+        // When
+        List<ProductProductionResponse> result = productionCapacityEngine.getAvailableProduction();
+
+        // Then
+        assertEquals(3, result.get(0).maxProductProduction());
+        assertEquals(1, result.get(2).maxProductProduction());
+    }
+
+    @Test
+    void stockChanged_whenMaterialIsUsedThroughSubAssembly_shouldRecomputeParentProduct() {
+        // Given
+        when(productComponentRepository.findAllRows()).thenReturn(List.of(new ProductComponentRow(3L, 1L, new BigDecimal("2"))));
+        productionCapacityEngine.getAvailableProduction();
+
+        // When
+        productionCapacityEngine.stockChanged(2L, new BigDecimal("50"), 1L);
+        List<ProductProductionResponse> result = productionCapacityEngine.getAvailableProduction();
+
+        // Then
+        assertEquals(6, result.get(0).maxProductProduction());
+        assertEquals(3, result.get(2).maxProductProduction());
+    }
+
+    @Test
+    void componentLinkedChangedAndUnlinked_shouldReexplodeProductAndAncestors() {
+        // Given
+        productionCapacityEngine.getAvailableProduction();
+
+        // When
+        productionCapacityEngine.componentLinked(3L, "prod 3", 2L, BigDecimal.ONE);
+        productionCapacityEngine.componentLinked(2L, "prod 2", 1L, BigDecimal.ONE);
+        List<ProductProductionResponse> afterLink = productionCapacityEngine.getAvailableProduction();
+
+        productionCapacityEngine.componentRequirementChanged(2L, 1L, new BigDecimal("4"));
+        List<ProductProductionResponse> afterChange = productionCapacityEngine.getAvailableProduction();
+
+        productionCapacityEngine.componentUnlinked(3L, 2L);
+        List<ProductProductionResponse> afterUnlink = productionCapacityEngine.getAvailableProduction();
+
+        // Then
+        assertEquals(1, afterLink.get(1).maxProductProduction());
+        assertEquals(1, afterLink.get(2).maxProductProduction());
+        assertEquals(0, afterChange.get(1).maxProductProduction());
+        assertEquals(0, afterChange.get(2).maxProductProduction());
+        assertEquals(0, afterUnlink.get(2).maxProductProduction());
+        verify(productRepository, times(1)).findAllMaterialRows();
+    }
+
+    @Test
+    void simulate_shouldApplyDeltasOnlyToTheSimulationAndReportDifference() {
+        // When
+        List<ProductSimulationResponse> result = productionCapacityEngine.simulate(Map.of(2L, new BigDecimal("35"), 99L, BigDecimal.TEN));
+        List<ProductProductionResponse> current = productionCapacityEngine.getAvailableProduction();
+
+        // Then
+        assertEquals(new ProductSimulationResponse(1L, "prod 1", 3, 6, 3), result.get(0));
+        assertEquals(new ProductSimulationResponse(2L, "prod 2", 2, 2, 0), result.get(1));
+        assertEquals(new ProductSimulationResponse(3L, "prod 3", 0, 0, 0), result.get(2));
+        assertEquals(3, current.get(0).maxProductProduction());
+    }
+
+    @Test
+    void simulate_whenDeltaExceedsStock_shouldTreatStockAsEmpty() {
+        // When
+        List<ProductSimulationResponse> result = productionCapacityEngine.simulate(Map.of(1L, new BigDecimal("-100")));
+
+        // Then
+        assertEquals(0, result.get(0).simulatedProduction());
+        assertEquals(-3, result.get(0).difference());
+        assertEquals(0, result.get(1).simulatedProduction());
+    }
+
+    @Test
+    void simulate_afterStockChanged_shouldUseRefreshedSnapshot() {
+        // Given
+        productionCapacityEngine.simulate(Map.of());
+
+        // When
+        productionCapacityEngine.stockChanged(1L, new BigDecimal("60"), 1L);
+        List<ProductSimulationResponse> result = productionCapacityEngine.simulate(Map.of(2L, new BigDecimal("15")));
+
+        // Then
+        assertEquals(new ProductSimulationResponse(1L, "prod 1", 3, 6, 3), result.get(0));
+        assertEquals(new ProductSimulationResponse(2L, "prod 2", 4, 4, 0), result.get(1));
+        verify(productRepository, times(1)).findAllMaterialRows();
+    }
+
+    @Test
+    void getAvailableProductionDetails_shouldReportLimitingMaterialAndStockBalance() {
+        // When
+        List<ProductProductionResponse> result = productionCapacityEngine.getAvailableProductionDetails(new AvailableProductionRequest(null, null, null, null, true));
+
+        // Then
+        ProductProductionResponse prod1 = result.get(0);
+        assertEquals(3, prod1.maxProductProduction());
+        assertEquals(2L, prod1.limitingRawMaterialId());
+        assertEquals(List.of(
+                new MaterialBalanceResponse(1L, new BigDecimal("5"), new BigDecimal("30"), new BigDecimal("15"), BigDecimal.ZERO),
+                new MaterialBalanceResponse(2L, new BigDecimal("5"), new BigDecimal("15"), new BigDecimal("0"), new BigDecimal("5"))), prod1.materials());
+
+        ProductProductionResponse prod3 = result.get(2);
+        assertNull(prod3.limitingRawMaterialId());
+        assertEquals(List.of(), prod3.materials());
+    }
+
+    @Test
+    void getAvailableProduction_whenLimitAndSortGiven_shouldReturnTopProductsOnly() {
+        // When
+        List<ProductProductionResponse> result = productionCapacityEngine.getAvailableProduction(new AvailableProductionRequest(2, "desc", null, null, null));
+
+        // Then
+        assertEquals(List.of(new ProductProductionResponse(1L, "prod 1", 3), new ProductProductionResponse(2L, "prod 2", 2)), result);
+    }
+
+    @Test
+    void forEachAvailableProduction_whenEngineDisabled_shouldConsumeAndCloseTheCursor() {
+        // Given
+        ProductionCapacityEngine disabled = new ProductionCapacityEngine(productRepository, productComponentRepository, new CapacityEvaluator(50_000, 1), transactionManager, false);
+        ProductCapacityView view = mock(ProductCapacityView.class);
+        AtomicBoolean closed = new AtomicBoolean();
+        List<ProductProductionResponse> consumed = new ArrayList<>();
+
+        when(view.getProductId()).thenReturn(1L);
+        when(view.getProductName()).thenReturn("prod 1");
+        when(view.getMaxProductProduction()).thenReturn(3);
+        when(productRepository.streamAvailableProduction()).thenReturn(Stream.of(view).onClose(() -> closed.set(true)));
+
+        // When
+        disabled.forEachAvailableProduction(consumed::add);
+
+        // Then
+        assertEquals(List.of(new ProductProductionResponse(1L, "prod 1", 3)), consumed);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void forEachAvailableProduction_shouldVisitEveryProductInCatalogOrder() {
+        // Given
+        List<ProductProductionResponse> consumed = new ArrayList<>();
+
+        // When
+        productionCapacityEngine.forEachAvailableProduction(consumed::add);
+
+        // Then
+        assertEquals(productionCapacityEngine.getAvailableProduction(), consumed);
+    }
+}
@@ -0,0 +1,107 @@
+package dev.test.projedata.autoflex.api.service;
+
+import dev.test.projedata.autoflex.api.benchmark.SyntheticCatalog;
+import dev.test.projedata.autoflex.api.domain.Product;
+import dev.test.projedata.autoflex.api.domain.ProductMaterial;
+import dev.test.projedata.autoflex.api.domain.RawMaterial;
+import dev.test.projedata.autoflex.api.dtos.response.ProductionPlanItemResponse;
+import dev.test.projedata.autoflex.api.dtos.response.ProductionPlanResponse;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductionPlannerTest {
+
+    private final ProductionPlanner productionPlanner = new ProductionPlanner(2000);
+
+    @Test
+    void plan_whenProductsShareMaterial_shouldPreferHigherRevenueCombination() {
+        // Given
+        RawMaterial rm1 = new RawMaterial(1L, "material 1", new BigDecimal("30"));
+
+        Product p1 = new Product(1L, "prod 1", new BigDecimal("100.00"));
+        p1.getProductMaterials().add(new ProductMaterial(1L, p1, rm1, new BigDecimal("10")));
+
+        Product p2 = new Product(2L, "prod 2", new BigDecimal("40.00"));
+        p2.getProductMaterials().add(new ProductMaterial(2L, p2, rm1, new BigDecimal("3")));
+
+        // When
+        ProductionPlanResponse result = productionPlanner.plan(List.of(p1, p2), null);
+
+        // Then
+        Map<Long, Integer> quantities = result.items().stream()
+                .collect(Collectors.toMap(ProductionPlanItemResponse::productId, ProductionPlanItemResponse::quantity));
+        assertEquals(10, quantities.get(2L));
+        assertNull(quantities.get(1L));
+        assertEquals(0, new BigDecimal("400.00").compareTo(result.totalRevenue()));
+    }
+
+    @Test
+    void plan_whenProductHasNoMaterials_shouldNotProduceIt() {
+        // Given
+        Product product = new Product(1L, "prod 1", new BigDecimal("100.00"));
+
+        // When
+        ProductionPlanResponse result = productionPlanner.plan(List.of(product), null);
+
+        // Then
+        assertTrue(result.items().isEmpty());
+        assertEquals(BigDecimal.ZERO, result.totalRevenue());
+    }
+
+    @Test
+    void planUntil_whenDeadlineHasAlreadyPassed_shouldStillReturnCompleteFeasiblePlan() {
+        // Given
+        List<Product> catalog = SyntheticCatalog.generate(10_000, 2_000, 5, 7L);
+
+        // When
+        ProductionPlanResponse result = productionPlanner.planUntil(catalog, System.nanoTime());
+
+        // Then
+        assertTrue(result.deadlineReached());
+        assertTrue(result.totalRevenue().signum() > 0);
+        Map<RawMaterial, BigDecimal> remaining = remainingStock(catalog, result);
+        remaining.values().forEach(quantity -> assertTrue(quantity.signum() >= 0));
+        // Complete: no product fits one more unit in what is left.
+        for (Product product : catalog) {
+            if (product.getProductMaterials().isEmpty()) continue;
+            assertTrue(product.getProductMaterials().stream()
+                    .anyMatch(pm -> remaining.get(pm.getRawMaterial()).compareTo(pm.getQuantityRequired()) < 0), "product " + product.getId());
+        }
+    }
+
+    @Test
+    void plan_whenCatalogIsLarge_shouldImproveOnFirstGreedyRoundAndRespectStock() {
+        // Given
+        List<Product> catalog = SyntheticCatalog.generate(10_000, 2_000, 5, 7L);
+        ProductionPlanResponse greedy = productionPlanner.planUntil(catalog, System.nanoTime());
+
+        // When
+        ProductionPlanResponse result = productionPlanner.plan(catalog, 1_000L);
+
+        // Then
+        assertTrue(result.totalRevenue().compareTo(greedy.totalRevenue()) >= 0);
+        remainingStock(catalog, result).values().forEach(quantity -> assertTrue(quantity.signum() >= 0));
+    }
+
+    private static Map<RawMaterial, BigDecimal> remainingStock(List<Product> catalog, ProductionPlanResponse plan) {
+        Map<Long, Product> byId = catalog.stream().collect(Collectors.toMap(Product::getId, Function.identity()));
+        Map<RawMaterial, BigDecimal> remaining = new HashMap<>();
+        for (Product product : catalog) {
+            for (ProductMaterial pm : product.getProductMaterials()) remaining.putIfAbsent(pm.getRawMaterial(), pm.getRawMaterial().getStockQuantity());
+        }
+        for (ProductionPlanItemResponse item : plan.items()) {
+            for (ProductMaterial pm : byId.get(item.productId()).getProductMaterials()) {
+                remaining.merge(pm.getRawMaterial(), pm.getQuantityRequired().multiply(BigDecimal.valueOf(item.quantity())).negate(), BigDecimal::add);
+            }
+        }
+        return remaining;
+    }
+}
@@ -1,25 +1,43 @@
 package dev.test.projedata.autoflex.api.service;
 
 import dev.test.projedata.autoflex.api.domain.RawMaterial;
+import dev.test.projedata.autoflex.api.dtos.request.CursorPageRequest;
 import dev.test.projedata.autoflex.api.dtos.request.RawMaterialRequest;
+import dev.test.projedata.autoflex.api.dtos.request.StockAdjustmentBatchRequest;
+import dev.test.projedata.autoflex.api.dtos.request.StockAdjustmentRequest;
+import dev.test.projedata.autoflex.api.dtos.request.StockDeltaRequest;
+import dev.test.projedata.autoflex.api.dtos.response.CursorPageResponse;
 import dev.test.projedata.autoflex.api.dtos.response.RawMaterialResponse;
+import dev.test.projedata.autoflex.api.exceptions.InsufficientStockException;
+import dev.test.projedata.autoflex.api.exceptions.InvalidCursorException;
 import dev.test.projedata.autoflex.api.exceptions.ResourceNotFoundException;
 import dev.test.projedata.autoflex.api.mapper.RawMaterialMapper;
 import dev.test.projedata.autoflex.api.repository.RawMaterialRepository;
+import dev.test.projedata.autoflex.api.repository.RawMaterialStockRow;
 import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -33,9 +51,35 @@ class RawMaterialServiceTest {
     @Mock
     private RawMaterialMapper rawMaterialMapper;
 
+    @Mock
+    private ProductionCapacityEngine productionCapacityEngine;
+
+    @Spy
+    private CatalogResponseCache catalogResponseCache = new CatalogResponseCache(100, Duration.ofMinutes(1));
+
+    @Mock
+    private CatalogVersion catalogVersion;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private OptimisticRetry optimisticRetry;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private RawMaterialService rawMaterialService;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(stockReservationService.consume(any(), any()))
+                .thenAnswer(inv -> inv.<Function<Map<Long, BigDecimal>, Object>>getArgument(1).apply(Map.of()));
+        lenient().when(optimisticRetry.execute(any(), any()))
+                .thenAnswer(inv -> inv.<Supplier<Object>>getArgument(1).get());
+    }
+
     @Test
     void findAll_whenExistsRawMaterials_shouldReturnPageOfRawMaterialResponse() {
         // Given
@@ -88,6 +132,55 @@ class RawMaterialServiceTest {
         verify(rawMaterialMapper, never()).toResponse(any());
     }
 
+    @Test
+    void findAllByCursor_whenMoreRowsThanSize_shouldReturnNextCursorFromLastItem() {
+        // Given
+        RawMaterial rm1 = new RawMaterial(1L, "material 1", new BigDecimal("30"));
+        RawMaterial rm2 = new RawMaterial(2L, "material 2", new BigDecimal("15"));
+        RawMaterial rm3 = new RawMaterial(3L, "material 3", new BigDecimal("50"));
+
+        when(rawMaterialRepository.findKeysetPage(Limit.of(3))).thenReturn(List.of(rm1, rm2, rm3));
+        when(rawMaterialMapper.toResponse(rm1)).thenReturn(new RawMaterialResponse(1L, "material 1", new BigDecimal("30")));
+        when(rawMaterialMapper.toResponse(rm2)).thenReturn(new RawMaterialResponse(2L, "material 2", new BigDecimal("15")));
+
+        // When
+        CursorPageResponse<RawMaterialResponse> result = rawMaterialService.findAllByCursor(new CursorPageRequest(null, 2));
+
+        // Then
+        assertEquals(2, result.content().size());
+        assertTrue(result.hasNext());
+        assertEquals(new KeysetCursor("material 2", 2L), KeysetCursor.decode(result.nextCursor()));
+        verify(rawMaterialMapper, never()).toResponse(rm3);
+    }
+
+    @Test
+    void findAllByCursor_whenAfterGiven_shouldSeekPastCursorAndEndWithoutNextCursor() {
+        // Given
+        RawMaterial rm3 = new RawMaterial(3L, "material 3", new BigDecimal("50"));
+        String after = new KeysetCursor("material 2", 2L).encode();
+
+        when(rawMaterialRepository.findKeysetPageAfter("material 2", 2L, Limit.of(11))).thenReturn(List.of(rm3));
+        when(rawMaterialMapper.toResponse(rm3)).thenReturn(new RawMaterialResponse(3L, "material 3", new BigDecimal("50")));
+
+        // When
+        CursorPageResponse<RawMaterialResponse> result = rawMaterialService.findAllByCursor(new CursorPageRequest(after, null));
+
+        // Then
+        assertEquals(1, result.content().size());
+        assertFalse(result.hasNext());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void findAllByCursor_whenCursorIsMalformed_shouldThrowInvalidCursorException() {
+        // Given
+        CursorPageRequest request = new CursorPageRequest("not-a-cursor", 10);
+
+        // When / Then
+        assertThrows(InvalidCursorException.class, () -> rawMaterialService.findAllByCursor(request));
+        verifyNoInteractions(rawMaterialRepository);
+    }
+
     @Test
     void findById_whenExistsRawMaterial_shouldReturnRawMaterialResponse() {
         // Given
@@ -103,6 +196,7 @@ class RawMaterialServiceTest {
         // Then
         assertEquals(resp, result);
         verify(rawMaterialRepository).findById(1L);
+        verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
         verify(rawMaterialMapper).toResponse(rawMaterial);
     }
 
@@ -155,13 +249,14 @@ class RawMaterialServiceTest {
         when(rawMaterialMapper.toResponse(updatedRawMaterial)).thenReturn(response);
 
         // When
-        RawMaterialResponse result = rawMaterialService.update(rawMaterialId, request);
+        RawMaterialResponse result = rawMaterialService.update(rawMaterialId, request, null);
 
         // Then
         assertEquals(response, result);
         assertEquals(request.stockQuantity(), result.stockQuantity());
         verify(rawMaterialRepository).getReferenceById(rawMaterialId);
         verify(rawMaterialMapper).toResponse(updatedRawMaterial);
+        verify(productionCapacityEngine).stockChanged(rawMaterialId, request.stockQuantity(), null);
     }
 
     @Test
@@ -174,7 +269,7 @@ class RawMaterialServiceTest {
         when(rawMaterialRepository.getReferenceById(rawMaterialId)).thenThrow(EntityNotFoundException.class);
 
         // When/Then
-        assertThrows(ResourceNotFoundException.class, () -> rawMaterialService.update(rawMaterialId, request));
+        assertThrows(ResourceNotFoundException.class, () -> rawMaterialService.update(rawMaterialId, request, null));
         verify(rawMaterialRepository).getReferenceById(rawMaterialId);
         verify(rawMaterialMapper, never()).toResponse(any());
     }
@@ -207,4 +302,97 @@ class RawMaterialServiceTest {
         verify(rawMaterialRepository).existsById(rawMaterialId);
         verify(rawMaterialRepository, never()).deleteById(rawMaterialId);
     }
+
+    @Test
+    void adjustStock_whenUpdateMatchesRow_shouldNotifyEngineWithCommittedStockAndVersion() {
+        // Given
+        RawMaterial rawMaterial = new RawMaterial(1L, "material 1", new BigDecimal("40"));
+        RawMaterialResponse resp = new RawMaterialResponse(1L, "material 1", new BigDecimal("40"));
+
+        when(rawMaterialRepository.adjustStock(1L, new BigDecimal("10"), BigDecimal.ZERO)).thenReturn(1);
+        when(rawMaterialRepository.findStockRows(List.of(1L))).thenReturn(List.of(new RawMaterialStockRow(1L, new BigDecimal("40"), 4L)));
+        when(rawMaterialRepository.findById(1L)).thenReturn(Optional.of(rawMaterial));
+        when(rawMaterialMapper.toResponse(rawMaterial)).thenReturn(resp);
+
+        // When
+        RawMaterialResponse result = rawMaterialService.adjustStock(1L, new StockAdjustmentRequest(new BigDecimal("10")));
+
+        // Then
+        assertEquals(resp, result);
+        verify(productionCapacityEngine).stockChanged(1L, new BigDecimal("40"), 4L);
+    }
+
+    @Test
+    void adjustStock_whenStockWouldBecomeNegative_shouldThrowInsufficientStockException() {
+        // Given
+        when(rawMaterialRepository.adjustStock(1L, new BigDecimal("-50"), BigDecimal.ZERO)).thenReturn(0);
+        when(rawMaterialRepository.existsById(1L)).thenReturn(true);
+
+        // When / Then
+        assertThrows(InsufficientStockException.class,
+                () -> rawMaterialService.adjustStock(1L, new StockAdjustmentRequest(new BigDecimal("-50"))));
+        verifyNoInteractions(productionCapacityEngine);
+    }
+
+    @Test
+    void adjustStock_whenWithdrawing_shouldKeepReservedStockAsFloor() {
+        // Given
+        doAnswer(inv -> inv.<Function<Map<Long, BigDecimal>, Object>>getArgument(1).apply(Map.of(1L, new BigDecimal("8"))))
+                .when(stockReservationService).consume(any(), any());
+        when(rawMaterialRepository.adjustStock(1L, new BigDecimal("-5"), new BigDecimal("8"))).thenReturn(0);
+        when(rawMaterialRepository.existsById(1L)).thenReturn(true);
+
+        // When / Then
+        assertThrows(InsufficientStockException.class,
+                () -> rawMaterialService.adjustStock(1L, new StockAdjustmentRequest(new BigDecimal("-5"))));
+        verify(stockReservationService).consume(eq(List.of(1L)), any());
+    }
+
+    @Test
+    void adjustStock_whenNotExistsRawMaterial_shouldThrowResourceNotFoundException() {
+        // Given
+        when(rawMaterialRepository.adjustStock(999L, BigDecimal.ONE, BigDecimal.ZERO)).thenReturn(0);
+        when(rawMaterialRepository.existsById(999L)).thenReturn(false);
+
+        // When / Then
+        assertThrows(ResourceNotFoundException.class,
+                () -> rawMaterialService.adjustStock(999L, new StockAdjustmentRequest(BigDecimal.ONE)));
+    }
+
+    @Test
+    void adjustStocks_shouldSumDeltasPerMaterialAndSendThemInIdOrder() {
+        // Given
+        StockAdjustmentBatchRequest request = new StockAdjustmentBatchRequest(List.of(
+                new StockDeltaRequest(2L, new BigDecimal("5")),
+                new StockDeltaRequest(1L, new BigDecimal("-3")),
+                new StockDeltaRequest(2L, new BigDecimal("-1"))));
+
+        when(rawMaterialRepository.adjustStocks(any(), any())).thenReturn(List.of());
+        when(rawMaterialRepository.findStockRows(any())).thenReturn(List.of(
+                new RawMaterialStockRow(1L, new BigDecimal("7"), 2L),
+                new RawMaterialStockRow(2L, new BigDecimal("14"), 5L)));
+
+        // When
+        rawMaterialService.adjustStocks(request);
+
+        // Then
+        verify(rawMaterialRepository).adjustStocks(new TreeMap<>(Map.of(1L, new BigDecimal("-3"), 2L, new BigDecimal("4"))), Map.of());
+        verify(productionCapacityEngine).stockChanged(1L, new BigDecimal("7"), 2L);
+        verify(productionCapacityEngine).stockChanged(2L, new BigDecimal("14"), 5L);
+    }
+
+    @Test
+    void adjustStocks_whenAnyRowRefused_shouldThrowInsufficientStockException() {
+        // Given
+        StockAdjustmentBatchRequest request = new StockAdjustmentBatchRequest(List.of(
+                new StockDeltaRequest(1L, new BigDecimal("-3")),
+                new StockDeltaRequest(2L, new BigDecimal("-100"))));
+
+        when(rawMaterialRepository.adjustStocks(any(), any())).thenReturn(List.of(2L));
+        when(rawMaterialRepository.findAllById(List.of(2L))).thenReturn(List.of(new RawMaterial(2L, "material 2", new BigDecimal("15"))));
+
+        // When / Then
+        assertThrows(InsufficientStockException.class, () -> rawMaterialService.adjustStocks(request));
+        verifyNoInteractions(productionCapacityEngine);
+    }
 }
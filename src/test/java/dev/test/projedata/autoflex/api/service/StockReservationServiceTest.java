@@ -0,0 +1,197 @@
+package dev.test.projedata.autoflex.api.service;
+
+import dev.test.projedata.autoflex.api.dtos.request.StockReservationExtensionRequest;
+import dev.test.projedata.autoflex.api.dtos.request.StockReservationRequest;
+import dev.test.projedata.autoflex.api.dtos.response.StockReservationResponse;
+import dev.test.projedata.autoflex.api.exceptions.InsufficientStockException;
+import dev.test.projedata.autoflex.api.exceptions.ResourceNotFoundException;
+import dev.test.projedata.autoflex.api.repository.RawMaterialRepository;
+import dev.test.projedata.autoflex.api.repository.RawMaterialStockRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T10:00:00Z");
+
+    @Mock
+    private RawMaterialRepository rawMaterialRepository;
+
+    @Mock
+    private ProductionCapacityEngine productionCapacityEngine;
+
+    @Mock
+    private CatalogVersion catalogVersion;
+
+    // Not started and with time frozen: each advance() is one second.
+    private final HashedTimingWheel wheel = new HashedTimingWheel("test-wheel", 1000, 8, () -> 0L);
+
+    private StockReservationService stockReservationService;
+
+    @BeforeEach
+    void setUp() {
+        stockReservationService = new StockReservationService(rawMaterialRepository, productionCapacityEngine, catalogVersion,
+                wheel, Clock.fixed(NOW, ZoneOffset.UTC), 4);
+
+        lenient().when(rawMaterialRepository.findStockRows(List.of(1L))).thenReturn(List.of(new RawMaterialStockRow(1L, new BigDecimal("10"), 1L)));
+    }
+
+    @Test
+    void reserve_whenUnreservedStockIsEnough_shouldHoldQuantityAndNotifyEngine() {
+        // When
+        StockReservationResponse result = stockReservationService.reserve(new StockReservationRequest(1L, new BigDecimal("4"), 60L));
+        stockReservationService.reserve(new StockReservationRequest(1L, new BigDecimal("6"), 60L));
+
+        // Then
+        assertEquals(1L, result.rawMaterialId());
+        assertEquals(NOW.plusSeconds(60), result.expiresAt());
+        assertEquals(0, new BigDecimal("10").compareTo(stockReservationService.reservedQuantity(1L)));
+        verify(productionCapacityEngine).reservationChanged(1L, new BigDecimal("4"));
+        verify(productionCapacityEngine).reservationChanged(1L, new BigDecimal("10"));
+    }
+
+    @Test
+    void reserve_whenQuantityExceedsUnreservedStock_shouldThrowInsufficientStockException() {
+        // Given
+        stockReservationService.reserve(new StockReservationRequest(1L, new BigDecimal("7"), 60L));
+
+        // When / Then
+        assertThrows(InsufficientStockException.class,
+                () -> stockReservationService.reserve(new StockReservationRequest(1L, new BigDecimal("4"), 60L)));
+        assertEquals(0, new BigDecimal("7").compareTo(stockReservationService.reservedQuantity(1L)));
+    }
+
+    @Test
+    void reserve_whenWithdrawalCommitsWhileStockIsRead_shouldReadItAgain() {
+        // Given
+        AtomicInteger reads = new AtomicInteger();
+        when(rawMaterialRepository.findStockRows(List.of(1L))).thenAnswer(inv -> {
+            if (reads.incrementAndGet() > 1) return List.of(new RawMaterialStockRow(1L, new BigDecimal("3"), 2L));
+
+            // The stripe is free during the read, so a withdrawal on another thread completes meanwhile.
+            CompletableFuture.runAsync(() -> stockReservationService.consume(List.of(1L), reserved -> null)).get(5, TimeUnit.SECONDS);
+            return List.of(new RawMaterialStockRow(1L, new BigDecimal("10"), 1L));
+        });
+
+        // When / Then
+        assertThrows(InsufficientStockException.class,
+                () -> stockReservationService.reserve(new StockReservationRequest(1L, new BigDecimal("4"), 60L)));
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    void reserve_whenStockKeepsChanging_shouldGiveUpWithOptimisticLockingFailure() {
+        // Given
+        when(rawMaterialRepository.findStockRows(List.of(1L))).thenAnswer(inv -> {
+            stockReservationService.consume(List.of(1L), reserved -> null);
+            return List.of(new RawMaterialStockRow(1L, new BigDecimal("10"), 1L));
+        });
+
+        // When / Then
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> stockReservationService.reserve(new StockReservationRequest(1L, new BigDecimal("4"), 60L)));
+        verify(rawMaterialRepository, times(StockReservationService.MAX_STOCK_READS)).findStockRows(List.of(1L));
+        assertEquals(0, BigDecimal.ZERO.compareTo(stockReservationService.reservedQuantity(1L)));
+    }
+
+    @Test
+    void reserve_whenRawMaterialDoesNotExist_shouldThrowResourceNotFoundException() {
+        // Given
+        when(rawMaterialRepository.findStockRows(List.of(99L))).thenReturn(List.of());
+
+        // When / Then
+        assertThrows(ResourceNotFoundException.class,
+                () -> stockReservationService.reserve(new StockReservationRequest(99L, BigDecimal.ONE, 60L)));
+        verifyNoInteractions(productionCapacityEngine);
+    }
+
+    @Test
+    void expiry_whenTtlElapses_shouldReleaseQuantity() {
+        // Given
+        StockReservationResponse hold = stockReservationService.reserve(new StockReservationRequest(1L, new BigDecimal("4"), 2L));
+
+        // When
+        wheel.advance();
+        BigDecimal beforeExpiry = stockReservationService.reservedQuantity(1L);
+        wheel.advance();
+
+        // Then
+        assertEquals(0, new BigDecimal("4").compareTo(beforeExpiry));
+        assertEquals(0, BigDecimal.ZERO.compareTo(stockReservationService.reservedQuantity(1L)));
+        assertThrows(ResourceNotFoundException.class, () -> stockReservationService.findById(hold.id()));
+        verify(productionCapacityEngine).reservationChanged(1L, BigDecimal.ZERO);
+    }
+
+    @Test
+    void extend_shouldReplaceThePreviousExpiry() {
+        // Given
+        StockReservationResponse hold = stockReservationService.reserve(new StockReservationRequest(1L, new BigDecimal("4"), 1L));
+
+        // When
+        StockReservationResponse extended = stockReservationService.extend(hold.id(), new StockReservationExtensionRequest(3L));
+        wheel.advance();
+        wheel.advance();
+        BigDecimal beforeExpiry = stockReservationService.reservedQuantity(1L);
+        wheel.advance();
+
+        // Then
+        assertEquals(NOW.plusSeconds(3), extended.expiresAt());
+        assertEquals(0, new BigDecimal("4").compareTo(beforeExpiry));
+        assertEquals(0, BigDecimal.ZERO.compareTo(stockReservationService.reservedQuantity(1L)));
+    }
+
+    @Test
+    void release_shouldFreeQuantityAndCancelExpiry() {
+        // Given
+        StockReservationResponse hold = stockReservationService.reserve(new StockReservationRequest(1L, new BigDecimal("4"), 1L));
+
+        // When
+        stockReservationService.release(hold.id());
+        int expired = wheel.advance();
+
+        // Then
+        assertEquals(0, expired);
+        assertEquals(0, BigDecimal.ZERO.compareTo(stockReservationService.reservedQuantity(1L)));
+        assertThrows(ResourceNotFoundException.class, () -> stockReservationService.release(hold.id()));
+    }
+
+    @Test
+    void consume_shouldHandReservedTotalsToTheWriteAndReleaseStripes() {
+        // Given
+        stockReservationService.reserve(new StockReservationRequest(1L, new BigDecimal("4"), 60L));
+
+        // When
+        Map<Long, BigDecimal> seen = stockReservationService.consume(List.of(1L, 2L), reserved -> reserved);
+
+        // Then
+        assertEquals(1, seen.size());
+        assertEquals(0, new BigDecimal("4").compareTo(seen.get(1L)));
+        assertDoesNotThrow(() -> stockReservationService.reserve(new StockReservationRequest(1L, new BigDecimal("6"), 60L)));
+    }
+
+    @Test
+    void extend_whenReservationDoesNotExist_shouldThrowResourceNotFoundException() {
+        // When / Then
+        assertThrows(ResourceNotFoundException.class,
+                () -> stockReservationService.extend(UUID.randomUUID(), new StockReservationExtensionRequest(60L)));
+    }
+}